@@ -0,0 +1,80 @@
+package de.ialistannen.javadocapi.querying;
+
+import de.ialistannen.javadocapi.storage.ConfiguredGson;
+import de.ialistannen.javadocapi.storage.ElementFormat;
+import de.ialistannen.javadocapi.storage.SqliteReadOptions;
+import de.ialistannen.javadocapi.storage.SqliteStorage;
+import de.ialistannen.javadocapi.storage.SqliteWriteOptions;
+import de.ialistannen.javadocapi.storage.SyntheticIndex;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the different query shapes of {@link FuzzyElementQuery} on a synthetic index with 32k
+ * elements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FuzzyElementQueryBenchmark {
+
+  /**
+   * A class, a class member, a method with parameters, a constructor shorthand and a short
+   * query with a lot of matches.
+   */
+  @Param({"Type42", "Type42#get", "#add(String", "Type42()", "#of"})
+  public String queryString;
+
+  private Path file;
+  private SqliteStorage storage;
+  private FuzzyElementQuery query;
+
+  @Setup
+  public void setUp() throws IOException {
+    file = Files.createTempFile("query-benchmark", ".db");
+    Files.delete(file);
+
+    storage = new SqliteStorage(
+        ConfiguredGson.create(),
+        file,
+        SqliteWriteOptions.defaults().withFormat(ElementFormat.BINARY),
+        SqliteReadOptions.defaults()
+    );
+    storage.addAll(SyntheticIndex.generate(20, 50, 30));
+    query = new FuzzyElementQuery();
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    storage.close();
+    Files.delete(file);
+  }
+
+  @Benchmark
+  public List<FuzzyQueryResult> query() {
+    return query.query(storage, queryString);
+  }
+
+  @Benchmark
+  public List<FuzzyQueryResult> queryTop10() {
+    return query.query(storage, queryString, 10);
+  }
+}
@@ -0,0 +1,77 @@
+package de.ialistannen.javadocapi.rendering;
+
+import de.ialistannen.javadocapi.model.JavadocElement;
+import de.ialistannen.javadocapi.model.comment.JavadocComment;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentFragment;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentTag;
+import de.ialistannen.javadocapi.storage.SyntheticIndex;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares rendering comments to Markdown via Jsoup and CopyDown with the
+ * {@link DirectMarkdownCommentRenderer}. Run with {@code -prof gc} to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarkdownRenderingBenchmark {
+
+  private static final int MEMBERS_PER_TYPE = 20;
+  // The constructor and type have a comment too, each with content and two tags
+  private static final int COMMENTS = (MEMBERS_PER_TYPE + 2) * 3;
+
+  private MarkdownCommentRenderer markdownRenderer;
+  private DirectMarkdownCommentRenderer directRenderer;
+  private List<List<JavadocCommentFragment>> comments;
+
+  @Setup
+  public void setUp() {
+    markdownRenderer = new MarkdownCommentRenderer(new Java11PlusLinkResolver());
+    directRenderer = new DirectMarkdownCommentRenderer(new Java11PlusLinkResolver());
+
+    comments = new ArrayList<>();
+    for (JavadocElement element : SyntheticIndex.generate(1, 1, MEMBERS_PER_TYPE)) {
+      JavadocComment comment = element.getComment().orElseThrow();
+      comments.add(comment.getContent());
+      for (JavadocCommentTag tag : comment.getTags()) {
+        comments.add(tag.getContent());
+      }
+    }
+    if (comments.size() != COMMENTS) {
+      throw new IllegalStateException("Expected " + COMMENTS + " comments, got " + comments.size());
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COMMENTS)
+  public void markdown(Blackhole blackhole) {
+    for (List<JavadocCommentFragment> comment : comments) {
+      blackhole.consume(markdownRenderer.render(comment, "https://example.com/"));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COMMENTS)
+  public void direct(Blackhole blackhole) {
+    for (List<JavadocCommentFragment> comment : comments) {
+      blackhole.consume(directRenderer.render(comment, "https://example.com/"));
+    }
+  }
+}
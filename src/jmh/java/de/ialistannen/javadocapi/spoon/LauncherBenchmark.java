@@ -0,0 +1,72 @@
+package de.ialistannen.javadocapi.spoon;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import spoon.Launcher;
+import spoon.OutputType;
+import spoon.reflect.CtModel;
+import spoon.support.compiler.ZipFolder;
+
+/**
+ * Compares model build time and retained heap of the full spoon {@link Launcher} and the
+ * {@link JavadocLauncher}. The retained heap is printed after every iteration.
+ * <p>
+ * Defaults to the sources of this project, pass e.g. {@code -p sources=/path/to/jdk/lib/src.zip}
+ * to build the JDK.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class LauncherBenchmark {
+
+  @Param({"src/main/java"})
+  public String sources;
+
+  @Param({"full", "javadoc"})
+  public String launcher;
+
+  private CtModel model;
+
+  @Benchmark
+  public CtModel buildModel() throws IOException {
+    Launcher spoon = launcher.equals("full") ? new Launcher() : new JavadocLauncher();
+    spoon.getEnvironment().setShouldCompile(false);
+    spoon.getEnvironment().disableConsistencyChecks();
+    spoon.getEnvironment().setOutputType(OutputType.NO_OUTPUT);
+    spoon.getEnvironment().setCommentEnabled(true);
+    spoon.getEnvironment().setComplianceLevel(16);
+    if (sources.endsWith(".zip")) {
+      spoon.addInputResource(new ZipFolder(new File(sources)));
+    } else {
+      spoon.addInputResource(sources);
+    }
+
+    model = spoon.buildModel();
+    return model;
+  }
+
+  @TearDown(Level.Iteration)
+  public void reportRetainedHeap() {
+    System.gc();
+    long used = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    System.out.printf("%n%s launcher retains %d MiB with the model%n", launcher, used >> 20);
+    model = null;
+  }
+}
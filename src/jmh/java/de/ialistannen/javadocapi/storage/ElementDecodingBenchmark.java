@@ -0,0 +1,78 @@
+package de.ialistannen.javadocapi.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the per-row cost of reading and decoding elements in the different storage formats.
+ * The on-disk size of each index is printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElementDecodingBenchmark {
+
+  private static final int PACKAGES = 10;
+  private static final int TYPES_PER_PACKAGE = 20;
+  private static final int MEMBERS_PER_TYPE = 30;
+  private static final int ELEMENTS = PACKAGES * TYPES_PER_PACKAGE * (MEMBERS_PER_TYPE + 2);
+
+  @Param({"JSON", "BINARY"})
+  public ElementFormat format;
+
+  @Param({"false", "true"})
+  public boolean compress;
+
+  private Path file;
+  private SqliteStorage storage;
+
+  @Setup
+  public void setUp() throws IOException {
+    file = Files.createTempFile("decoding-benchmark", ".db");
+    Files.delete(file);
+
+    storage = new SqliteStorage(
+        ConfiguredGson.create(),
+        file,
+        SqliteWriteOptions.defaults().withFormat(format).withCompression(compress),
+        SqliteReadOptions.defaults()
+    );
+    storage.addAll(SyntheticIndex.generate(PACKAGES, TYPES_PER_PACKAGE, MEMBERS_PER_TYPE));
+
+    System.out.printf(
+        "%n%s (compressed: %s) index size: %d KiB for %d elements%n",
+        format, compress, Files.size(file) / 1024, ELEMENTS
+    );
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    storage.close();
+    Files.delete(file);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ELEMENTS)
+  public Collection<?> findAll() {
+    return storage.findAll();
+  }
+}
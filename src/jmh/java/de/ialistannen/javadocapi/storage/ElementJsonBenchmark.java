@@ -0,0 +1,67 @@
+package de.ialistannen.javadocapi.storage;
+
+import com.google.gson.Gson;
+import de.ialistannen.javadocapi.model.JavadocElement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the per-element cost of (de-)serializing elements with {@link ConfiguredGson}, without
+ * any database access. Run with {@code -prof gc} to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElementJsonBenchmark {
+
+  private static final int PACKAGES = 5;
+  private static final int TYPES_PER_PACKAGE = 10;
+  private static final int MEMBERS_PER_TYPE = 20;
+  private static final int ELEMENTS = PACKAGES * TYPES_PER_PACKAGE * (MEMBERS_PER_TYPE + 2);
+
+  private Gson gson;
+  private List<JavadocElement> elements;
+  private List<String> json;
+
+  @Setup
+  public void setUp() {
+    gson = ConfiguredGson.create();
+    elements = SyntheticIndex.generate(PACKAGES, TYPES_PER_PACKAGE, MEMBERS_PER_TYPE);
+    json = new ArrayList<>();
+    for (JavadocElement element : elements) {
+      json.add(gson.toJson(element));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ELEMENTS)
+  public void toJson(Blackhole blackhole) {
+    for (JavadocElement element : elements) {
+      blackhole.consume(gson.toJson(element));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ELEMENTS)
+  public void fromJson(Blackhole blackhole) {
+    for (int i = 0; i < elements.size(); i++) {
+      blackhole.consume(gson.fromJson(json.get(i), elements.get(i).getClass()));
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package de.ialistannen.javadocapi.storage;
+
+import de.ialistannen.javadocapi.model.QualifiedName;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the latency distribution (p50/p99 and others) of the lookups of the different
+ * {@link ElementLoader}s. Runs on a synthetic index with 32k elements unless {@link #indexPath}
+ * points to an existing one, e.g. a JDK index:
+ * <pre>{@code
+ * -p indexPath=jdk.db -p format=JSON -p elementName=Map#get -p className=util.Map
+ *   -p qualifiedName=java.base/java.util.Map -p prefix=Map
+ * }</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SqliteStorageBenchmark {
+
+  /**
+   * The index to query. Empty to generate a synthetic one.
+   */
+  @Param("")
+  public String indexPath;
+
+  /**
+   * The format of the elements in the synthetic index. Has no effect on an existing index.
+   */
+  @Param({"JSON", "BINARY"})
+  public ElementFormat format;
+
+  /**
+   * "defaults" and "serving" are {@link SqliteStorage}s with the respective
+   * {@link SqliteReadOptions}, "memory" is an {@link InMemoryElementLoader}.
+   */
+  @Param({"defaults", "serving", "memory"})
+  public String loader;
+
+  @Param("Type42#get")
+  public String elementName;
+
+  @Param("pkg7.Type42")
+  public String className;
+
+  /**
+   * The qualified name to look up, prefixed with its module and a slash if it has one.
+   */
+  @Param("example.module/com.example.pkg7.Type42#get()")
+  public String qualifiedName;
+
+  @Param("Type42")
+  public String prefix;
+
+  private Path directory;
+  private SqliteStorage storage;
+  private ElementLoader elementLoader;
+  private QualifiedName name;
+
+  @Setup
+  public void setUp() throws IOException {
+    Path file;
+    if (indexPath.isEmpty()) {
+      directory = Files.createTempDirectory("storage-benchmark");
+      file = directory.resolve("index.db");
+
+      try (SqliteStorage writer = new SqliteStorage(
+          ConfiguredGson.create(),
+          file,
+          SqliteWriteOptions.defaults().withFormat(format),
+          SqliteReadOptions.defaults()
+      )) {
+        writer.addAll(SyntheticIndex.generate(20, 50, 30));
+      }
+    } else {
+      file = Path.of(indexPath);
+      if (Files.notExists(file)) {
+        throw new IOException("Index " + file + " does not exist");
+      }
+    }
+
+    SqliteReadOptions readOptions = loader.equals("serving")
+        ? SqliteReadOptions.serving()
+        : SqliteReadOptions.defaults();
+    storage = new SqliteStorage(ConfiguredGson.create(), file, readOptions);
+    elementLoader = loader.equals("memory") ? new InMemoryElementLoader(storage) : storage;
+    name = QualifiedName.ofStringWithModule(qualifiedName);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    storage.close();
+    if (directory == null) {
+      return;
+    }
+    try (var files = Files.list(directory)) {
+      for (Path path : (Iterable<Path>) files::iterator) {
+        Files.delete(path);
+      }
+    }
+    Files.delete(directory);
+  }
+
+  @Benchmark
+  public Collection<?> findElementByName() {
+    return elementLoader.findElementByName(elementName);
+  }
+
+  @Benchmark
+  public Collection<?> findClassByName() {
+    return elementLoader.findClassByName(className);
+  }
+
+  @Benchmark
+  public Collection<?> findByQualifiedName() {
+    return elementLoader.findByQualifiedName(name);
+  }
+
+  @Benchmark
+  public Collection<?> autocomplete() {
+    return elementLoader.autocomplete(prefix);
+  }
+}
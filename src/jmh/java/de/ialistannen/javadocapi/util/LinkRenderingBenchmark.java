@@ -0,0 +1,84 @@
+package de.ialistannen.javadocapi.util;
+
+import de.ialistannen.javadocapi.model.QualifiedName;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentFragment;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentLink;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentText;
+import de.ialistannen.javadocapi.rendering.HtmlCommentRender;
+import de.ialistannen.javadocapi.rendering.Java11PlusLinkResolver;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks rendering a comment full of links with an
+ * {@link ExternalJavadocAwareLinkResolveStrategy} knowing many external javadocs. The cold variant
+ * uses a new strategy for every comment, so no link is resolved before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkRenderingBenchmark {
+
+  private static final int EXTERNAL_JAVADOCS = 20;
+  private static final int PACKAGES_PER_JAVADOC = 30;
+  private static final int LINKS = 60;
+
+  private List<ExternalJavadocReference> references;
+  private HtmlCommentRender renderer;
+  private List<JavadocCommentFragment> comment;
+
+  @Setup
+  public void setUp() {
+    references = new ArrayList<>();
+    for (int i = 0; i < EXTERNAL_JAVADOCS; i++) {
+      Set<String> packages = new HashSet<>();
+      for (int j = 0; j < PACKAGES_PER_JAVADOC; j++) {
+        packages.add("org.lib" + i + ".pkg" + j);
+      }
+      references.add(new ExternalJavadocReference("https://lib" + i + ".example.com/", packages));
+    }
+    renderer = new HtmlCommentRender(createStrategy());
+
+    comment = new ArrayList<>();
+    for (int i = 0; i < LINKS; i++) {
+      // Mix types and members of external javadocs with ones of the index itself
+      String type = i % 3 == 0
+          ? "com.example.pkg" + i + ".Type" + i
+          : "org.lib" + (i % EXTERNAL_JAVADOCS) + ".pkg" + (i % PACKAGES_PER_JAVADOC) + ".Type" + i;
+      String target = i % 2 == 0 ? type : type + "#method" + i + "(int)";
+      comment.add(new JavadocCommentText("See "));
+      comment.add(new JavadocCommentLink(new QualifiedName(target), null, false));
+      comment.add(new JavadocCommentText(" and "));
+    }
+  }
+
+  @Benchmark
+  public String warm() {
+    return renderer.render(comment, "https://example.com/");
+  }
+
+  @Benchmark
+  public String cold() {
+    return new HtmlCommentRender(createStrategy()).render(comment, "https://example.com/");
+  }
+
+  private ExternalJavadocAwareLinkResolveStrategy createStrategy() {
+    return new ExternalJavadocAwareLinkResolveStrategy(new Java11PlusLinkResolver(), references);
+  }
+}
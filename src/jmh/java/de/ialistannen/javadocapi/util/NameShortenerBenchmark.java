@@ -0,0 +1,87 @@
+package de.ialistannen.javadocapi.util;
+
+import de.ialistannen.javadocapi.model.JavadocElement;
+import de.ialistannen.javadocapi.model.QualifiedName;
+import de.ialistannen.javadocapi.storage.SyntheticIndex;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks shortening result sets of different sizes, taken from a synthetic index or made of
+ * types in deeply nested packages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NameShortenerBenchmark {
+
+  @Param({"10", "100", "1000", "10000"})
+  public int size;
+
+  @Param({"index", "nested"})
+  public String shape;
+
+  private NameShortener shortener;
+  private Set<QualifiedName> names;
+
+  @Setup
+  public void setUp() {
+    List<QualifiedName> allNames;
+    if (shape.equals("index")) {
+      allNames = SyntheticIndex.generate(20, 50, 12)
+          .stream()
+          .map(JavadocElement::getQualifiedName)
+          // Results of real queries come without modules
+          .map(it -> new QualifiedName(it.asString()))
+          .collect(Collectors.toCollection(ArrayList::new));
+    } else {
+      allNames = nestedNames(size);
+    }
+    Collections.shuffle(allNames, new Random(42));
+
+    shortener = new NameShortener();
+    names = new HashSet<>(allNames.subList(0, size));
+  }
+
+  private static List<QualifiedName> nestedNames(int count) {
+    List<QualifiedName> result = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      StringBuilder type = new StringBuilder("org.example.root" + i % 10);
+      for (int depth = 0; depth < 8 + i % 8; depth++) {
+        type.append(".nested").append(depth);
+      }
+      // Every simple name is shared by two types in differently nested packages
+      type.append(".Type").append(i / 2);
+      result.add(new QualifiedName(
+          type + "#of(" + type + ",org.example.root" + i % 10 + ".Parameter)"
+      ));
+    }
+    return result;
+  }
+
+  @Benchmark
+  public Map<String, String> shortenMatches() {
+    return shortener.shortenMatches(names);
+  }
+}
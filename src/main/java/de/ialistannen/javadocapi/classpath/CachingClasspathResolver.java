@@ -0,0 +1,110 @@
+package de.ialistannen.javadocapi.classpath;
+
+import de.ialistannen.javadocapi.util.Hashes;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.apache.maven.shared.invoker.MavenInvocationException;
+
+/**
+ * Finds the classpath of a {@link Pom}, avoiding maven invocations where possible.
+ * <p>
+ * Resolved classpaths are cached on disk, keyed by a hash of the {@link Pom#format() formatted
+ * POM}. On a cache miss the classpath is first resolved against the local repository and only if
+ * that fails maven is invoked through the {@link PomClasspathDiscoverer}.
+ */
+public class CachingClasspathResolver {
+
+  private final Path cacheDirectory;
+  private final LocalRepositoryResolver localResolver;
+  private final PomClasspathDiscoverer discoverer;
+
+  /**
+   * @param cacheDirectory the directory to store resolved classpaths in
+   * @param localResolver the resolver for the local repository
+   * @param discoverer the discoverer invoking maven
+   */
+  public CachingClasspathResolver(Path cacheDirectory, LocalRepositoryResolver localResolver,
+      PomClasspathDiscoverer discoverer) {
+    this.cacheDirectory = cacheDirectory;
+    this.localResolver = localResolver;
+    this.discoverer = discoverer;
+  }
+
+  /**
+   * @return the directory classpaths are cached in by default
+   */
+  public static Path defaultCacheDirectory() {
+    return Path.of(System.getProperty("user.home"), ".cache", "javadoc-api", "classpath");
+  }
+
+  /**
+   * Finds the classpath of the given POM.
+   *
+   * @param pom the pom to resolve
+   * @param mavenHome the maven.home location, if maven is available
+   * @return all extra jars that should be on the classpath
+   * @throws IOException if an error occurs reading or writing the cache
+   * @throws MavenInvocationException if maven is needed but not available or fails
+   */
+  public List<Path> findClasspath(Pom pom, Optional<Path> mavenHome)
+      throws IOException, MavenInvocationException {
+    String formattedPom = pom.format();
+    Path cacheFile = cacheDirectory.resolve(Hashes.sha256(formattedPom) + ".classpath");
+
+    Optional<List<Path>> cached = readCache(cacheFile);
+    if (cached.isPresent()) {
+      System.out.println("  Using cached classpath " + cacheFile);
+      return cached.get();
+    }
+
+    Optional<List<Path>> local = localResolver.resolve(pom);
+    List<Path> classpath;
+    if (local.isPresent()) {
+      System.out.println("  Resolved classpath from local repository");
+      classpath = local.get();
+    } else {
+      if (mavenHome.isEmpty()) {
+        throw new MavenInvocationException("Classpath needs maven, but no maven home is set");
+      }
+      System.out.println("  Resolving classpath with maven");
+      Path pomFile = Files.createTempFile("Generatedpom", ".xml");
+      try {
+        Files.writeString(pomFile, formattedPom);
+        classpath = discoverer.findClasspath(pomFile, mavenHome.get());
+      } finally {
+        Files.deleteIfExists(pomFile);
+      }
+    }
+
+    Files.createDirectories(cacheDirectory);
+    Files.write(
+        cacheFile,
+        classpath.stream().map(Path::toString).collect(Collectors.toList()),
+        StandardCharsets.UTF_8
+    );
+
+    return classpath;
+  }
+
+  private static Optional<List<Path>> readCache(Path cacheFile) throws IOException {
+    if (!Files.isRegularFile(cacheFile)) {
+      return Optional.empty();
+    }
+    List<Path> classpath = Files.readAllLines(cacheFile, StandardCharsets.UTF_8)
+        .stream()
+        .filter(it -> !it.isBlank())
+        .map(Path::of)
+        .collect(Collectors.toList());
+
+    // The local repository might have been cleaned up in the meantime
+    if (!classpath.stream().allMatch(Files::isRegularFile)) {
+      return Optional.empty();
+    }
+    return Optional.of(classpath);
+  }
+}
@@ -0,0 +1,349 @@
+package de.ialistannen.javadocapi.classpath;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+/**
+ * Resolves the classpath of a {@link Pom} using only the artifacts already present in a local maven
+ * repository, without invoking maven.
+ * <p>
+ * This covers the common subset of maven's resolution: parent POMs, properties, dependency
+ * management including imported BOMs, exclusions and nearest-wins conflict resolution. Anything
+ * beyond that, like version ranges, profiles or missing artifacts, makes the resolution fail so the
+ * caller can fall back to maven.
+ */
+public class LocalRepositoryResolver {
+
+  private static final Pattern PROPERTY = Pattern.compile("\\$\\{([^}]+)}");
+  private static final Set<String> CLASSPATH_SCOPES = Set.of("compile", "runtime");
+
+  private final Path repository;
+  private final Map<String, EffectiveModel> models;
+
+  /**
+   * @param repository the root of the local repository, e.g. {@code ~/.m2/repository}
+   */
+  public LocalRepositoryResolver(Path repository) {
+    this.repository = repository;
+    this.models = new HashMap<>();
+  }
+
+  /**
+   * @return the local repository maven uses by default
+   */
+  public static Path defaultRepository() {
+    String configured = System.getProperty("maven.repo.local");
+    if (configured != null) {
+      return Path.of(configured);
+    }
+    return Path.of(System.getProperty("user.home"), ".m2", "repository");
+  }
+
+  /**
+   * Resolves the compile and runtime classpath of the given POM.
+   *
+   * @param pom the pom to resolve
+   * @return all jars on the classpath or an empty optional if the classpath can not be resolved
+   *     from the local repository alone
+   */
+  public Optional<List<Path>> resolve(Pom pom) {
+    try {
+      return Optional.of(resolveOrThrow(pom));
+    } catch (UnresolvableException e) {
+      System.out.println("  Can not resolve locally: " + e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  private List<Path> resolveOrThrow(Pom pom) throws UnresolvableException {
+    Map<String, String> rootManagement = new HashMap<>();
+    for (Dependency dependency : pom.getDependencyManagement()) {
+      String version = dependency.getVersion()
+          .orElseThrow(() -> new UnresolvableException("Unversioned managed " + dependency));
+      if (dependency.isPom()) {
+        EffectiveModel bom = loadModel(
+            dependency.getGroupId(), dependency.getArtifactId(), version
+        );
+        bom.managedVersions.forEach(rootManagement::putIfAbsent);
+      } else {
+        rootManagement.put(key(dependency.getGroupId(), dependency.getArtifactId()), version);
+      }
+    }
+
+    // Breadth first mirrors maven's "nearest definition wins", so the first artifact to be queued
+    // is the one that ends up on the classpath
+    Queue<Node> queue = new ArrayDeque<>();
+    Set<String> seen = new HashSet<>();
+    for (Dependency dependency : pom.getDependencies()) {
+      String key = key(dependency.getGroupId(), dependency.getArtifactId());
+      if (!seen.add(key)) {
+        continue;
+      }
+      String version = dependency.getVersion().orElse(rootManagement.get(key));
+      if (version == null) {
+        throw new UnresolvableException("No version for " + key);
+      }
+      String type = dependency.isPom() ? "pom" : "jar";
+      queue.add(new Node(
+          dependency.getGroupId(), dependency.getArtifactId(), version, type, Set.of()
+      ));
+    }
+
+    List<Path> classpath = new ArrayList<>();
+    while (!queue.isEmpty()) {
+      Node node = queue.poll();
+      EffectiveModel model = loadModel(node.groupId, node.artifactId, node.version);
+      if (!node.type.equals("pom")) {
+        Path jar = artifactDirectory(node.groupId, node.artifactId, node.version)
+            .resolve(node.artifactId + "-" + node.version + ".jar");
+        if (!Files.isRegularFile(jar)) {
+          throw new UnresolvableException("Missing " + jar);
+        }
+        classpath.add(jar);
+      }
+
+      for (org.apache.maven.model.Dependency dependency : model.dependencies) {
+        if (isSkipped(dependency, node.exclusions)) {
+          continue;
+        }
+        String key = key(dependency.getGroupId(), dependency.getArtifactId());
+        if (key.contains("${")) {
+          throw new UnresolvableException("Unresolved property in " + key);
+        }
+        if (!seen.add(key)) {
+          continue;
+        }
+        String version = rootManagement.get(key);
+        if (version == null) {
+          version = dependency.getVersion() != null
+              ? dependency.getVersion()
+              : model.managedVersions.get(key);
+        }
+        if (version == null || !isPlainVersion(version)) {
+          throw new UnresolvableException("Unsupported version for " + key + ": " + version);
+        }
+        if (dependency.getClassifier() != null && !dependency.getClassifier().isEmpty()) {
+          throw new UnresolvableException("Classifiers are not supported: " + key);
+        }
+
+        Set<String> exclusions = new HashSet<>(node.exclusions);
+        for (Exclusion exclusion : dependency.getExclusions()) {
+          exclusions.add(key(exclusion.getGroupId(), exclusion.getArtifactId()));
+        }
+        queue.add(new Node(
+            dependency.getGroupId(), dependency.getArtifactId(), version, dependency.getType(),
+            exclusions
+        ));
+      }
+    }
+
+    return classpath;
+  }
+
+  private boolean isSkipped(org.apache.maven.model.Dependency dependency, Set<String> exclusions)
+      throws UnresolvableException {
+    String scope = dependency.getScope() == null ? "compile" : dependency.getScope();
+    if (!CLASSPATH_SCOPES.contains(scope) || dependency.isOptional()) {
+      return true;
+    }
+    if (exclusions.contains(key(dependency.getGroupId(), dependency.getArtifactId()))
+        || exclusions.contains(key(dependency.getGroupId(), "*"))
+        || exclusions.contains(key("*", "*"))) {
+      return true;
+    }
+    if (!dependency.getType().equals("jar") && !dependency.getType().equals("pom")) {
+      throw new UnresolvableException("Unsupported type " + dependency.getType());
+    }
+    return false;
+  }
+
+  private EffectiveModel loadModel(String groupId, String artifactId, String version)
+      throws UnresolvableException {
+    String key = key(groupId, artifactId) + ":" + version;
+    EffectiveModel cached = models.get(key);
+    if (cached != null) {
+      return cached;
+    }
+
+    Path pomFile = artifactDirectory(groupId, artifactId, version)
+        .resolve(artifactId + "-" + version + ".pom");
+    Model model;
+    try (Reader reader = Files.newBufferedReader(pomFile)) {
+      model = new MavenXpp3Reader().read(reader);
+    } catch (IOException | XmlPullParserException e) {
+      throw new UnresolvableException("Can not read " + pomFile + ": " + e.getMessage());
+    }
+    // Profiles are usually about the build, and those without activation are never active when
+    // resolving dependencies
+    boolean profileChangesDependencies = model.getProfiles()
+        .stream()
+        .filter(it -> it.getActivation() != null)
+        .anyMatch(it -> !it.getDependencies().isEmpty()
+            || it.getDependencyManagement() != null
+            && !it.getDependencyManagement().getDependencies().isEmpty());
+    if (profileChangesDependencies) {
+      throw new UnresolvableException("Profiles with dependencies are not supported: " + key);
+    }
+
+    EffectiveModel result = new EffectiveModel();
+    Parent parent = model.getParent();
+    if (parent != null) {
+      EffectiveModel parentModel = loadModel(
+          parent.getGroupId(), parent.getArtifactId(), parent.getVersion()
+      );
+      result.properties.putAll(parentModel.properties);
+      result.managedVersions.putAll(parentModel.managedVersions);
+      result.dependencies.addAll(parentModel.dependencies);
+      result.properties.put("project.parent.version", parent.getVersion());
+      result.properties.put("project.parent.groupId", parent.getGroupId());
+    }
+    model.getProperties()
+        .forEach((name, value) -> result.properties.put((String) name, (String) value));
+    result.properties.put("project.groupId", groupId);
+    result.properties.put("project.artifactId", artifactId);
+    result.properties.put("project.version", version);
+    result.properties.put("pom.version", version);
+    result.properties.put("version", version);
+
+    if (model.getDependencyManagement() != null) {
+      for (org.apache.maven.model.Dependency managed : model.getDependencyManagement()
+          .getDependencies()) {
+        org.apache.maven.model.Dependency dependency;
+        try {
+          dependency = interpolate(managed, result.properties);
+        } catch (UnresolvableException e) {
+          // Unused entries often refer to properties set by profiles. If the entry is needed, the
+          // dependency will lack a version later on.
+          continue;
+        }
+        String managedKey = key(dependency.getGroupId(), dependency.getArtifactId());
+        if ("import".equals(dependency.getScope())) {
+          EffectiveModel bom = loadModel(
+              dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion()
+          );
+          bom.managedVersions.forEach(result.managedVersions::putIfAbsent);
+        } else if (dependency.getVersion() != null) {
+          result.managedVersions.put(managedKey, dependency.getVersion());
+        }
+      }
+    }
+    for (org.apache.maven.model.Dependency dependency : model.getDependencies()) {
+      try {
+        result.dependencies.add(interpolate(dependency, result.properties));
+      } catch (UnresolvableException e) {
+        // Only a problem if the dependency ends up on the classpath, see resolveOrThrow
+        result.dependencies.add(dependency);
+      }
+    }
+
+    models.put(key, result);
+    return result;
+  }
+
+  private org.apache.maven.model.Dependency interpolate(org.apache.maven.model.Dependency raw,
+      Map<String, String> properties) throws UnresolvableException {
+    org.apache.maven.model.Dependency dependency = raw.clone();
+    dependency.setGroupId(interpolate(raw.getGroupId(), properties));
+    dependency.setArtifactId(interpolate(raw.getArtifactId(), properties));
+    dependency.setVersion(interpolate(raw.getVersion(), properties));
+    dependency.setScope(interpolate(raw.getScope(), properties));
+    return dependency;
+  }
+
+  private String interpolate(String value, Map<String, String> properties)
+      throws UnresolvableException {
+    if (value == null) {
+      return null;
+    }
+    String current = value;
+    // Properties may reference other properties, but never in an endless chain
+    for (int i = 0; i < 10 && current.contains("${"); i++) {
+      Matcher matcher = PROPERTY.matcher(current);
+      StringBuilder result = new StringBuilder();
+      while (matcher.find()) {
+        String replacement = properties.get(matcher.group(1));
+        if (replacement == null) {
+          throw new UnresolvableException("Unknown property " + matcher.group());
+        }
+        matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+      }
+      matcher.appendTail(result);
+      current = result.toString();
+    }
+    if (current.contains("${")) {
+      throw new UnresolvableException("Recursive property in " + value);
+    }
+    return current;
+  }
+
+  private Path artifactDirectory(String groupId, String artifactId, String version) {
+    Path directory = repository;
+    for (String part : groupId.split("\\.")) {
+      directory = directory.resolve(part);
+    }
+    return directory.resolve(artifactId).resolve(version);
+  }
+
+  private static boolean isPlainVersion(String version) {
+    return !version.isEmpty()
+        && !version.contains("${")
+        && !version.startsWith("[")
+        && !version.startsWith("(")
+        && !version.contains(",");
+  }
+
+  private static String key(String groupId, String artifactId) {
+    return groupId + ":" + artifactId;
+  }
+
+  private static class EffectiveModel {
+
+    private final Map<String, String> properties = new HashMap<>();
+    private final Map<String, String> managedVersions = new LinkedHashMap<>();
+    private final List<org.apache.maven.model.Dependency> dependencies = new ArrayList<>();
+  }
+
+  private static class Node {
+
+    private final String groupId;
+    private final String artifactId;
+    private final String version;
+    private final String type;
+    private final Set<String> exclusions;
+
+    private Node(String groupId, String artifactId, String version, String type,
+        Set<String> exclusions) {
+      this.groupId = groupId;
+      this.artifactId = artifactId;
+      this.version = version;
+      this.type = type;
+      this.exclusions = exclusions;
+    }
+  }
+
+  private static class UnresolvableException extends Exception {
+
+    private UnresolvableException(String message) {
+      super(message);
+    }
+  }
+}
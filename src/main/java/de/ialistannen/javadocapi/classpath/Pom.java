@@ -1,6 +1,8 @@
 package de.ialistannen.javadocapi.classpath;
 
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.stream.Collectors;
@@ -34,6 +36,13 @@ public class Pom {
       </project>
       """;
 
+  // Sets iterate in a different order every run, but the formatted POM is used as a cache key
+  private static final Comparator<Dependency> DEPENDENCY_ORDER = Comparator
+      .comparing(Dependency::getGroupId)
+      .thenComparing(Dependency::getArtifactId)
+      .thenComparing(it -> it.getVersion().orElse(""))
+      .thenComparing(Dependency::isPom);
+
   private final Set<Dependency> dependencies;
   private final Set<Dependency> dependencyManagement;
   private final Set<Repository> repositories;
@@ -68,14 +77,19 @@ public class Pom {
   public String format() {
     StringJoiner repositoriesString = new StringJoiner("\n");
     String dependenciesString = dependencies.stream()
+        .sorted(DEPENDENCY_ORDER)
         .map(Dependency::format)
         .collect(Collectors.joining("\n"));
     String dependencyManagementString = dependencyManagement.stream()
+        .sorted(DEPENDENCY_ORDER)
         .map(Dependency::format)
         .collect(Collectors.joining("\n"));
 
     int currentRepoId = 0;
-    for (Repository repository : repositories) {
+    List<Repository> sortedRepositories = repositories.stream()
+        .sorted(Comparator.comparing(Repository::getUrl))
+        .collect(Collectors.toList());
+    for (Repository repository : sortedRepositories) {
       repositoriesString.add(repository.format("id-" + ++currentRepoId));
     }
 
@@ -1,34 +1,61 @@
 package de.ialistannen.javadocapi.indexing;
 
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import de.ialistannen.javadocapi.classpath.CachingClasspathResolver;
 import de.ialistannen.javadocapi.classpath.GradleParser;
+import de.ialistannen.javadocapi.classpath.LocalRepositoryResolver;
 import de.ialistannen.javadocapi.classpath.Pom;
 import de.ialistannen.javadocapi.classpath.PomClasspathDiscoverer;
 import de.ialistannen.javadocapi.classpath.PomParser;
+import de.ialistannen.javadocapi.model.JavadocElement;
+import de.ialistannen.javadocapi.rendering.Java11PlusLinkResolver;
+import de.ialistannen.javadocapi.rendering.Java8LinkResolver;
+import de.ialistannen.javadocapi.rendering.LinkResolveStrategy;
+import de.ialistannen.javadocapi.rendering.StoredCommentRenderer;
 import de.ialistannen.javadocapi.spoon.JavadocElementExtractor;
 import de.ialistannen.javadocapi.spoon.JavadocLauncher;
+import de.ialistannen.javadocapi.spoon.JavadocParser;
+import de.ialistannen.javadocapi.spoon.filtering.FluentFilter;
+import de.ialistannen.javadocapi.spoon.filtering.ForkJoinProcessor;
 import de.ialistannen.javadocapi.spoon.filtering.IndexerFilterChain;
+import de.ialistannen.javadocapi.spoon.filtering.ModelProcessor;
 import de.ialistannen.javadocapi.spoon.filtering.ParallelProcessor;
 import de.ialistannen.javadocapi.storage.ConfiguredGson;
+import de.ialistannen.javadocapi.storage.SqliteReadOptions;
 import de.ialistannen.javadocapi.storage.SqliteStorage;
+import de.ialistannen.javadocapi.storage.SqliteWriteOptions;
+import de.ialistannen.javadocapi.storage.StreamingElementWriter;
 import de.ialistannen.javadocapi.util.Timings;
 import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 import org.apache.maven.shared.invoker.MavenInvocationException;
 import spoon.Launcher;
 import spoon.OutputType;
 import spoon.reflect.CtModel;
+import spoon.reflect.declaration.CtElement;
 import spoon.support.compiler.ProgressLogger;
 import spoon.support.compiler.ZipFolder;
 
 public class Indexer {
 
+  private static final int WRITE_BATCH_SIZE = 2000;
+  private static final int WRITE_QUEUE_CAPACITY = 20_000;
+  private static final String INPUT_FINGERPRINT_KEY = "input_fingerprint";
+  private static final String INDEXED_PACKAGES_KEY = "indexed_packages";
+  private static final String WRITE_SETTINGS_KEY = "write_settings";
+
   public static void main(String[] args) throws IOException {
     if (args.length != 1) {
       System.err.println("Usage: Indexer <path to config>");
@@ -49,8 +76,237 @@ public class Indexer {
           );
     }
 
+    String inputFingerprint = null;
+    if (config.isIncremental() && !config.getOutputPath().isEmpty()) {
+      System.out.println(heading("Checking for changes"));
+      inputFingerprint = timings.measure(
+          "fingerprint-inputs",
+          () -> SourceUnitChanges.fingerprint(config.getResourcePaths())
+      );
+      if (!prepareIncrementalOutput(config, inputFingerprint)) {
+        System.out.println("Index is up to date\n");
+        return;
+      }
+    }
+
     System.out.println(heading("Configuring spoon"));
-    timings.startTimer("configure-launcher");
+    ClassLoader inputClassLoader = null;
+    if (!config.getBuildFiles().isEmpty()) {
+      inputClassLoader = timings.measure(
+          "build-classpath",
+          () -> buildInputClassLoader(config.getBuildFiles(), config.getMavenHome())
+      );
+    }
+    System.out.println("Spoon successfully configured\n");
+
+    System.out.println(heading("Building spoon model"));
+    Launcher launcher = createLauncher(config.getResourcePaths(), inputClassLoader);
+    CtModel model = timings.measure("build-model", launcher::buildModel);
+    if (config.isOutputTimings()) {
+      // Only collect garbage when asked for timings, it takes a while for large models
+      System.gc();
+      timings.recordValue("build-model-heap-mb", usedHeapMegabytes());
+    }
+    System.out.println("Model successfully built\n");
+
+    System.out.println(heading("Converting Spoon Model "));
+    FluentFilter filter = new IndexerFilterChain(config.getAllowedPackages()).asFilter();
+
+    if (config.getOutputPath().isEmpty()) {
+      System.out.println("Not writing elements as the output path is empty");
+      ModelProcessor processor = createProcessor(filter);
+      JavadocElementExtractor extractor = new JavadocElementExtractor(element -> {
+      });
+      timings.measure("process-model", () -> processModel(model, processor, extractor));
+      recordProcessorTimings(timings, processor);
+      recordParserStatistics(timings, extractor.getParser());
+      System.out.println("Model successfully converted\n");
+      return;
+    }
+
+    try (SqliteStorage storage = createStorage(config)) {
+      SourceUnitChanges changes = null;
+      if (config.isIncremental()) {
+        changes = timings.measure(
+            "find-changed-units",
+            () -> SourceUnitChanges.compute(model, storage.findSourceUnits())
+        );
+        System.out.println(
+            "Extracting " + changes.getDirtyHashes().size() + " changed or dependent units, "
+                + "removing " + changes.getUnitsToRemove().size() + " outdated units"
+        );
+        filter = filter.and(changes.asFilter());
+      }
+
+      // Elements are written while the model is converted, so they never need to be held in
+      // memory all at once
+      try (StreamingElementWriter writer = createWriter(storage, changes)) {
+        // Comments are pre-rendered here, on the extracting threads, not on the writer thread
+        BiConsumer<CtElement, JavadocElement> sink =
+            (source, element) -> writer.accept(storage.preRender(element));
+        if (changes != null) {
+          sink = sink.andThen(changes::recordElement);
+        }
+
+        ModelProcessor processor = createProcessor(filter);
+        JavadocElementExtractor extractor = new JavadocElementExtractor(sink);
+        try {
+          timings.measure("process-model", () -> processModel(model, processor, extractor));
+        } catch (RuntimeException | Error e) {
+          // A partially extracted model must not replace the stored elements
+          writer.abort();
+          throw e;
+        }
+        recordProcessorTimings(timings, processor);
+        recordParserStatistics(timings, extractor.getParser());
+        System.out.println("Model successfully converted\n");
+
+        System.out.println(heading("Writing to output database"));
+        timings.measure("write-database", writer::close);
+        System.out.println("Wrote " + extractor.getFoundCount() + " elements\n");
+      }
+
+      if (changes != null) {
+        storage.writeMetadata(
+            INPUT_FINGERPRINT_KEY, inputFingerprint.getBytes(StandardCharsets.UTF_8)
+        );
+        storage.writeMetadata(
+            INDEXED_PACKAGES_KEY, indexedPackages(config).getBytes(StandardCharsets.UTF_8)
+        );
+        storage.writeMetadata(
+            WRITE_SETTINGS_KEY, writeSettings(config).getBytes(StandardCharsets.UTF_8)
+        );
+      }
+    }
+  }
+
+  private static StreamingElementWriter createWriter(SqliteStorage storage,
+      SourceUnitChanges changes) {
+    if (changes == null) {
+      return new StreamingElementWriter(storage, WRITE_BATCH_SIZE, WRITE_QUEUE_CAPACITY);
+    }
+    // Outdated elements are deleted in the same transaction that adds their replacements
+    return new StreamingElementWriter(
+        batches -> storage.replaceSourceUnits(
+            changes.getUnitsToRemove(), batches, changes.getDirtyHashes(), changes::getElementNames
+        ),
+        WRITE_BATCH_SIZE,
+        WRITE_QUEUE_CAPACITY
+    );
+  }
+
+  /**
+   * Prepares the output database for an incremental run. If the database was built for other
+   * packages, with other write settings or without incremental support, it is deleted and built
+   * again from scratch.
+   *
+   * @param config the indexer config
+   * @param inputFingerprint the fingerprint of the current inputs
+   * @return false if the database is already up to date
+   * @throws IOException if an error occurs while deleting an outdated database
+   */
+  private static boolean prepareIncrementalOutput(IndexerConfig config, String inputFingerprint)
+      throws IOException {
+    Path outputPath = Path.of(config.getOutputPath());
+    if (Files.notExists(outputPath)) {
+      return true;
+    }
+
+    Optional<String> indexedPackages;
+    Optional<String> writeSettings;
+    Optional<String> storedFingerprint;
+    try (SqliteStorage storage = createStorage(config)) {
+      indexedPackages = storage.readMetadata(INDEXED_PACKAGES_KEY)
+          .map(it -> new String(it, StandardCharsets.UTF_8));
+      writeSettings = storage.readMetadata(WRITE_SETTINGS_KEY)
+          .map(it -> new String(it, StandardCharsets.UTF_8));
+      storedFingerprint = storage.readMetadata(INPUT_FINGERPRINT_KEY)
+          .map(it -> new String(it, StandardCharsets.UTF_8));
+    }
+
+    // Only the changed units would be written with new settings, leaving the rest outdated
+    if (!indexedPackages.equals(Optional.of(indexedPackages(config)))
+        || !writeSettings.equals(Optional.of(writeSettings(config)))) {
+      System.out.println("Existing index can not be updated, building it from scratch");
+      Files.delete(outputPath);
+      return true;
+    }
+
+    return !storedFingerprint.equals(Optional.of(inputFingerprint));
+  }
+
+  private static String indexedPackages(IndexerConfig config) {
+    return config.getAllowedPackages().stream().sorted().collect(Collectors.joining("\n"));
+  }
+
+  private static String writeSettings(IndexerConfig config) {
+    String preRenderFormat = createPreRenderer(config)
+        .map(StoredCommentRenderer::getFormat)
+        .orElse("");
+    return "element-format=" + config.getElementFormat() + "\n"
+        + "compress-elements=" + config.isCompressElements() + "\n"
+        + "pre-render=" + preRenderFormat;
+  }
+
+  private static SqliteStorage createStorage(IndexerConfig config) {
+    return new SqliteStorage(
+        ConfiguredGson.create(),
+        Path.of(config.getOutputPath()),
+        SqliteWriteOptions.defaults()
+            .withFormat(config.getElementFormat())
+            .withCompression(config.isCompressElements())
+            .withPreRenderer(createPreRenderer(config).orElse(null)),
+        SqliteReadOptions.defaults()
+    );
+  }
+
+  private static Optional<StoredCommentRenderer> createPreRenderer(IndexerConfig config) {
+    LinkResolveStrategy linkResolveStrategy = config.isPreRenderJava8Links()
+        ? new Java8LinkResolver()
+        : new Java11PlusLinkResolver();
+    return config.getPreRenderBaseUrl()
+        .map(baseUrl -> new StoredCommentRenderer(linkResolveStrategy, baseUrl));
+  }
+
+  private static ModelProcessor createProcessor(FluentFilter filter) {
+    int parallelism = Runtime.getRuntime().availableProcessors();
+    if (Boolean.getBoolean("barrierProcessor")) {
+      return new ParallelProcessor(filter, parallelism);
+    }
+    return new ForkJoinProcessor(filter, parallelism);
+  }
+
+  private static void recordProcessorTimings(Timings timings, ModelProcessor processor) {
+    if (processor instanceof ForkJoinProcessor) {
+      ForkJoinProcessor forkJoinProcessor = (ForkJoinProcessor) processor;
+      timings.recordTiming("process-model-cpu", forkJoinProcessor.getCpuTime());
+      timings.recordValue(
+          "process-model-cpu-utilisation-percent", forkJoinProcessor.getCpuUtilisationPercent()
+      );
+    }
+  }
+
+  private static void recordParserStatistics(Timings timings, JavadocParser parser) {
+    CacheStats typeStats = parser.getTypeCacheStats();
+    timings.recordValue("type-cache-hits", typeStats.hitCount());
+    timings.recordValue("type-cache-misses", typeStats.missCount());
+    CacheStats classStats = parser.getClassCacheStats();
+    timings.recordValue("class-cache-hits", classStats.hitCount());
+    timings.recordValue("class-cache-misses", classStats.missCount());
+  }
+
+  private static void processModel(CtModel model, ModelProcessor processor,
+      JavadocElementExtractor extractor) {
+    model.getAllModules()
+        .forEach(it -> processor.process(
+            it,
+            element -> element.accept(extractor))
+        );
+    processor.shutdown();
+  }
+
+  private static Launcher createLauncher(List<String> resourcePaths,
+      ClassLoader inputClassLoader) throws IOException {
     Launcher launcher;
     if (Boolean.getBoolean("keepFullAst")) {
       launcher = new Launcher();
@@ -63,60 +319,21 @@ public class Indexer {
     launcher.getEnvironment().setSpoonProgress(new ConsoleProcessLogger(launcher));
     launcher.getEnvironment().setCommentEnabled(true);
     launcher.getEnvironment().setComplianceLevel(16);
-    for (String path : config.getResourcePaths()) {
+    for (String path : resourcePaths) {
       if (path.endsWith(".zip")) {
         launcher.addInputResource(new ZipFolder(new File(path)));
       } else {
         launcher.addInputResource(path);
       }
     }
-    timings.stopTimer("configure-launcher");
-
-    if (!config.getBuildFiles().isEmpty() && config.getMavenHome().isPresent()) {
-      timings.measure(
-          "build-classpath",
-          () -> configureInputClassLoader(
-              config.getBuildFiles(), config.getMavenHome().get(), launcher
-          )
-      );
-    }
-
-    System.out.println("Spoon successfully configured\n");
-
-    System.out.println(heading("Building spoon model"));
-    CtModel model = timings.measure("build-model", launcher::buildModel);
-    System.out.println("Model successfully built\n");
-
-    System.out.println(heading("Converting Spoon Model "));
-    JavadocElementExtractor extractor = new JavadocElementExtractor();
-    ParallelProcessor processor = new ParallelProcessor(
-        new IndexerFilterChain(config.getAllowedPackages()).asFilter(),
-        Runtime.getRuntime().availableProcessors()
-    );
-    timings.measure("process-model", () -> {
-      model.getAllModules()
-          .forEach(it -> processor.process(
-              it,
-              element -> element.accept(extractor))
-          );
-      processor.shutdown();
-    });
-    System.out.println("Model successfully converted\n");
-
-    System.out.println(heading("Writing to output database"));
-    if (config.getOutputPath().isEmpty()) {
-      System.out.println("Skipped as path was empty");
-    } else {
-      timings.measure(
-          "write-database",
-          () -> new SqliteStorage(ConfiguredGson.create(), Path.of(config.getOutputPath()))
-              .addAll(extractor.getFoundElements())
-      );
+    if (inputClassLoader != null) {
+      launcher.getEnvironment().setInputClassLoader(inputClassLoader);
     }
+    return launcher;
   }
 
-  private static void configureInputClassLoader(List<Path> buildFiles, Path mavenHome,
-      Launcher launcher)
+  private static ClassLoader buildInputClassLoader(List<Path> buildFiles,
+      Optional<Path> mavenHome)
       throws IOException {
     try {
       Pom pom = new Pom(Set.of(), Set.of(), Set.of());
@@ -136,25 +353,30 @@ public class Indexer {
 
       System.out.println(heading("Building classpath from POM", 2));
 
-      Path outputPomFile = Files.createTempFile("Generatedpom", ".xml");
-      outputPomFile.toFile().deleteOnExit();
-      Files.writeString(outputPomFile, pom.format());
-
-      List<Path> classpath = new PomClasspathDiscoverer().findClasspath(outputPomFile, mavenHome);
+      CachingClasspathResolver resolver = new CachingClasspathResolver(
+          CachingClasspathResolver.defaultCacheDirectory(),
+          new LocalRepositoryResolver(LocalRepositoryResolver.defaultRepository()),
+          new PomClasspathDiscoverer()
+      );
+      List<Path> classpath = resolver.findClasspath(pom, mavenHome);
 
       List<URL> urls = new ArrayList<>();
       for (Path path : classpath) {
         System.out.println("    " + path);
         urls.add(path.toUri().toURL());
       }
-      launcher.getEnvironment().setInputClassLoader(new URLClassLoader(urls.toArray(URL[]::new)));
-
       System.out.println("  Classpath successfully built\n");
+
+      return new URLClassLoader(urls.toArray(URL[]::new));
     } catch (MavenInvocationException e) {
       throw new IOException("Error invoking maven", e);
     }
   }
 
+  private static long usedHeapMegabytes() {
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / (1024 * 1024);
+  }
+
   private static String heading(String text) {
     return heading(text, 0);
   }
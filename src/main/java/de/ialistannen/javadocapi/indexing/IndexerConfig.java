@@ -1,5 +1,6 @@
 package de.ialistannen.javadocapi.indexing;
 
+import de.ialistannen.javadocapi.storage.ElementFormat;
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
@@ -15,15 +16,27 @@ public class IndexerConfig {
   private final String mavenHome;
   private final List<String> buildFiles;
   private final boolean outputTimings;
+  private final ElementFormat elementFormat;
+  private final boolean compressElements;
+  private final boolean incremental;
+  private final String preRenderBaseUrl;
+  private final boolean preRenderJava8Links;
 
   public IndexerConfig(Set<String> allowedPackages, List<String> resourcePaths, String outputPath,
-      String mavenHome, List<String> buildFiles, boolean outputTimings) {
+      String mavenHome, List<String> buildFiles, boolean outputTimings,
+      ElementFormat elementFormat, boolean compressElements, boolean incremental,
+      String preRenderBaseUrl, boolean preRenderJava8Links) {
     this.allowedPackages = allowedPackages;
     this.resourcePaths = resourcePaths;
     this.outputPath = outputPath;
     this.mavenHome = mavenHome;
     this.buildFiles = buildFiles;
     this.outputTimings = outputTimings;
+    this.elementFormat = elementFormat;
+    this.compressElements = compressElements;
+    this.incremental = incremental;
+    this.preRenderBaseUrl = preRenderBaseUrl;
+    this.preRenderJava8Links = preRenderJava8Links;
   }
 
   public Set<String> getAllowedPackages() {
@@ -46,6 +59,29 @@ public class IndexerConfig {
     return outputTimings;
   }
 
+  public ElementFormat getElementFormat() {
+    return elementFormat == null ? ElementFormat.JSON : elementFormat;
+  }
+
+  public boolean isCompressElements() {
+    return compressElements;
+  }
+
+  public boolean isIncremental() {
+    return incremental;
+  }
+
+  /**
+   * @return the base url to pre-render comments with or an empty optional to not pre-render them
+   */
+  public Optional<String> getPreRenderBaseUrl() {
+    return Optional.ofNullable(preRenderBaseUrl);
+  }
+
+  public boolean isPreRenderJava8Links() {
+    return preRenderJava8Links;
+  }
+
   public List<Path> getBuildFiles() {
     if (buildFiles == null) {
       return Collections.emptyList();
@@ -1,6 +1,7 @@
 package de.ialistannen.javadocapi.indexing;
 
 import de.ialistannen.javadocapi.util.ExternalJavadocReference;
+import de.ialistannen.javadocapi.util.Hashes;
 import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
@@ -8,19 +9,55 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandlers;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+/**
+ * Finds the packages of javadocs hosted online.
+ * <p>
+ * If a cache directory is given, the found package lists are stored in it and later only fetched
+ * again if the server reports a change for the ETag or Last-Modified date it sent. The cache is
+ * best effort: if it can not be written, the fetched packages are still returned.
+ */
 public class OnlineJavadocIndexer {
 
+  private static final Duration TIMEOUT = Duration.ofSeconds(15);
+
   private final HttpClient client;
+  private final Path cacheDirectory;
 
   public OnlineJavadocIndexer(HttpClient client) {
+    this(client, null);
+  }
+
+  /**
+   * @param client the client to send requests with
+   * @param cacheDirectory the directory to cache package lists in or null to not cache them
+   */
+  public OnlineJavadocIndexer(HttpClient client, Path cacheDirectory) {
     this.client = client;
+    this.cacheDirectory = cacheDirectory;
+  }
+
+  /**
+   * @return the directory package lists are cached in by default
+   */
+  public static Path defaultCacheDirectory() {
+    return Path.of(System.getProperty("user.home"), ".cache", "javadoc-api", "packages");
   }
 
   /**
@@ -34,45 +71,253 @@ public class OnlineJavadocIndexer {
    */
   public ExternalJavadocReference fetchPackages(String baseUrl)
       throws IOException, InterruptedException {
-    String targetUrl = baseUrl + (baseUrl.endsWith("/") ? "" : "/") + "package-list";
+    return fetchPackages(List.of(baseUrl)).get(0);
+  }
 
-    HttpResponse<String> response = client.send(
-        HttpRequest.newBuilder(URI.create(targetUrl)).timeout(Duration.ofSeconds(15)).build(),
-        BodyHandlers.ofString(StandardCharsets.UTF_8)
-    );
+  /**
+   * Fetches the package lists of all given URLs concurrently. Javadocs without an index have an
+   * empty package list.
+   *
+   * @param baseUrls the base urls of the javadocs to index
+   * @return the found packages, in the order of the base urls
+   * @throws IOException if an error occurs for any of the javadocs
+   * @throws InterruptedException if the send operation is interrupted
+   */
+  public List<ExternalJavadocReference> fetchPackages(Collection<String> baseUrls)
+      throws IOException, InterruptedException {
+    List<CompletableFuture<ExternalJavadocReference>> futures = new ArrayList<>();
+    for (String baseUrl : baseUrls) {
+      futures.add(fetchPackagesAsync(baseUrl));
+    }
 
-    if (response.statusCode() != 200) {
-      return fetchPackagesOldSchool(baseUrl);
+    List<ExternalJavadocReference> references = new ArrayList<>();
+    try {
+      for (CompletableFuture<ExternalJavadocReference> future : futures) {
+        references.add(future.get());
+      }
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    } finally {
+      futures.forEach(it -> it.cancel(true));
     }
 
-    return new ExternalJavadocReference(
-        baseUrl,
-        Set.copyOf(Arrays.asList(response.body().split("\n")))
-    );
+    return references;
   }
 
-  private ExternalJavadocReference fetchPackagesOldSchool(String baseUrl)
-      throws IOException, InterruptedException {
-    String targetUrl = baseUrl + (baseUrl.endsWith("/") ? "" : "/") + "allpackages-index.html";
+  /**
+   * Fetches the package list from the given URL without blocking.
+   *
+   * @param baseUrl the base url of the javadoc to index
+   * @return all found packages in the linked javadoc
+   * @see #fetchPackages(String)
+   */
+  public CompletableFuture<ExternalJavadocReference> fetchPackagesAsync(String baseUrl) {
+    if (cacheDirectory == null) {
+      return fetchIndex(baseUrl, 0);
+    }
+
+    // Reading the cache blocks, so it is done on the client's executor and not the caller's thread
+    Executor executor = client.executor().orElseGet(ForkJoinPool::commonPool);
+    return CompletableFuture.supplyAsync(() -> readCache(baseUrl), executor)
+        .thenCompose(cached -> cached
+            .map(entry -> revalidate(baseUrl, entry))
+            .orElseGet(() -> fetchIndex(baseUrl, 0))
+        );
+  }
 
-    HttpResponse<String> response = client.send(
-        HttpRequest.newBuilder(URI.create(targetUrl)).timeout(Duration.ofSeconds(15)).build(),
+  private CompletableFuture<ExternalJavadocReference> revalidate(String baseUrl,
+      CachedPackages entry) {
+    HttpRequest.Builder request = HttpRequest.newBuilder(entry.indexFile.resolve(baseUrl))
+        .timeout(TIMEOUT);
+    if (!entry.etag.isEmpty()) {
+      request.header("If-None-Match", entry.etag);
+    }
+    if (!entry.lastModified.isEmpty()) {
+      request.header("If-Modified-Since", entry.lastModified);
+    }
+
+    return client.sendAsync(request.build(), BodyHandlers.ofString(StandardCharsets.UTF_8))
+        .thenCompose(response -> {
+          if (response.statusCode() == 304) {
+            return CompletableFuture.completedFuture(
+                new ExternalJavadocReference(baseUrl, entry.packages)
+            );
+          }
+          if (response.statusCode() == 200) {
+            return CompletableFuture.completedFuture(
+                store(baseUrl, entry.indexFile, response)
+            );
+          }
+          // The javadoc might have moved to a newer layout
+          return fetchIndex(baseUrl, 0);
+        })
+        .exceptionally(e -> {
+          // Slightly outdated packages are better than failing the whole batch
+          System.err.println(
+              "Could not revalidate packages of " + baseUrl + ", using cached ones: " + e
+          );
+          return new ExternalJavadocReference(baseUrl, entry.packages);
+        });
+  }
+
+  private CompletableFuture<ExternalJavadocReference> fetchIndex(String baseUrl, int fileIndex) {
+    IndexFile[] files = IndexFile.values();
+    if (fileIndex == files.length) {
+      return CompletableFuture.completedFuture(new ExternalJavadocReference(baseUrl, Set.of()));
+    }
+    IndexFile indexFile = files[fileIndex];
+
+    return client.sendAsync(
+        HttpRequest.newBuilder(indexFile.resolve(baseUrl)).timeout(TIMEOUT).build(),
         BodyHandlers.ofString(StandardCharsets.UTF_8)
+    )
+        .thenCompose(response -> {
+          if (response.statusCode() != 200) {
+            return fetchIndex(baseUrl, fileIndex + 1);
+          }
+          return CompletableFuture.completedFuture(store(baseUrl, indexFile, response));
+        });
+  }
+
+  private ExternalJavadocReference store(String baseUrl, IndexFile indexFile,
+      HttpResponse<String> response) {
+    Set<String> packages = indexFile.parse(response.body());
+
+    if (cacheDirectory != null) {
+      List<String> lines = new ArrayList<>();
+      lines.add(indexFile.name());
+      lines.add(response.headers().firstValue("ETag").orElse(""));
+      lines.add(response.headers().firstValue("Last-Modified").orElse(""));
+      lines.addAll(packages);
+
+      Path temp = null;
+      try {
+        Files.createDirectories(cacheDirectory);
+        // Write atomically, so concurrent readers never see a partial list
+        temp = Files.createTempFile(cacheDirectory, "packages", ".tmp");
+        Files.write(temp, lines, StandardCharsets.UTF_8);
+        Files.move(temp, cacheFile(baseUrl), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException e) {
+        // The packages were fetched fine, they just need to be fetched again next time
+        System.err.println("Could not cache packages of " + baseUrl + ": " + e);
+        deleteQuietly(temp);
+      }
+    }
+
+    return new ExternalJavadocReference(baseUrl, packages);
+  }
+
+  private static void deleteQuietly(Path file) {
+    if (file == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException ignored) {
+    }
+  }
+
+  private Optional<CachedPackages> readCache(String baseUrl) {
+    Path cacheFile = cacheFile(baseUrl);
+    if (!Files.isRegularFile(cacheFile)) {
+      return Optional.empty();
+    }
+
+    List<String> lines;
+    try {
+      lines = Files.readAllLines(cacheFile, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      // Fetching the list again replaces the unreadable file
+      return Optional.empty();
+    }
+    // Written by an incompatible version, just fetch it again
+    if (lines.size() < 3 || !IndexFile.isKnown(lines.get(0))) {
+      return Optional.empty();
+    }
+
+    return Optional.of(new CachedPackages(
+        IndexFile.valueOf(lines.get(0)),
+        lines.get(1),
+        lines.get(2),
+        Set.copyOf(lines.subList(3, lines.size()))
+    ));
+  }
+
+  private Path cacheFile(String baseUrl) {
+    return cacheDirectory.resolve(Hashes.sha256(baseUrl) + ".packages");
+  }
+
+  /**
+   * The files listing the packages of a javadoc, in the order they are tried.
+   */
+  private enum IndexFile {
+    ELEMENT_LIST("element-list"),
+    PACKAGE_LIST("package-list"),
+    ALL_PACKAGES_INDEX("allpackages-index.html");
+
+    private static final Pattern PACKAGE_LINK = Pattern.compile(
+        "<a .+package-summary.html\">(.+?)</a>"
     );
 
-    if (response.statusCode() != 200) {
-      return new ExternalJavadocReference(baseUrl, Set.of());
+    private final String fileName;
+
+    IndexFile(String fileName) {
+      this.fileName = fileName;
+    }
+
+    private URI resolve(String baseUrl) {
+      return URI.create(baseUrl + (baseUrl.endsWith("/") ? "" : "/") + fileName);
     }
 
-    String body = response.body();
-    Matcher matcher = Pattern.compile("<a .+package-summary.html\">(.+?)</a>").matcher(body);
+    private Set<String> parse(String body) {
+      Set<String> packages = new HashSet<>();
 
-    Set<String> packages = new HashSet<>();
-    while (matcher.find()) {
-      packages.add(matcher.group(1));
+      if (this == ALL_PACKAGES_INDEX) {
+        Matcher matcher = PACKAGE_LINK.matcher(body);
+        while (matcher.find()) {
+          packages.add(matcher.group(1));
+        }
+        packages.remove("Package"); // header-link in the top left
+        return packages;
+      }
+
+      for (String line : body.split("\n")) {
+        line = line.strip();
+        // Element lists of modular javadocs name the module before its packages
+        if (!line.isEmpty() && !line.startsWith("module:")) {
+          packages.add(line);
+        }
+      }
+      return packages;
     }
-    packages.remove("Package"); // header-link in the top left
 
-    return new ExternalJavadocReference(baseUrl, packages);
+    private static boolean isKnown(String name) {
+      for (IndexFile file : values()) {
+        if (file.name().equals(name)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private static class CachedPackages {
+
+    private final IndexFile indexFile;
+    private final String etag;
+    private final String lastModified;
+    private final Set<String> packages;
+
+    private CachedPackages(IndexFile indexFile, String etag, String lastModified,
+        Set<String> packages) {
+      this.indexFile = indexFile;
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.packages = packages;
+    }
   }
 }
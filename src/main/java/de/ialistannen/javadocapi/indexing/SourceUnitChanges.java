@@ -0,0 +1,314 @@
+package de.ialistannen.javadocapi.indexing;
+
+import de.ialistannen.javadocapi.model.JavadocElement;
+import de.ialistannen.javadocapi.spoon.filtering.FluentFilter;
+import de.ialistannen.javadocapi.util.Hashes;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import spoon.reflect.CtModel;
+import spoon.reflect.declaration.CtCompilationUnit;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtPackage;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.reference.CtTypeReference;
+
+/**
+ * Determines which compilation units of a model need to be extracted again, based on the content
+ * hashes recorded by a previous run.
+ * <p>
+ * A unit needs to be extracted again if its content changed or if one of its types inherits from
+ * a type in a changed unit, as types contain their inherited members and comments. Units are
+ * identified by their module, package and file name, which is stable for both directories and
+ * ZIP files.
+ */
+public class SourceUnitChanges {
+
+  private final Map<String, String> dirtyHashes;
+  private final Set<String> unitsToRemove;
+  private final Map<String, String> unitByTopLevelType;
+  private final Map<CtCompilationUnit, String> unitByCompilationUnit;
+  private final Map<String, Queue<String>> elementNames;
+
+  private SourceUnitChanges(Map<String, String> dirtyHashes, Set<String> unitsToRemove,
+      Map<String, String> unitByTopLevelType,
+      Map<CtCompilationUnit, String> unitByCompilationUnit) {
+    this.dirtyHashes = dirtyHashes;
+    this.unitsToRemove = unitsToRemove;
+    this.unitByTopLevelType = unitByTopLevelType;
+    this.unitByCompilationUnit = unitByCompilationUnit;
+    this.elementNames = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Compares the units of the model with the recorded ones.
+   *
+   * @param model the model to index
+   * @param storedHashes the recorded content hashes of all units
+   * @return the changes
+   */
+  public static SourceUnitChanges compute(CtModel model, Map<String, String> storedHashes) {
+    Map<String, String> unitByTopLevelType = new HashMap<>();
+    // Compilation units compare by structure, which is far too slow and not what we want here
+    Map<CtCompilationUnit, String> unitByCompilationUnit = new IdentityHashMap<>();
+    Map<String, String> currentHashes = new HashMap<>();
+
+    for (CtType<?> type : model.getAllTypes()) {
+      if (!type.getPosition().isValidPosition()) {
+        continue;
+      }
+      CtCompilationUnit unit = type.getPosition().getCompilationUnit();
+      String key = unitKey(type, unit);
+      unitByTopLevelType.put(type.getQualifiedName(), key);
+      unitByCompilationUnit.put(unit, key);
+      currentHashes.computeIfAbsent(key, ignored -> Hashes.sha256(unit.getOriginalSourceCode()));
+    }
+
+    Set<String> changed = currentHashes.entrySet()
+        .stream()
+        .filter(it -> !it.getValue().equals(storedHashes.get(it.getKey())))
+        .map(Map.Entry::getKey)
+        .collect(Collectors.toSet());
+
+    Set<String> dirty = new HashSet<>(changed);
+    InheritanceCheck inheritanceCheck = new InheritanceCheck(changed, unitByTopLevelType);
+    for (CtType<?> type : model.getAllTypes()) {
+      String unit = unitByTopLevelType.get(type.getQualifiedName());
+      if (unit != null && !dirty.contains(unit) && inheritanceCheck.anyInheritsFromChanged(type)) {
+        dirty.add(unit);
+      }
+    }
+
+    Set<String> unitsToRemove = new HashSet<>(storedHashes.keySet());
+    unitsToRemove.removeIf(it -> currentHashes.containsKey(it) && !dirty.contains(it));
+
+    Map<String, String> dirtyHashes = new HashMap<>();
+    for (String unit : dirty) {
+      dirtyHashes.put(unit, currentHashes.get(unit));
+    }
+
+    return new SourceUnitChanges(
+        dirtyHashes, unitsToRemove, unitByTopLevelType, unitByCompilationUnit
+    );
+  }
+
+  private static String unitKey(CtType<?> topLevelType, CtCompilationUnit unit) {
+    CtPackage ctPackage = topLevelType.getPackage();
+    String fileName = unit.getFile() != null
+        ? unit.getFile().getName()
+        : topLevelType.getSimpleName() + ".java";
+
+    StringBuilder key = new StringBuilder();
+    if (ctPackage.getDeclaringModule() != null) {
+      key.append(ctPackage.getDeclaringModule().getSimpleName()).append('/');
+    }
+    if (!ctPackage.isUnnamedPackage()) {
+      key.append(ctPackage.getQualifiedName().replace('.', '/')).append('/');
+    }
+    return key.append(fileName).toString();
+  }
+
+  /**
+   * @return the units that need to be extracted again and their new content hashes
+   */
+  public Map<String, String> getDirtyHashes() {
+    return dirtyHashes;
+  }
+
+  /**
+   * @return the recorded units whose elements need to be removed, because the unit will be
+   *     extracted again or no longer exists
+   */
+  public Set<String> getUnitsToRemove() {
+    return unitsToRemove;
+  }
+
+  /**
+   * @return a filter rejecting all types from units that do not need to be extracted again
+   */
+  public FluentFilter asFilter() {
+    return element -> {
+      if (!(element instanceof CtType)) {
+        return true;
+      }
+      String unit = unitByTopLevelType.get(((CtType<?>) element).getTopLevelType()
+          .getQualifiedName());
+      return unit != null && dirtyHashes.containsKey(unit);
+    };
+  }
+
+  /**
+   * Remembers the unit of an extracted element. Can be called from multiple threads.
+   *
+   * @param source the spoon element the element was extracted from
+   * @param element the extracted element
+   * @throws IllegalStateException if the source is not part of any unit of the model, as its
+   *     element could then never be removed again
+   */
+  public void recordElement(CtElement source, JavadocElement element) {
+    // Implicit elements, like default constructors, have no position of their own
+    CtElement positioned = source;
+    while (!positioned.getPosition().isValidPosition() && positioned.isParentInitialized()) {
+      positioned = positioned.getParent();
+    }
+
+    String unit = unitByCompilationUnit.get(positioned.getPosition().getCompilationUnit());
+    if (unit == null) {
+      throw new IllegalStateException(
+          "Could not find source unit of " + element.getQualifiedName()
+      );
+    }
+    elementNames.computeIfAbsent(unit, ignored -> new ConcurrentLinkedQueue<>())
+        .add(element.getQualifiedName().asStringWithModule());
+  }
+
+  /**
+   * @return the qualified names, including the module, of all recorded elements per unit
+   */
+  public Map<String, ? extends Collection<String>> getElementNames() {
+    return elementNames;
+  }
+
+  /**
+   * Computes a fingerprint of all files in the given resource paths, which changes whenever any
+   * input changes.
+   *
+   * @param resourcePaths the directories, files and ZIP files to fingerprint
+   * @return the fingerprint
+   * @throws IOException if an error occurs while reading the files
+   */
+  public static String fingerprint(List<String> resourcePaths) throws IOException {
+    MessageDigest digest = Hashes.newSha256();
+
+    for (String resourcePath : resourcePaths) {
+      Path path = Path.of(resourcePath);
+      digest.update(resourcePath.getBytes(StandardCharsets.UTF_8));
+
+      if (resourcePath.endsWith(".zip")) {
+        try (ZipFile zipFile = new ZipFile(path.toFile())) {
+          List<? extends ZipEntry> entries = zipFile.stream()
+              .sorted(Comparator.comparing(ZipEntry::getName))
+              .collect(Collectors.toList());
+          for (ZipEntry entry : entries) {
+            digest.update(entry.getName().getBytes(StandardCharsets.UTF_8));
+            digestStream(digest, zipFile.getInputStream(entry));
+          }
+        }
+        continue;
+      }
+
+      Set<Path> files;
+      try (Stream<Path> stream = Files.walk(path)) {
+        files = stream.filter(Files::isRegularFile).collect(Collectors.toCollection(TreeSet::new));
+      }
+      for (Path file : files) {
+        digest.update(path.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+        digestStream(digest, Files.newInputStream(file));
+      }
+    }
+
+    return Hashes.toHex(digest.digest());
+  }
+
+  private static void digestStream(MessageDigest digest, InputStream inputStream)
+      throws IOException {
+    try (InputStream stream = new DigestInputStream(inputStream, digest)) {
+      stream.transferTo(OutputStream.nullOutputStream());
+    }
+  }
+
+  /**
+   * Finds types that (transitively) inherit from a type declared in a changed unit.
+   */
+  private static class InheritanceCheck {
+
+    private final Set<String> changedUnits;
+    private final Map<String, String> unitByTopLevelType;
+    private final Map<String, Boolean> cache;
+
+    private InheritanceCheck(Set<String> changedUnits, Map<String, String> unitByTopLevelType) {
+      this.changedUnits = changedUnits;
+      this.unitByTopLevelType = unitByTopLevelType;
+      this.cache = new HashMap<>();
+    }
+
+    /**
+     * @param type the type to check
+     * @return true if the type or any of its nested types inherits from a changed type
+     */
+    boolean anyInheritsFromChanged(CtType<?> type) {
+      if (inheritsFromChanged(type)) {
+        return true;
+      }
+      for (CtType<?> nestedType : type.getNestedTypes()) {
+        if (anyInheritsFromChanged(nestedType)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private boolean inheritsFromChanged(CtType<?> type) {
+      Boolean cached = cache.get(type.getQualifiedName());
+      if (cached != null) {
+        return cached;
+      }
+      // Guards against inheritance cycles in broken sources
+      cache.put(type.getQualifiedName(), false);
+
+      boolean result = false;
+      for (CtTypeReference<?> superType : superTypes(type)) {
+        CtType<?> declaration = declarationOrNull(superType);
+        // Types from the classpath have no position and can not inherit from our sources
+        if (declaration == null || !declaration.getPosition().isValidPosition()) {
+          continue;
+        }
+        String unit = unitByTopLevelType.get(declaration.getTopLevelType().getQualifiedName());
+        if (changedUnits.contains(unit) || inheritsFromChanged(declaration)) {
+          result = true;
+          break;
+        }
+      }
+
+      cache.put(type.getQualifiedName(), result);
+      return result;
+    }
+
+    private static Set<CtTypeReference<?>> superTypes(CtType<?> type) {
+      Set<CtTypeReference<?>> superTypes = new HashSet<>(type.getSuperInterfaces());
+      if (type.getSuperclass() != null) {
+        superTypes.add(type.getSuperclass());
+      }
+      return superTypes;
+    }
+
+    private static CtType<?> declarationOrNull(CtTypeReference<?> reference) {
+      try {
+        return reference.getTypeDeclaration();
+      } catch (Exception e) {
+        return null;
+      }
+    }
+  }
+}
@@ -1,16 +1,27 @@
 package de.ialistannen.javadocapi.model;
 
+import com.github.benmanes.caffeine.cache.Interner;
 import de.ialistannen.javadocapi.model.JavadocElement.DeclarationStyle;
 import java.util.Objects;
 import java.util.Optional;
 
 /**
  * The qualified name of a javadoc element.
+ * <p>
+ * The structure of the name (its separators and simple name) is parsed once, on first use. Names
+ * read from an index should be created with {@link #of(String, String)}, which shares equal
+ * instances.
  */
 public class QualifiedName {
 
+  private static final Interner<QualifiedName> INTERNER = Interner.newWeakInterner();
+
   private final String asText;
   private final String moduleName;
+  // Derived from asText. Transient and lazy, as gson creates instances without a constructor.
+  // Both only hold immutable objects, so racing threads at worst compute them twice.
+  private transient Structure structure;
+  private transient Optional<QualifiedName> lexicalParent;
 
   public QualifiedName(String asText, String moduleName) {
     this.asText = asText;
@@ -21,23 +32,36 @@ public class QualifiedName {
     this(asText, null);
   }
 
+  /**
+   * Returns a qualified name equal to {@code new QualifiedName(asText, moduleName)}, sharing the
+   * instance with all other interned names that are equal.
+   *
+   * @param asText the name
+   * @param moduleName the module name or null if none
+   * @return the interned qualified name
+   */
+  public static QualifiedName of(String asText, String moduleName) {
+    return INTERNER.intern(new QualifiedName(
+        asText,
+        moduleName == null ? null : moduleName.intern()
+    ));
+  }
+
   /**
    * @return the <em>lexical</em> parent, if any
    */
   public Optional<QualifiedName> getLexicalParent() {
-    if (asText.contains("#")) {
-      return Optional.of(new QualifiedName(
-          asText.substring(0, asText.indexOf("#")),
-          moduleName
-      ));
-    }
-    if (asText.contains(".")) {
-      return Optional.of(new QualifiedName(
-          asText.substring(0, indexOfLastSeparator()),
-          moduleName
-      ));
+    Optional<QualifiedName> parent = lexicalParent;
+    if (parent == null) {
+      int parentEnd = getStructure().parentEnd;
+      if (parentEnd == Structure.NO_PARENT) {
+        parent = Optional.empty();
+      } else {
+        parent = Optional.of(new QualifiedName(asText.substring(0, parentEnd), moduleName));
+      }
+      lexicalParent = parent;
     }
-    return Optional.empty();
+    return parent;
   }
 
   /**
@@ -47,19 +71,16 @@ public class QualifiedName {
    * @return the simple name (i.e. without any qualifier)
    */
   public String getSimpleName() {
-    if (asText.contains("#")) {
-      return asText.substring(asText.indexOf("#") + 1)
-          // remove () from methods
-          .replaceAll("\\(.*\\)", "");
-    }
-    return asText.substring(indexOfLastSeparator() + 1);
+    return getStructure().simpleName;
   }
 
-  private int indexOfLastSeparator() {
-    if (asText.endsWith("...")) {
-      return asText.lastIndexOf('.', asText.length() - 4);
+  private Structure getStructure() {
+    Structure result = structure;
+    if (result == null) {
+      result = new Structure(asText);
+      structure = result;
     }
-    return asText.lastIndexOf('.');
+    return result;
   }
 
   public QualifiedName appendToName(String suffix) {
@@ -83,7 +104,7 @@ public class QualifiedName {
    * @return true if this name is for a method
    */
   public boolean isMethod() {
-    return asText.contains("(");
+    return getStructure().method;
   }
 
   /**
@@ -105,6 +126,21 @@ public class QualifiedName {
     return asString();
   }
 
+  /**
+   * Parses the output of {@link #asStringWithModule()} into an {@link #of(String, String)
+   * interned} qualified name.
+   *
+   * @param text the name, prefixed with its module and a slash if it has one
+   * @return the interned qualified name
+   */
+  public static QualifiedName ofStringWithModule(String text) {
+    int moduleEnd = text.indexOf('/');
+    if (moduleEnd < 0) {
+      return of(text, null);
+    }
+    return of(text.substring(moduleEnd + 1), text.substring(0, moduleEnd));
+  }
+
   @Override
   public String toString() {
     return '{' + asText + '}';
@@ -127,4 +163,51 @@ public class QualifiedName {
   public int hashCode() {
     return Objects.hash(asText, moduleName);
   }
+
+  /**
+   * The parsed form of a name, found with a single scan over it.
+   */
+  private static class Structure {
+
+    private static final int NO_PARENT = -2;
+
+    private final int parentEnd;
+    private final String simpleName;
+    private final boolean method;
+
+    private Structure(String text) {
+      int hashIndex = text.indexOf('#');
+      int openParenIndex = text.indexOf('(');
+      this.method = openParenIndex >= 0;
+
+      if (hashIndex >= 0) {
+        this.parentEnd = hashIndex;
+        this.simpleName = stripParameters(text.substring(hashIndex + 1));
+        return;
+      }
+
+      int lastSeparator = indexOfLastSeparator(text);
+      this.parentEnd = text.indexOf('.') >= 0 ? lastSeparator : NO_PARENT;
+      this.simpleName = text.substring(lastSeparator + 1);
+    }
+
+    private static int indexOfLastSeparator(String text) {
+      if (text.endsWith("...")) {
+        return text.lastIndexOf('.', text.length() - 4);
+      }
+      return text.lastIndexOf('.');
+    }
+
+    /**
+     * Removes everything from the first "(" to the last ")", e.g. the parameters of a method.
+     */
+    private static String stripParameters(String text) {
+      int start = text.indexOf('(');
+      int end = text.lastIndexOf(')');
+      if (start < 0 || end < start) {
+        return text;
+      }
+      return text.substring(0, start) + text.substring(end + 1);
+    }
+  }
 }
@@ -0,0 +1,47 @@
+package de.ialistannen.javadocapi.model.types;
+
+import de.ialistannen.javadocapi.model.QualifiedName;
+import java.util.List;
+
+/**
+ * A lightweight projection of a {@link JavadocType}, containing only what is needed to look up its
+ * members. Loading it skips the comment, annotations and type hierarchy of the type.
+ */
+public class JavadocTypeSummary {
+
+  private final QualifiedName name;
+  private final JavadocType.Type type;
+  private final List<QualifiedName> members;
+
+  public JavadocTypeSummary(QualifiedName name, JavadocType.Type type,
+      List<QualifiedName> members) {
+    this.name = name;
+    this.type = type;
+    this.members = List.copyOf(members);
+  }
+
+  /**
+   * @param type the full type
+   * @return a summary of the type
+   */
+  public static JavadocTypeSummary of(JavadocType type) {
+    return new JavadocTypeSummary(type.getQualifiedName(), type.getType(), type.getMembers());
+  }
+
+  public QualifiedName getQualifiedName() {
+    return name;
+  }
+
+  public JavadocType.Type getType() {
+    return type;
+  }
+
+  public List<QualifiedName> getMembers() {
+    return members;
+  }
+
+  @Override
+  public String toString() {
+    return type + " " + name;
+  }
+}
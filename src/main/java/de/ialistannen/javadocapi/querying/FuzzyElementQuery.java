@@ -3,9 +3,12 @@ package de.ialistannen.javadocapi.querying;
 import de.ialistannen.javadocapi.model.JavadocElement;
 import de.ialistannen.javadocapi.model.QualifiedName;
 import de.ialistannen.javadocapi.model.types.JavadocType;
+import de.ialistannen.javadocapi.model.types.JavadocTypeSummary;
 import de.ialistannen.javadocapi.querying.QueryResult.ElementType;
 import de.ialistannen.javadocapi.storage.ElementLoader;
 import de.ialistannen.javadocapi.storage.ElementLoader.LoadResult;
+import de.ialistannen.javadocapi.storage.NameScorer;
+import de.ialistannen.javadocapi.storage.TopK;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -36,6 +39,60 @@ public class FuzzyElementQuery implements QueryApi<FuzzyQueryResult> {
     return findElementsFromClass(queryApi, query);
   }
 
+  @Override
+  public List<FuzzyQueryResult> query(ElementLoader queryApi, String queryString, int limit) {
+    Query query = Query.fromString(queryString);
+
+    if (query == null) {
+      return List.of();
+    }
+    Query normalizedQuery = query.normalized();
+
+    if (query.getClassName() == null) {
+      return queryApi
+          .findBestElementNames(normalizedQuery.getElementName(), new QueryScorer(query), limit)
+          .stream()
+          .map(it -> toResult(
+              query,
+              it,
+              it.getResult().isMethod() ? ElementType.METHOD : ElementType.FIELD
+          ))
+          .collect(Collectors.toList());
+    }
+
+    if (normalizedQuery.getElementName() == null) {
+      // The kind of a type is not part of its name, so only the winners are loaded to find it
+      return queryApi
+          .findBestElementNames(normalizedQuery.getClassName(), new QueryScorer(query), limit)
+          .stream()
+          .flatMap(it -> it.getLoader().findByQualifiedName(it.getResult()).stream())
+          .filter(it -> it.getResult() instanceof JavadocType)
+          .map(it -> toResult(
+              query,
+              it.map(JavadocElement::getQualifiedName),
+              ElementType.fromType(((JavadocType) it.getResult()).getType()).orElseThrow()
+          ))
+          .collect(Collectors.toList());
+    }
+
+    QueryScorer scorer = new QueryScorer(query);
+    TopK<LoadResult<QualifiedName>> best = new TopK<>(limit);
+    for (LoadResult<QualifiedName> member : queryApi.findMembersByName(
+        normalizedQuery.getClassName(), normalizedQuery.getElementName()
+    )) {
+      best.offer(member, scorer.score(member.getResult()));
+    }
+
+    return best.toList()
+        .stream()
+        .map(it -> toResult(
+            query,
+            it,
+            it.getResult().isMethod() ? ElementType.METHOD : ElementType.FIELD
+        ))
+        .collect(Collectors.toList());
+  }
+
   private List<FuzzyQueryResult> findNonClassElementByName(ElementLoader queryApi, Query query) {
     Query normalizedQuery = query.normalized();
     Collection<LoadResult<QualifiedName>> potentialElements = queryApi
@@ -63,51 +120,31 @@ public class FuzzyElementQuery implements QueryApi<FuzzyQueryResult> {
 
   private List<FuzzyQueryResult> findElementsFromClass(ElementLoader queryApi, Query query) {
     Query normalizedQuery = query.normalized();
-    Collection<LoadResult<JavadocType>> potentialClasses = queryApi.findClassByName(
-        normalizedQuery.getClassName()
-    );
 
     if (normalizedQuery.getElementName() == null) {
-      return potentialClasses
+      // Only names are needed here, full elements are loaded later for the final results
+      return queryApi.findClassSummariesByName(normalizedQuery.getClassName())
           .stream()
           .map(it -> toResult(
               query,
-              it.map(JavadocType::getQualifiedName),
+              it.map(JavadocTypeSummary::getQualifiedName),
               ElementType.fromType(it.getResult().getType()).orElseThrow()
           ))
           .collect(Collectors.toList());
     }
 
-    List<LoadResult<QualifiedName>> results = new ArrayList<>();
-
-    for (var potentialClass : potentialClasses) {
-      var enclosed = potentialClass.getResult().getMembers()
-          .stream()
-          .map(it -> new LoadResult<>(it, potentialClass.getLoader()))
-          .filter(
-              it -> it.getResult()
-                  .getSimpleName()
-                  .toUpperCase(Locale.ROOT)
-                  .endsWith(normalizedQuery.getElementName())
-          )
-          .filter(it -> {
-            // Filter out methods if user specified a "(", ignore it otherwise
-            if (normalizedQuery.getParameters() != null) {
-              return it.getResult().isMethod();
-            }
-            return true;
-          })
-          .collect(Collectors.toList());
-
-      if (normalizedQuery.getParameters() == null) {
-        results.addAll(enclosed);
-        continue;
-      }
-
-      enclosed.stream()
-          .filter(it -> fuzzyMatchParameters(normalizedQuery.getParameters(), it.getResult()))
-          .forEach(results::add);
-    }
+    List<LoadResult<QualifiedName>> results = queryApi
+        .findMembersByName(normalizedQuery.getClassName(), normalizedQuery.getElementName())
+        .stream()
+        .filter(it -> {
+          // Filter out methods if user specified a "(", ignore it otherwise
+          if (normalizedQuery.getParameters() != null) {
+            return it.getResult().isMethod()
+                && fuzzyMatchParameters(normalizedQuery.getParameters(), it.getResult());
+          }
+          return true;
+        })
+        .collect(Collectors.toList());
 
     return results
         .stream()
@@ -160,6 +197,65 @@ public class FuzzyElementQuery implements QueryApi<FuzzyQueryResult> {
     );
   }
 
+  /**
+   * Ranks case-sensitive exact matches first, followed by exact matches and then everything else.
+   * Names that would not be part of the unlimited query results are dropped.
+   */
+  private static class QueryScorer implements NameScorer {
+
+    private static final int CASE_SENSITIVE_EXACT = 2;
+    private static final int EXACT = 1;
+    private static final int FUZZY = 0;
+
+    private final Query query;
+    private final Query normalizedQuery;
+
+    private QueryScorer(Query query) {
+      this.query = query;
+      this.normalizedQuery = query.normalized();
+    }
+
+    @Override
+    public int score(QualifiedName name) {
+      if (!matchesKind(name)) {
+        return -1;
+      }
+      Query elementQuery = Query.fromString(name.asString());
+      if (elementQuery == null) {
+        return FUZZY;
+      }
+
+      if (query.exactToReference(elementQuery)) {
+        return CASE_SENSITIVE_EXACT;
+      }
+      if (normalizedQuery.exactToReference(elementQuery.normalized())) {
+        return EXACT;
+      }
+      return FUZZY;
+    }
+
+    private boolean matchesKind(QualifiedName name) {
+      // Only members have a "#" in their name
+      boolean isMember = name.asString().contains("#");
+
+      if (normalizedQuery.getClassName() != null && normalizedQuery.getElementName() == null) {
+        return !isMember;
+      }
+      if (!isMember) {
+        return false;
+      }
+      if (normalizedQuery.getParameters() == null) {
+        return true;
+      }
+      return name.isMethod() && fuzzyMatchParameters(normalizedQuery.getParameters(), name);
+    }
+
+    @Override
+    public int getMaxScore() {
+      return CASE_SENSITIVE_EXACT;
+    }
+  }
+
   private static class Query {
 
     private static final Pattern CONSTRUCTOR_PATTERN = Pattern.compile(
@@ -2,7 +2,9 @@ package de.ialistannen.javadocapi.querying;
 
 import de.ialistannen.javadocapi.storage.ElementLoader;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
 
 public interface QueryApi<T extends QueryResult> {
 
@@ -15,6 +17,42 @@ public interface QueryApi<T extends QueryResult> {
    */
   List<T> query(ElementLoader loader, String queryString);
 
+  /**
+   * Finds the best elements satisfying the given query.
+   * <p>
+   * The default implementation runs the {@link #query(ElementLoader, String) full query} and ranks
+   * results whose simple name equals the last segment of the query first, case-sensitive matches
+   * before case-insensitive ones. Results ranked equally keep their order. Implementations can
+   * override this to only rank and materialize the returned elements, which is a lot cheaper for
+   * short queries with many matches.
+   *
+   * @param loader the loader to use for lookups
+   * @param queryString the query as a string
+   * @param limit the maximum amount of results
+   * @return the best elements satisfying the query, best first
+   */
+  default List<T> query(ElementLoader loader, String queryString, int limit) {
+    String name = queryString.contains("(")
+        ? queryString.substring(0, queryString.indexOf('('))
+        : queryString;
+    String simpleName = name.substring(
+        Math.max(name.lastIndexOf('.'), name.lastIndexOf('#')) + 1
+    );
+    Comparator<T> ranking = Comparator.comparingInt(result -> {
+      String resultName = result.getQualifiedName().getSimpleName();
+      if (resultName.equals(simpleName)) {
+        return 0;
+      }
+      return resultName.equalsIgnoreCase(simpleName) ? 1 : 2;
+    });
+
+    return query(loader, queryString)
+        .stream()
+        .sorted(ranking)
+        .limit(limit)
+        .collect(Collectors.toList());
+  }
+
   /**
    * Returns autocompletion suggestions for the given query.
    *
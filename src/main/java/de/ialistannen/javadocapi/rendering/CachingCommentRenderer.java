@@ -0,0 +1,114 @@
+package de.ialistannen.javadocapi.rendering;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import de.ialistannen.javadocapi.model.JavadocElement;
+import de.ialistannen.javadocapi.model.QualifiedName;
+import de.ialistannen.javadocapi.model.comment.JavadocComment;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentFragment;
+import de.ialistannen.javadocapi.storage.ElementLoader;
+import de.ialistannen.javadocapi.storage.ElementLoader.LoadResult;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A {@link CommentRenderer} that remembers the rendered comments of elements.
+ * <p>
+ * Comments are cached per element, loader and base url, as loose fragments have no identity to
+ * key them on. Rendering them with {@link #render(List, String)} is therefore not cached.
+ */
+public class CachingCommentRenderer implements CommentRenderer {
+
+  // Accounts for the key and the objects around the rendered text. This also caps the number of
+  // entries for elements without a comment.
+  private static final int ENTRY_OVERHEAD = 200;
+
+  private final CommentRenderer delegate;
+  private final Cache<Key, RenderedComment> cache;
+
+  /**
+   * @param delegate the renderer to render cache misses with
+   * @param maximumCharacters the approximate number of rendered characters to keep
+   */
+  public CachingCommentRenderer(CommentRenderer delegate, long maximumCharacters) {
+    this.delegate = delegate;
+    this.cache = Caffeine.newBuilder()
+        .maximumWeight(maximumCharacters)
+        .<Key, RenderedComment>weigher((key, value) -> ENTRY_OVERHEAD + value.getLength())
+        .recordStats()
+        .build();
+  }
+
+  @Override
+  public String render(List<JavadocCommentFragment> fragments, String baseUrl) {
+    return delegate.render(fragments, baseUrl);
+  }
+
+  /**
+   * Renders the comment of an element, reusing earlier results for the same element.
+   *
+   * @param element the element to render the comment of
+   * @param baseUrl the base url to use (empty if none)
+   * @return the rendered comment or an empty optional if the element has none
+   */
+  public Optional<RenderedComment> render(LoadResult<? extends JavadocElement> element,
+      String baseUrl) {
+    Optional<JavadocComment> comment = element.getResult().getComment();
+    if (comment.isEmpty()) {
+      return Optional.empty();
+    }
+
+    Key key = new Key(element.getResult().getQualifiedName(), element.getLoader(), baseUrl);
+    return Optional.of(
+        cache.get(key, ignored -> RenderedComment.render(comment.get(), delegate, baseUrl))
+    );
+  }
+
+  /**
+   * Drops all comments rendered for elements of the given loader, e.g. after its index changed.
+   *
+   * @param loader the loader to forget
+   */
+  public void invalidate(ElementLoader loader) {
+    cache.asMap().keySet().removeIf(it -> it.loader == loader);
+  }
+
+  /**
+   * @return statistics about cache hits, misses and evictions
+   */
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+
+  private static class Key {
+
+    private final QualifiedName name;
+    private final ElementLoader loader;
+    private final String baseUrl;
+
+    private Key(QualifiedName name, ElementLoader loader, String baseUrl) {
+      this.name = name;
+      this.loader = loader;
+      this.baseUrl = baseUrl;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return name.equals(key.name) && loader == key.loader && baseUrl.equals(key.baseUrl);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(name, System.identityHashCode(loader), baseUrl);
+    }
+  }
+}
@@ -0,0 +1,243 @@
+package de.ialistannen.javadocapi.rendering;
+
+import de.ialistannen.javadocapi.model.comment.CommentVisitor;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentFragment;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentInlineTag;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentLink;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentText;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.jsoup.parser.Tag;
+
+/**
+ * Renders comments to the same Markdown as the {@link MarkdownCommentRenderer}, but without
+ * building an HTML string, parsing it with Jsoup, serializing it and parsing it again in CopyDown.
+ * <p>
+ * The fragments are streamed through a small {@link HtmlTokenizer} into a minimal tree, which is
+ * cleaned up and converted to Markdown directly. Comments using HTML this renderer can not handle
+ * exactly like Jsoup and CopyDown (e.g. tables or misnested tags) are passed on to a
+ * {@link MarkdownCommentRenderer} instead.
+ */
+public class DirectMarkdownCommentRenderer implements CommentRenderer {
+
+  private final HtmlCommentRender htmlCommentRender;
+  private final MarkdownCommentRenderer fallback;
+
+  public DirectMarkdownCommentRenderer(LinkResolveStrategy linkResolveStrategy) {
+    this.htmlCommentRender = new HtmlCommentRender(linkResolveStrategy);
+    this.fallback = new MarkdownCommentRenderer(linkResolveStrategy);
+  }
+
+  @Override
+  public String render(List<JavadocCommentFragment> fragments, String baseUrl) {
+    try {
+      return renderDirectly(fragments, baseUrl);
+    } catch (UnsupportedHtmlException e) {
+      return fallback.render(fragments, baseUrl);
+    }
+  }
+
+  /**
+   * Renders the fragments without falling back to the {@link MarkdownCommentRenderer}.
+   *
+   * @param fragments the fragments to render
+   * @param baseUrl the base url to use (empty if none)
+   * @return the rendered markdown
+   * @throws UnsupportedHtmlException if the fragments contain unsupported HTML
+   */
+  String renderDirectly(List<JavadocCommentFragment> fragments, String baseUrl) {
+    HtmlTreeBuilder treeBuilder = new HtmlTreeBuilder();
+    Visitor visitor = new Visitor(new HtmlTokenizer(treeBuilder), baseUrl);
+    for (JavadocCommentFragment fragment : fragments) {
+      fragment.accept(visitor);
+    }
+    visitor.tokenizer.finish();
+
+    HtmlNode body = treeBuilder.getBody();
+    normalizeCode(body);
+    rejectFormattedCode(body, false, -1);
+    prepareForConversion(body);
+    padUnknownElements(body);
+
+    return MarkdownConverter.convert(body);
+  }
+
+  /**
+   * Applies the same clean ups to {@code pre} and {@code code} elements as the
+   * {@link MarkdownCommentRenderer}.
+   *
+   * @param body the body to clean up
+   */
+  private static void normalizeCode(HtmlNode body) {
+    for (HtmlNode pre : findAll(body, "pre")) {
+      HtmlNode child = pre.getOnlyElementChild();
+      if (child != null && child.is("pre")) {
+        pre.unwrap();
+      }
+    }
+
+    for (HtmlNode pre : findAll(body, "pre")) {
+      HtmlNode child = pre.getOnlyElementChild();
+      if (child == null || !child.is("code")) {
+        Map<String, String> attributes = new LinkedHashMap<>(pre.getAttributes());
+        attributes.put("class", "language-java");
+        pre.rename("code", attributes);
+
+        HtmlNode newPre = HtmlNode.element("pre", Map.of());
+        pre.getParent().append(newPre);
+        newPre.append(pre);
+      }
+    }
+
+    for (HtmlNode code : findAll(body, "code")) {
+      HtmlNode child = code.getOnlyElementChild();
+      if (child != null && child.is("code")) {
+        code.unwrap();
+      }
+    }
+
+    for (HtmlNode code : findAll(body, "code")) {
+      for (HtmlNode text : code.getChildren()) {
+        if (!text.is(HtmlNode.TEXT)) {
+          continue;
+        }
+        String content = text.getText();
+        boolean hasNewline = content.endsWith("\n");
+        if (hasNewline) {
+          content = content.substring(0, content.length() - 1);
+        }
+        text.setText(content.stripIndent() + (hasNewline ? "\n" : ""));
+      }
+    }
+
+    for (HtmlNode pre : findAll(body, "pre")) {
+      HtmlNode quote = pre.getParent();
+      if (quote != null && quote.is("blockquote")) {
+        quote.unwrap();
+      }
+    }
+  }
+
+  /**
+   * Jsoup indents blocks when it serializes the tree, even inside {@code pre} and {@code code}
+   * elements, and only preserves whitespace up to six levels below a {@code pre}. CopyDown keeps
+   * that whitespace verbatim, so these trees are not supported.
+   *
+   * @param node the node to check
+   * @param inCode whether the node is inside a {@code pre} or {@code code} element
+   * @param preDepth the nesting depth below the closest {@code pre}, or -1 if there is none
+   */
+  private static void rejectFormattedCode(HtmlNode node, boolean inCode, int preDepth) {
+    for (HtmlNode child : node.getChildren()) {
+      if (!child.isElement()) {
+        continue;
+      }
+      if (inCode && child.isBlock()) {
+        throw new UnsupportedHtmlException("Block in code " + child.getName());
+      }
+      int childPreDepth = child.is("pre") ? 0 : preDepth < 0 ? -1 : preDepth + 1;
+      if (childPreDepth >= 6) {
+        throw new UnsupportedHtmlException("Deeply nested pre content " + child.getName());
+      }
+      rejectFormattedCode(child, inCode || child.is("pre") || child.is("code"), childPreDepth);
+    }
+  }
+
+  /**
+   * The {@link MarkdownCommentRenderer} serializes its tree and CopyDown parses it again. This
+   * merges adjacent texts and drops empty ones, like that round trip would.
+   *
+   * @param node the node to prepare
+   */
+  private static void prepareForConversion(HtmlNode node) {
+    List<HtmlNode> children = node.getChildren();
+    for (int i = 0; i < children.size(); i++) {
+      HtmlNode child = children.get(i);
+      if (!child.is(HtmlNode.TEXT)) {
+        prepareForConversion(child);
+        continue;
+      }
+      if (i > 0 && children.get(i - 1).is(HtmlNode.TEXT)) {
+        HtmlNode previous = children.get(i - 1);
+        previous.setText(previous.getText() + child.getText());
+        child.remove();
+        i--;
+      } else if (child.getText().isEmpty()) {
+        child.remove();
+        i--;
+      }
+    }
+  }
+
+  /**
+   * Jsoup formats unknown elements, like the {@code <init>} in a constructor name, as blocks when
+   * pretty printing. Their text is indented on its own line, which CopyDown collapses to a space on
+   * either side. Only unknown elements that are not indented themselves are supported.
+   *
+   * @param node the node to pad the unknown children of
+   */
+  private static void padUnknownElements(HtmlNode node) {
+    for (HtmlNode child : node.getChildren()) {
+      if (!child.isElement()) {
+        continue;
+      }
+      if (!Tag.isKnownTag(child.getName())) {
+        padUnknownElement(child);
+      }
+      padUnknownElements(child);
+    }
+  }
+
+  private static void padUnknownElement(HtmlNode element) {
+    boolean parentIsBlock = Tag.valueOf(element.getParent().getName()).isBlock();
+    if (element.getPreviousSibling() == null || !parentIsBlock) {
+      throw new UnsupportedHtmlException("Indented unknown tag " + element.getName());
+    }
+    List<HtmlNode> children = element.getChildren();
+    if (children.isEmpty()) {
+      return;
+    }
+    HtmlNode text = children.get(0);
+    if (children.size() != 1 || !text.is(HtmlNode.TEXT) || text.getText().isBlank()) {
+      throw new UnsupportedHtmlException("Unknown tag with content " + element.getName());
+    }
+    text.setText(" " + text.getText() + " ");
+  }
+
+  private static List<HtmlNode> findAll(HtmlNode root, String name) {
+    List<HtmlNode> result = new ArrayList<>();
+    root.collect(name, result);
+    return result;
+  }
+
+  private class Visitor implements CommentVisitor<Void> {
+
+    private final HtmlTokenizer tokenizer;
+    private final String baseUrl;
+
+    private Visitor(HtmlTokenizer tokenizer, String baseUrl) {
+      this.tokenizer = tokenizer;
+      this.baseUrl = baseUrl;
+    }
+
+    @Override
+    public Void visitLink(JavadocCommentLink link) {
+      tokenizer.feed(htmlCommentRender.renderFragment(link, baseUrl));
+      return null;
+    }
+
+    @Override
+    public Void visitInlineTag(JavadocCommentInlineTag tag) {
+      tokenizer.feed(htmlCommentRender.renderFragment(tag, baseUrl));
+      return null;
+    }
+
+    @Override
+    public Void visitText(JavadocCommentText text) {
+      tokenizer.feed(text.getText());
+      return null;
+    }
+  }
+}
@@ -29,11 +29,23 @@ public class HtmlCommentRender implements CommentRenderer {
    */
   @Override
   public String render(List<JavadocCommentFragment> fragments, String baseUrl) {
+    Visitor visitor = new Visitor(linkResolveStrategy, baseUrl);
     return fragments.stream()
-        .map(it -> it.accept(new Visitor(linkResolveStrategy, baseUrl)))
+        .map(it -> it.accept(visitor))
         .collect(Collectors.joining());
   }
 
+  /**
+   * Renders a single fragment to an HTML text.
+   *
+   * @param fragment the fragment to render
+   * @param baseUrl the base url
+   * @return the rendered HTML
+   */
+  String renderFragment(JavadocCommentFragment fragment, String baseUrl) {
+    return fragment.accept(new Visitor(linkResolveStrategy, baseUrl));
+  }
+
   private static class Visitor implements CommentVisitor<String> {
 
     private final LinkResolveStrategy linkResolveStrategy;
@@ -0,0 +1,205 @@
+package de.ialistannen.javadocapi.rendering;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A minimal mutable HTML tree node for the {@link DirectMarkdownCommentRenderer}. It is either an
+ * element, a text or a comment.
+ */
+final class HtmlNode {
+
+  static final String TEXT = "#text";
+  static final String COMMENT = "#comment";
+
+  private static final Set<String> INLINE = Set.of(
+      "a", "abbr", "b", "big", "br", "cite", "code", "dfn", "em", "font", "i", "kbd", "q", "s",
+      "samp", "small", "span", "strike", "strong", "sub", "sup", "tt", "u", "var"
+  );
+
+  private String name;
+  private String text;
+  private Map<String, String> attributes;
+  private final List<HtmlNode> children;
+  private HtmlNode parent;
+
+  private HtmlNode(String name, String text, Map<String, String> attributes) {
+    this.name = name;
+    this.text = text;
+    this.attributes = attributes;
+    this.children = name.startsWith("#") ? List.of() : new ArrayList<>();
+  }
+
+  static HtmlNode element(String name, Map<String, String> attributes) {
+    return new HtmlNode(name, null, attributes);
+  }
+
+  static HtmlNode text(String text) {
+    return new HtmlNode(TEXT, text, Map.of());
+  }
+
+  static HtmlNode comment() {
+    return new HtmlNode(COMMENT, null, Map.of());
+  }
+
+  /**
+   * @return the lower case tag name or {@link #TEXT} or {@link #COMMENT}
+   */
+  String getName() {
+    return name;
+  }
+
+  boolean is(String name) {
+    return this.name.equals(name);
+  }
+
+  boolean isElement() {
+    return !name.startsWith("#");
+  }
+
+  /**
+   * @return true if this is an element Jsoup formats as a block when pretty printing
+   */
+  boolean isBlock() {
+    return isElement() && !INLINE.contains(name);
+  }
+
+  void rename(String name, Map<String, String> attributes) {
+    this.name = name;
+    this.attributes = attributes;
+  }
+
+  /**
+   * @return the raw text of a text node
+   */
+  String getText() {
+    return text;
+  }
+
+  void setText(String text) {
+    this.text = text;
+  }
+
+  Map<String, String> getAttributes() {
+    return attributes;
+  }
+
+  String getAttribute(String name) {
+    return attributes.getOrDefault(name, "");
+  }
+
+  HtmlNode getParent() {
+    return parent;
+  }
+
+  List<HtmlNode> getChildren() {
+    return children;
+  }
+
+  int getIndex() {
+    return parent.children.indexOf(this);
+  }
+
+  HtmlNode getPreviousSibling() {
+    int index = getIndex();
+    return index == 0 ? null : parent.children.get(index - 1);
+  }
+
+  HtmlNode getNextSibling() {
+    int index = getIndex();
+    return index + 1 == parent.children.size() ? null : parent.children.get(index + 1);
+  }
+
+  /**
+   * @return the only element child, ignoring texts and comments, or null if there is no or more
+   *     than one
+   */
+  HtmlNode getOnlyElementChild() {
+    HtmlNode result = null;
+    for (HtmlNode child : children) {
+      if (child.isElement()) {
+        if (result != null) {
+          return null;
+        }
+        result = child;
+      }
+    }
+    return result;
+  }
+
+  HtmlNode getLastElementChild() {
+    for (int i = children.size() - 1; i >= 0; i--) {
+      if (children.get(i).isElement()) {
+        return children.get(i);
+      }
+    }
+    return null;
+  }
+
+  void append(HtmlNode child) {
+    if (child.parent != null) {
+      child.parent.children.remove(child);
+    }
+    child.parent = this;
+    children.add(child);
+  }
+
+  void remove() {
+    parent.children.remove(this);
+    parent = null;
+  }
+
+  /**
+   * Replaces this node with its children.
+   */
+  void unwrap() {
+    int index = getIndex();
+    for (HtmlNode child : children) {
+      child.parent = parent;
+    }
+    parent.children.remove(index);
+    parent.children.addAll(index, children);
+    children.clear();
+    parent = null;
+  }
+
+  /**
+   * Appends all descendant elements with the given name in document order.
+   *
+   * @param name the name to look for
+   * @param result the list to add them to
+   */
+  void collect(String name, List<HtmlNode> result) {
+    if (this.name.equals(name)) {
+      result.add(this);
+    }
+    for (HtmlNode child : children) {
+      child.collect(name, result);
+    }
+  }
+
+  /**
+   * @return the concatenated raw text of all descendants, with line breaks for {@code br}s
+   */
+  String getWholeText() {
+    if (name.equals(TEXT)) {
+      return text;
+    }
+    StringBuilder result = new StringBuilder();
+    appendWholeText(result);
+    return result.toString();
+  }
+
+  private void appendWholeText(StringBuilder result) {
+    if (name.equals(TEXT)) {
+      result.append(text);
+    } else if (name.equals("br")) {
+      result.append('\n');
+    }
+    for (HtmlNode child : children) {
+      child.appendWholeText(result);
+    }
+  }
+}
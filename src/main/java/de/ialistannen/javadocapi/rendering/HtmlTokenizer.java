@@ -0,0 +1,418 @@
+package de.ialistannen.javadocapi.rendering;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.jsoup.nodes.Entities;
+
+/**
+ * A small streaming HTML tokenizer. HTML is pushed in pieces via {@link #feed(CharSequence)}, so
+ * tags may span several comment fragments, and the tokens are passed on to a {@link TokenSink}.
+ * <p>
+ * It follows the jsoup tokenizer for the common markup found in Javadoc and throws an
+ * {@link UnsupportedHtmlException} for anything jsoup would need error recovery for.
+ */
+final class HtmlTokenizer {
+
+  private static final int DATA = 0;
+  private static final int TAG_OPEN = 1;
+  private static final int END_TAG_OPEN = 2;
+  private static final int TAG_NAME = 3;
+  private static final int END_TAG_NAME = 4;
+  private static final int BEFORE_ATTRIBUTE_NAME = 5;
+  private static final int ATTRIBUTE_NAME = 6;
+  private static final int AFTER_ATTRIBUTE_NAME = 7;
+  private static final int BEFORE_ATTRIBUTE_VALUE = 8;
+  private static final int ATTRIBUTE_VALUE_DOUBLE_QUOTED = 9;
+  private static final int ATTRIBUTE_VALUE_SINGLE_QUOTED = 10;
+  private static final int ATTRIBUTE_VALUE_UNQUOTED = 11;
+  private static final int AFTER_ATTRIBUTE_VALUE_QUOTED = 12;
+  private static final int SELF_CLOSING_START_TAG = 13;
+  private static final int MARKUP_DECLARATION_OPEN = 14;
+  private static final int COMMENT = 15;
+
+  // Windows-1252 characters jsoup maps the numeric references 0x80 to 0x9F to
+  private static final int FIRST_WINDOWS_1252_REFERENCE = 0x80;
+  private static final int LAST_WINDOWS_1252_REFERENCE = 0x9F;
+
+  private final TokenSink sink;
+  private final StringBuilder text;
+  private final StringBuilder tagName;
+  private final StringBuilder attributeName;
+  private final StringBuilder attributeValue;
+  private Map<String, String> attributes;
+  private int state;
+  // Characters of a markup declaration or the dashes before a comment end
+  private int dashes;
+  private int commentLength;
+
+  HtmlTokenizer(TokenSink sink) {
+    this.sink = sink;
+    this.text = new StringBuilder();
+    this.tagName = new StringBuilder();
+    this.attributeName = new StringBuilder();
+    this.attributeValue = new StringBuilder();
+    this.state = DATA;
+  }
+
+  /**
+   * Tokenizes the next piece of HTML.
+   *
+   * @param html the HTML to process
+   */
+  void feed(CharSequence html) {
+    for (int i = 0; i < html.length(); i++) {
+      consume(html.charAt(i));
+    }
+  }
+
+  /**
+   * Emits the remaining text after the last piece was fed.
+   */
+  void finish() {
+    if (state == TAG_OPEN) {
+      text.append('<');
+    } else if (state != DATA) {
+      throw new UnsupportedHtmlException("Unterminated markup");
+    }
+    state = DATA;
+    flushText();
+  }
+
+  private void consume(char c) {
+    switch (state) {
+      case DATA -> {
+        if (c == '<') {
+          state = TAG_OPEN;
+        } else {
+          text.append(c);
+        }
+      }
+      case TAG_OPEN -> {
+        if (c == '/') {
+          state = END_TAG_OPEN;
+        } else if (c == '!') {
+          state = MARKUP_DECLARATION_OPEN;
+          dashes = 0;
+        } else if (Character.isLetter(c)) {
+          flushText();
+          tagName.setLength(0);
+          tagName.append(c);
+          attributes = null;
+          state = TAG_NAME;
+        } else if (c == '?') {
+          throw new UnsupportedHtmlException("Processing instruction");
+        } else {
+          text.append('<');
+          state = DATA;
+          consume(c);
+        }
+      }
+      case END_TAG_OPEN -> {
+        if (!Character.isLetter(c)) {
+          throw new UnsupportedHtmlException("Bogus end tag");
+        }
+        flushText();
+        tagName.setLength(0);
+        tagName.append(c);
+        state = END_TAG_NAME;
+      }
+      case TAG_NAME -> {
+        if (isWhitespace(c)) {
+          state = BEFORE_ATTRIBUTE_NAME;
+        } else if (c == '/') {
+          state = SELF_CLOSING_START_TAG;
+        } else if (c == '>') {
+          emitStartTag(false);
+        } else if (c == '<' || c == 0) {
+          throw new UnsupportedHtmlException("Broken tag name");
+        } else {
+          tagName.append(c);
+        }
+      }
+      case END_TAG_NAME -> {
+        if (c == '>') {
+          state = DATA;
+          sink.endTag(normalize(tagName));
+        } else if (isWhitespace(c) || c == '/' || c == '<' || c == 0) {
+          throw new UnsupportedHtmlException("Attributes in end tag");
+        } else {
+          tagName.append(c);
+        }
+      }
+      case BEFORE_ATTRIBUTE_NAME -> beforeAttributeName(c);
+      case ATTRIBUTE_NAME -> {
+        if (isWhitespace(c)) {
+          state = AFTER_ATTRIBUTE_NAME;
+        } else if (c == '/') {
+          emitAttribute();
+          state = SELF_CLOSING_START_TAG;
+        } else if (c == '=') {
+          state = BEFORE_ATTRIBUTE_VALUE;
+        } else if (c == '>') {
+          emitAttribute();
+          emitStartTag(false);
+        } else if (c == '"' || c == '\'' || c == '<' || c == 0) {
+          throw new UnsupportedHtmlException("Broken attribute name");
+        } else {
+          attributeName.append(c);
+        }
+      }
+      case AFTER_ATTRIBUTE_NAME -> {
+        if (c == '=') {
+          state = BEFORE_ATTRIBUTE_VALUE;
+        } else if (!isWhitespace(c)) {
+          emitAttribute();
+          beforeAttributeName(c);
+        }
+      }
+      case BEFORE_ATTRIBUTE_VALUE -> {
+        if (c == '"') {
+          state = ATTRIBUTE_VALUE_DOUBLE_QUOTED;
+        } else if (c == '\'') {
+          state = ATTRIBUTE_VALUE_SINGLE_QUOTED;
+        } else if (c == '>') {
+          emitAttribute();
+          emitStartTag(false);
+        } else if (c == '<' || c == '=' || c == '`' || c == 0) {
+          throw new UnsupportedHtmlException("Broken attribute value");
+        } else if (!isWhitespace(c)) {
+          attributeValue.append(c);
+          state = ATTRIBUTE_VALUE_UNQUOTED;
+        }
+      }
+      case ATTRIBUTE_VALUE_DOUBLE_QUOTED, ATTRIBUTE_VALUE_SINGLE_QUOTED -> {
+        if (c == (state == ATTRIBUTE_VALUE_DOUBLE_QUOTED ? '"' : '\'')) {
+          emitAttribute();
+          state = AFTER_ATTRIBUTE_VALUE_QUOTED;
+        } else if (c == 0) {
+          throw new UnsupportedHtmlException("Null in attribute value");
+        } else {
+          attributeValue.append(c);
+        }
+      }
+      case ATTRIBUTE_VALUE_UNQUOTED -> {
+        if (isWhitespace(c)) {
+          emitAttribute();
+          state = BEFORE_ATTRIBUTE_NAME;
+        } else if (c == '>') {
+          emitAttribute();
+          emitStartTag(false);
+        } else if (c == '"' || c == '\'' || c == '<' || c == '=' || c == '`' || c == 0) {
+          throw new UnsupportedHtmlException("Broken unquoted attribute value");
+        } else {
+          attributeValue.append(c);
+        }
+      }
+      case AFTER_ATTRIBUTE_VALUE_QUOTED -> {
+        if (isWhitespace(c)) {
+          state = BEFORE_ATTRIBUTE_NAME;
+        } else if (c == '/') {
+          state = SELF_CLOSING_START_TAG;
+        } else if (c == '>') {
+          emitStartTag(false);
+        } else {
+          throw new UnsupportedHtmlException("Missing space between attributes");
+        }
+      }
+      case SELF_CLOSING_START_TAG -> {
+        if (c != '>') {
+          throw new UnsupportedHtmlException("Broken self closing tag");
+        }
+        emitStartTag(true);
+      }
+      case MARKUP_DECLARATION_OPEN -> {
+        if (c != '-') {
+          throw new UnsupportedHtmlException("Doctype, CDATA or bogus comment");
+        }
+        if (++dashes == 2) {
+          flushText();
+          dashes = 0;
+          commentLength = 0;
+          state = COMMENT;
+        }
+      }
+      case COMMENT -> {
+        if (c == '>' && dashes >= 2) {
+          state = DATA;
+          sink.comment();
+          return;
+        } else if (c == '>' && commentLength <= 1 && dashes == commentLength) {
+          throw new UnsupportedHtmlException("Abruptly closed comment");
+        } else if (c == '!' && dashes >= 2 || c == 0) {
+          throw new UnsupportedHtmlException("Unusual comment end");
+        }
+        dashes = c == '-' ? dashes + 1 : 0;
+        commentLength++;
+      }
+      default -> throw new IllegalStateException("Unknown state " + state);
+    }
+  }
+
+  private void beforeAttributeName(char c) {
+    if (c == '/') {
+      state = SELF_CLOSING_START_TAG;
+    } else if (c == '>') {
+      emitStartTag(false);
+    } else if (c == '"' || c == '\'' || c == '<' || c == '=' || c == 0) {
+      throw new UnsupportedHtmlException("Broken attribute start");
+    } else if (!isWhitespace(c)) {
+      attributeName.append(c);
+      state = ATTRIBUTE_NAME;
+    }
+  }
+
+  private void emitAttribute() {
+    if (attributes == null) {
+      attributes = new LinkedHashMap<>();
+    }
+    String value = decode(attributeValue, true);
+    attributes.putIfAbsent(normalize(attributeName), value);
+    attributeName.setLength(0);
+    attributeValue.setLength(0);
+  }
+
+  private void emitStartTag(boolean selfClosing) {
+    state = DATA;
+    sink.startTag(
+        normalize(tagName),
+        attributes == null ? Map.of() : attributes,
+        selfClosing
+    );
+  }
+
+  private void flushText() {
+    if (text.length() == 0) {
+      return;
+    }
+    sink.text(decode(text, false));
+    text.setLength(0);
+  }
+
+  private static String normalize(StringBuilder name) {
+    return name.toString().toLowerCase(Locale.ENGLISH);
+  }
+
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\f' || c == '\r';
+  }
+
+  /**
+   * Decodes character references like jsoup would.
+   *
+   * @param raw the raw text
+   * @param inAttribute whether the text is an attribute value
+   * @return the decoded text
+   */
+  private static String decode(CharSequence raw, boolean inAttribute) {
+    StringBuilder result = null;
+    int copiedUntil = 0;
+
+    for (int i = 0; i < raw.length(); i++) {
+      char c = raw.charAt(i);
+      if (c == 0 || c == '\r') {
+        throw new UnsupportedHtmlException("Unusual control character");
+      }
+      if (c != '&') {
+        continue;
+      }
+      int end = i + 1;
+      String decoded;
+
+      if (end < raw.length() && raw.charAt(end) == '#') {
+        end++;
+        boolean hex = end < raw.length() && (raw.charAt(end) == 'x' || raw.charAt(end) == 'X');
+        if (hex) {
+          end++;
+        }
+        int start = end;
+        while (end < raw.length() && isDigit(raw.charAt(end), hex)) {
+          end++;
+        }
+        if (end == start || end - start > 6) {
+          throw new UnsupportedHtmlException("Broken numeric character reference");
+        }
+        int codePoint = Integer.parseInt(raw, start, end, hex ? 16 : 10);
+        if (codePoint == 0 || codePoint > Character.MAX_CODE_POINT
+            || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)
+            || (codePoint >= FIRST_WINDOWS_1252_REFERENCE
+            && codePoint <= LAST_WINDOWS_1252_REFERENCE)) {
+          throw new UnsupportedHtmlException("Unusual numeric character reference");
+        }
+        decoded = Character.toString(codePoint);
+      } else {
+        while (end < raw.length() && Character.isLetter(raw.charAt(end))) {
+          end++;
+        }
+        while (end < raw.length() && isDigit(raw.charAt(end), false)) {
+          end++;
+        }
+        String name = raw.subSequence(i + 1, end).toString();
+        boolean terminated = end < raw.length() && raw.charAt(end) == ';';
+        boolean found = Entities.isBaseNamedEntity(name)
+            || (terminated && Entities.isNamedEntity(name));
+        if (!found) {
+          continue;
+        }
+        if (inAttribute && end < raw.length() && isAttributeContinuation(raw.charAt(end))) {
+          continue;
+        }
+        decoded = Entities.getByName(name);
+      }
+
+      if (end < raw.length() && raw.charAt(end) == ';') {
+        end++;
+      }
+      if (result == null) {
+        result = new StringBuilder(raw.length());
+      }
+      result.append(raw, copiedUntil, i).append(decoded);
+      copiedUntil = end;
+      i = end - 1;
+    }
+
+    if (result == null) {
+      return raw.toString();
+    }
+    return result.append(raw, copiedUntil, raw.length()).toString();
+  }
+
+  private static boolean isDigit(char c, boolean hex) {
+    if (c >= '0' && c <= '9') {
+      return true;
+    }
+    return hex && ((c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'));
+  }
+
+  private static boolean isAttributeContinuation(char c) {
+    return Character.isLetter(c) || isDigit(c, false) || c == '=' || c == '-' || c == '_';
+  }
+
+  /**
+   * Receives the tokens of a {@link HtmlTokenizer}.
+   */
+  interface TokenSink {
+
+    /**
+     * @param text the decoded text between two tags
+     */
+    void text(String text);
+
+    /**
+     * @param name the lower case tag name
+     * @param attributes the decoded attributes with lower case names
+     * @param selfClosing whether the tag ended in {@code />}
+     */
+    void startTag(String name, Map<String, String> attributes, boolean selfClosing);
+
+    /**
+     * @param name the lower case tag name
+     */
+    void endTag(String name);
+
+    /**
+     * Called for a comment. Its content is not needed for rendering.
+     */
+    void comment();
+  }
+}
@@ -0,0 +1,281 @@
+package de.ialistannen.javadocapi.rendering;
+
+import de.ialistannen.javadocapi.rendering.HtmlTokenizer.TokenSink;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.jsoup.parser.Tag;
+
+/**
+ * Builds a {@link HtmlNode} tree from tokens, like jsoup would parse a body fragment.
+ * <p>
+ * Only the part of the HTML tree construction rules needed for common Javadoc markup is
+ * implemented. Whenever jsoup would need one of the other rules, e.g. because a formatting element
+ * is closed implicitly and later reconstructed, an {@link UnsupportedHtmlException} is thrown.
+ */
+final class HtmlTreeBuilder implements TokenSink {
+
+  private static final Set<String> BLOCKS = Set.of(
+      "address", "article", "aside", "blockquote", "center", "dir", "div", "dl", "fieldset",
+      "figcaption", "figure", "footer", "header", "hgroup", "nav", "ol", "p", "section", "ul"
+  );
+  private static final Set<String> HEADINGS = Set.of("h1", "h2", "h3", "h4", "h5", "h6");
+  private static final Set<String> FORMATTING = Set.of(
+      "a", "b", "big", "code", "em", "font", "i", "s", "small", "strike", "strong", "tt", "u"
+  );
+  private static final Set<String> ORDINARY = Set.of(
+      "abbr", "cite", "dfn", "kbd", "q", "samp", "span", "sub", "sup", "var"
+  );
+  private static final Set<String> IMPLIED_END_TAGS = Set.of("dd", "dt", "li", "p");
+  // The special elements that can be on the stack, others are rejected before
+  private static final Set<String> SPECIAL = Set.of(
+      "address", "article", "aside", "blockquote", "body", "center", "dir", "div", "dl",
+      "fieldset", "figcaption", "figure", "footer", "h1", "h2", "h3", "h4", "h5", "h6", "header",
+      "hgroup", "li", "nav", "ol", "p", "pre", "section", "ul"
+  );
+
+  private final HtmlNode body;
+  private final List<HtmlNode> stack;
+  private final List<HtmlNode> activeFormattingElements;
+  private boolean skipNextNewline;
+
+  HtmlTreeBuilder() {
+    this.body = HtmlNode.element("body", Map.of());
+    this.stack = new ArrayList<>();
+    this.activeFormattingElements = new ArrayList<>();
+
+    stack.add(body);
+  }
+
+  /**
+   * @return the body containing all parsed nodes
+   */
+  HtmlNode getBody() {
+    return body;
+  }
+
+  @Override
+  public void text(String text) {
+    if (skipNextNewline && text.startsWith("\n")) {
+      text = text.substring(1);
+    }
+    skipNextNewline = false;
+    if (!text.isEmpty()) {
+      currentNode().append(HtmlNode.text(text));
+    }
+  }
+
+  @Override
+  public void comment() {
+    skipNextNewline = false;
+    currentNode().append(HtmlNode.comment());
+  }
+
+  @Override
+  public void startTag(String name, Map<String, String> attributes, boolean selfClosing) {
+    skipNextNewline = false;
+    if (selfClosing && name.equals("pre")) {
+      throw new UnsupportedHtmlException("Self closing " + name);
+    }
+
+    if (BLOCKS.contains(name)) {
+      closeParagraph();
+      insert(name, attributes);
+    } else if (HEADINGS.contains(name)) {
+      closeParagraph();
+      if (HEADINGS.contains(currentNode().getName())) {
+        pop();
+      }
+      insert(name, attributes);
+    } else if (name.equals("pre")) {
+      closeParagraph();
+      insert(name, attributes);
+      skipNextNewline = true;
+    } else if (name.equals("li")) {
+      startListItem(attributes);
+    } else if (name.equals("hr")) {
+      closeParagraph();
+      currentNode().append(HtmlNode.element(name, attributes));
+    } else if (name.equals("br")) {
+      currentNode().append(HtmlNode.element(name, attributes));
+    } else if (FORMATTING.contains(name)) {
+      startFormatting(name, attributes);
+    } else if (ORDINARY.contains(name) || !Tag.isKnownTag(name)) {
+      insert(name, attributes);
+    } else {
+      throw new UnsupportedHtmlException("Unsupported tag " + name);
+    }
+
+    // Jsoup closes self closing elements right away
+    if (selfClosing && !name.equals("br") && !name.equals("hr")) {
+      endTag(name);
+    }
+  }
+
+  private void startListItem(Map<String, String> attributes) {
+    for (int i = stack.size() - 1; i > 0; i--) {
+      HtmlNode node = stack.get(i);
+      if (node.is("li")) {
+        closeElement("li");
+        break;
+      }
+      if (SPECIAL.contains(node.getName())
+          && !node.is("address") && !node.is("div") && !node.is("p")) {
+        break;
+      }
+    }
+    closeParagraph();
+    insert("li", attributes);
+  }
+
+  private void startFormatting(String name, Map<String, String> attributes) {
+    int sameElements = 0;
+    for (HtmlNode element : activeFormattingElements) {
+      if (element.is("a") && name.equals("a")) {
+        throw new UnsupportedHtmlException("Nested link");
+      }
+      if (element.is(name) && element.getAttributes().equals(attributes)) {
+        sameElements++;
+      }
+    }
+    if (sameElements >= 3) {
+      throw new UnsupportedHtmlException("Too many nested " + name);
+    }
+    activeFormattingElements.add(insert(name, attributes));
+  }
+
+  @Override
+  public void endTag(String name) {
+    skipNextNewline = false;
+
+    if (name.equals("p")) {
+      if (!isOnStack("p")) {
+        insert("p", Map.of());
+      }
+      closeElement("p");
+    } else if (name.equals("li")) {
+      if (isListItemInScope()) {
+        closeElement("li");
+      }
+    } else if (HEADINGS.contains(name)) {
+      if (stack.stream().anyMatch(it -> HEADINGS.contains(it.getName()))) {
+        generateImpliedEndTags(name);
+        while (!HEADINGS.contains(pop().getName())) {
+          // Pop until we closed the heading
+        }
+      }
+    } else if (BLOCKS.contains(name) || name.equals("pre")) {
+      if (isOnStack(name)) {
+        generateImpliedEndTags(null);
+        popUntil(name);
+      }
+    } else if (FORMATTING.contains(name) && hasActiveFormattingElement(name)) {
+      endFormatting(name);
+    } else if (FORMATTING.contains(name) || ORDINARY.contains(name) || !Tag.isKnownTag(name)) {
+      endOther(name);
+    } else {
+      throw new UnsupportedHtmlException("Unsupported end tag " + name);
+    }
+  }
+
+  private void endFormatting(String name) {
+    HtmlNode current = currentNode();
+    HtmlNode last = activeFormattingElements.get(activeFormattingElements.size() - 1);
+    if (current != last || !current.is(name)) {
+      throw new UnsupportedHtmlException("Misnested " + name);
+    }
+    activeFormattingElements.remove(activeFormattingElements.size() - 1);
+    stack.remove(stack.size() - 1);
+  }
+
+  private void endOther(String name) {
+    for (int i = stack.size() - 1; i > 0; i--) {
+      HtmlNode node = stack.get(i);
+      if (node.is(name)) {
+        generateImpliedEndTags(name);
+        popUntil(name);
+        return;
+      }
+      if (SPECIAL.contains(node.getName())) {
+        return;
+      }
+    }
+  }
+
+  private void closeParagraph() {
+    if (isOnStack("p")) {
+      closeElement("p");
+    }
+  }
+
+  private void closeElement(String name) {
+    generateImpliedEndTags(name);
+    popUntil(name);
+  }
+
+  private void generateImpliedEndTags(String exclude) {
+    while (IMPLIED_END_TAGS.contains(currentNode().getName()) && !currentNode().is(exclude)) {
+      pop();
+    }
+  }
+
+  private void popUntil(String name) {
+    while (!pop().is(name)) {
+      // Pop until we closed the element
+    }
+  }
+
+  private HtmlNode pop() {
+    HtmlNode node = stack.remove(stack.size() - 1);
+    if (node == body) {
+      throw new IllegalStateException("Popped the body");
+    }
+    if (activeFormattingElements.contains(node)) {
+      throw new UnsupportedHtmlException("Implicitly closed " + node.getName());
+    }
+    return node;
+  }
+
+  private HtmlNode insert(String name, Map<String, String> attributes) {
+    HtmlNode node = HtmlNode.element(name, attributes);
+    currentNode().append(node);
+    stack.add(node);
+    return node;
+  }
+
+  private HtmlNode currentNode() {
+    return stack.get(stack.size() - 1);
+  }
+
+  private boolean isOnStack(String name) {
+    for (int i = stack.size() - 1; i > 0; i--) {
+      if (stack.get(i).is(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean isListItemInScope() {
+    for (int i = stack.size() - 1; i > 0; i--) {
+      HtmlNode node = stack.get(i);
+      if (node.is("li")) {
+        return true;
+      }
+      if (node.is("ol") || node.is("ul")) {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  private boolean hasActiveFormattingElement(String name) {
+    for (HtmlNode element : activeFormattingElements) {
+      if (element.is(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
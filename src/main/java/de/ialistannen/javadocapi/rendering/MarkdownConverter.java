@@ -0,0 +1,484 @@
+package de.ialistannen.javadocapi.rendering;
+
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Converts a {@link HtmlNode} tree to Markdown exactly like the CopyDown library used by the
+ * {@link MarkdownCommentRenderer}, configured with fenced code blocks.
+ * <p>
+ * CopyDown is a port of Turndown and inherits all of its quirks, e.g. escapes that only apply at
+ * the start of each text node or the way whitespace is collapsed before converting. These are
+ * reproduced faithfully, as the output would differ otherwise.
+ */
+final class MarkdownConverter {
+
+  private static final Set<String> BLOCKS = Set.of(
+      "address", "article", "aside", "audio", "blockquote", "body", "canvas", "center", "dd",
+      "dir", "div", "dl", "dt", "fieldset", "figcaption", "figure", "footer", "form", "frameset",
+      "h1", "h2", "h3", "h4", "h5", "h6", "header", "hgroup", "hr", "html", "isindex", "li",
+      "main", "menu", "nav", "noframes", "noscript", "ol", "output", "p", "pre", "section",
+      "table", "tbody", "td", "tfoot", "th", "thead", "tr", "ul"
+  );
+  private static final Set<String> VOIDS = Set.of(
+      "area", "base", "br", "col", "command", "embed", "hr", "img", "input", "keygen", "link",
+      "meta", "param", "source", "track", "wbr"
+  );
+  private static final Set<String> MEANINGFUL_WHEN_BLANK = Set.of(
+      "a", "table", "thead", "tbody", "tfoot", "th", "td", "iframe", "script", "audio", "video"
+  );
+
+  private static final Pattern WHITESPACE_RUN = Pattern.compile("[ \\r\\n\\t]+");
+  private static final Pattern LEADING_NEWLINES = Pattern.compile("^\n+");
+  private static final Pattern TRAILING_NEWLINES = Pattern.compile("\n+$");
+  private static final Pattern OUTER_NEWLINES = Pattern.compile("^\n+|\n+$");
+  private static final Pattern LINE_START = Pattern.compile("(?m)^");
+  private static final Pattern NEWLINE = Pattern.compile("(?m)\n");
+  private static final Pattern LANGUAGE = Pattern.compile("language-(\\S+)");
+  private static final Pattern FENCE = Pattern.compile("(?m)^(`{3,})");
+  private static final Pattern LEADING_BREAKS = Pattern.compile("^[\\t\\n\\r]+");
+  private static final Pattern TRAILING_WHITESPACE = Pattern.compile("[\\t\\r\\n\\s]+$");
+
+  private static final Pattern[] ESCAPES = {
+      Pattern.compile("\\\\"), Pattern.compile("\\*"), Pattern.compile("^-"),
+      Pattern.compile("^\\+ "), Pattern.compile("^(=+)"), Pattern.compile("^(#{1,6}) "),
+      Pattern.compile("`"), Pattern.compile("^~~~"), Pattern.compile("\\["),
+      Pattern.compile("\\]"), Pattern.compile("^>"), Pattern.compile("_"),
+      Pattern.compile("^(\\d+)\\. ")
+  };
+  private static final String[] ESCAPE_REPLACEMENTS = {
+      "\\\\\\\\", "\\\\*", "\\\\-", "\\\\+ ", "\\\\$1", "\\\\$1 ", "\\\\`", "\\\\~~~", "\\\\[",
+      "\\\\]", "\\\\>", "\\\\_", "$1\\\\. "
+  };
+
+  private MarkdownConverter() {
+    throw new UnsupportedOperationException("No instantiation");
+  }
+
+  /**
+   * Converts the children of the given root to Markdown. The tree is modified in the process.
+   *
+   * @param root the root node
+   * @return the markdown
+   */
+  static String convert(HtmlNode root) {
+    collapseWhitespace(root);
+    String result = process(root);
+    result = LEADING_BREAKS.matcher(result).replaceAll("");
+    return TRAILING_WHITESPACE.matcher(result).replaceAll("");
+  }
+
+  private static String process(HtmlNode node) {
+    StringBuilder result = new StringBuilder();
+    for (HtmlNode child : node.getChildren()) {
+      if (child.is(HtmlNode.TEXT)) {
+        String text = normalizeWhitespace(child.getText());
+        join(result, isCode(child) ? text : escape(text));
+      } else if (child.isElement()) {
+        join(result, replacementFor(child));
+      }
+    }
+    return result.toString();
+  }
+
+  private static void join(StringBuilder output, String replacement) {
+    int trailing = 0;
+    while (trailing < output.length() && output.charAt(output.length() - 1 - trailing) == '\n') {
+      trailing++;
+    }
+    int leading = 0;
+    while (leading < replacement.length() && replacement.charAt(leading) == '\n') {
+      leading++;
+    }
+    output.setLength(output.length() - trailing);
+    output.append("\n".repeat(Math.min(2, Math.max(leading, trailing))));
+    output.append(replacement, leading, replacement.length());
+  }
+
+  private static String replacementFor(HtmlNode node) {
+    boolean blank = isBlank(node);
+    String content = process(node);
+
+    String leading = "";
+    String trailing = "";
+    if (!isBlock(node)) {
+      String text = node.getWholeText();
+      if (!text.equals("\n")) {
+        boolean hasLeading = !text.isEmpty() && isRegexWhitespace(text.charAt(0));
+        boolean hasTrailing = !text.isEmpty()
+            && isRegexWhitespace(text.charAt(text.length() - 1));
+        if (hasLeading && !isFlanked(node.getPreviousSibling(), false)) {
+          leading = " ";
+        }
+        if (!(blank && hasLeading && hasTrailing) && hasTrailing
+            && !isFlanked(node.getNextSibling(), true)) {
+          trailing = " ";
+        }
+      }
+    }
+    if (!leading.isEmpty() || !trailing.isEmpty()) {
+      content = content.trim();
+    }
+
+    String replacement;
+    if (blank) {
+      replacement = isBlock(node) ? "\n\n" : "";
+    } else {
+      replacement = applyRule(node, content);
+    }
+    return leading + replacement + trailing;
+  }
+
+  private static String applyRule(HtmlNode node, String content) {
+    switch (node.getName()) {
+      case "p":
+        return "\n\n" + content + "\n\n";
+      case "br":
+        return "  \n";
+      case "h1":
+      case "h2":
+        String underline = (node.is("h1") ? "=" : "-").repeat(content.length());
+        return "\n\n" + content + "\n" + underline + "\n\n";
+      case "h3":
+      case "h4":
+      case "h5":
+      case "h6":
+        return "\n\n" + "#".repeat(node.getName().charAt(1) - '0') + " " + content + "\n\n";
+      case "blockquote":
+        content = OUTER_NEWLINES.matcher(content).replaceAll("");
+        return "\n\n" + LINE_START.matcher(content).replaceAll("> ") + "\n\n";
+      case "ul":
+      case "ol":
+        HtmlNode parent = node.getParent();
+        if (parent.is("li") && parent.getLastElementChild() == node) {
+          return "\n" + content;
+        }
+        return "\n\n" + content + "\n\n";
+      case "li":
+        return listItem(node, content);
+      case "hr":
+        return "\n\n* * *\n\n";
+      case "em":
+      case "i":
+        return content.trim().isEmpty() ? "" : "_" + content + "_";
+      case "strong":
+      case "b":
+        return content.trim().isEmpty() ? "" : "**" + content + "**";
+      default:
+        break;
+    }
+
+    if (node.is("pre") && !node.getChildren().isEmpty() && node.getChildren().get(0).is("code")) {
+      return fencedCodeBlock(node.getChildren().get(0));
+    }
+    if (node.is("a") && !node.getAttribute("href").isEmpty()) {
+      if (!node.getAttribute("title").isEmpty()) {
+        throw new UnsupportedHtmlException("Link with title");
+      }
+      return "[" + content + "](" + node.getAttribute("href") + ")";
+    }
+    if (node.is("code") && !isCodeBlock(node)) {
+      if (content.trim().isEmpty()) {
+        return "";
+      }
+      if (content.indexOf('`') >= 0) {
+        throw new UnsupportedHtmlException("Backtick in inline code");
+      }
+      return "`" + content + "`";
+    }
+    if (node.is("img")) {
+      throw new UnsupportedHtmlException("Image");
+    }
+
+    return isBlock(node) ? "\n\n" + content + "\n\n" : content;
+  }
+
+  private static String listItem(HtmlNode node, String content) {
+    content = LEADING_NEWLINES.matcher(content).replaceAll("");
+    content = TRAILING_NEWLINES.matcher(content).replaceAll("\n");
+    content = NEWLINE.matcher(content).replaceAll("\n    ");
+
+    String prefix = "*   ";
+    HtmlNode parent = node.getParent();
+    if (parent.is("ol")) {
+      int index = 0;
+      String start = parent.getAttribute("start");
+      if (!start.isEmpty()) {
+        try {
+          index = Integer.parseInt(start) - 1;
+        } catch (NumberFormatException e) {
+          throw new UnsupportedHtmlException("Invalid list start " + start);
+        }
+      }
+      for (HtmlNode sibling : parent.getChildren()) {
+        if (sibling == node) {
+          break;
+        }
+        if (sibling.isElement()) {
+          index++;
+        }
+      }
+      prefix = (index + 1) + ".  ";
+    }
+
+    boolean needsNewline = node.getNextSibling() != null && !content.endsWith("\n");
+    return prefix + content + (needsNewline ? "\n" : "");
+  }
+
+  private static String fencedCodeBlock(HtmlNode code) {
+    Matcher languageMatcher = LANGUAGE.matcher(code.getAttribute("class"));
+    String language = languageMatcher.find() ? languageMatcher.group(1) : "";
+    String text = code.getWholeText();
+
+    int fenceSize = 3;
+    Matcher fenceMatcher = FENCE.matcher(text);
+    while (fenceMatcher.find()) {
+      fenceSize = Math.max(fenceSize, fenceMatcher.group(1).length() + 1);
+    }
+    String fence = "`".repeat(fenceSize);
+
+    if (text.endsWith("\n")) {
+      text = text.substring(0, text.length() - 1);
+    }
+    return "\n\n" + fence + language + "\n" + text + "\n" + fence + "\n\n";
+  }
+
+  private static boolean isCodeBlock(HtmlNode code) {
+    boolean hasSiblings = code.getPreviousSibling() != null || code.getNextSibling() != null;
+    return code.getParent().is("pre") && !hasSiblings;
+  }
+
+  private static boolean isCode(HtmlNode node) {
+    for (HtmlNode current = node; current != null; current = current.getParent()) {
+      if (current.is("code")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isBlock(HtmlNode node) {
+    return BLOCKS.contains(node.getName());
+  }
+
+  private static boolean isBlank(HtmlNode node) {
+    if (VOIDS.contains(node.getName()) || MEANINGFUL_WHEN_BLANK.contains(node.getName())) {
+      return false;
+    }
+    if (!node.getWholeText().chars().allMatch(it -> isRegexWhitespace((char) it))) {
+      return false;
+    }
+    return !containsVoidOrMeaningful(node);
+  }
+
+  private static boolean containsVoidOrMeaningful(HtmlNode node) {
+    for (HtmlNode child : node.getChildren()) {
+      if (VOIDS.contains(child.getName()) || MEANINGFUL_WHEN_BLANK.contains(child.getName())) {
+        return true;
+      }
+      if (containsVoidOrMeaningful(child)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks whether a sibling starts or ends with a space, as determined by CopyDown on the
+   * pretty-printed HTML of the sibling. Elements never do and texts only if their whitespace is
+   * not collapsed by the pretty printer.
+   *
+   * @param sibling the sibling to check
+   * @param start whether to check the start instead of the end
+   * @return true if the sibling is flanked by whitespace
+   */
+  private static boolean isFlanked(HtmlNode sibling, boolean start) {
+    if (sibling == null || !sibling.is(HtmlNode.TEXT) || sibling.getText().isEmpty()) {
+      return false;
+    }
+    String text = sibling.getText();
+    if (text.chars().allMatch(it -> isHtmlWhitespace((char) it))) {
+      throw new UnsupportedHtmlException("Blank text next to flanked element");
+    }
+    char c = text.charAt(start ? 0 : text.length() - 1);
+    // The pretty printer turns whitespace into spaces, except inside a pre
+    return c == ' ' || (isHtmlWhitespace(c) && !isInPre(sibling));
+  }
+
+  private static boolean isInPre(HtmlNode node) {
+    for (HtmlNode parent = node.getParent(); parent != null; parent = parent.getParent()) {
+      if (parent.is("pre")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Collapses whitespace like Turndown's collapse-whitespace, which CopyDown runs on the parsed
+   * document first.
+   *
+   * @param root the root of the tree
+   */
+  private static void collapseWhitespace(HtmlNode root) {
+    if (root.getChildren().isEmpty() || root.is("pre")) {
+      return;
+    }
+    HtmlNode previousText = null;
+    boolean previousVoid = false;
+    HtmlNode previous = null;
+    HtmlNode node = next(null, root);
+
+    while (node != root) {
+      if (node.is(HtmlNode.TEXT)) {
+        String text = WHITESPACE_RUN.matcher(node.getText()).replaceAll(" ");
+        boolean previousEndsWithSpace = previousText == null
+            || normalizeWhitespace(previousText.getText()).endsWith(" ");
+        if (previousEndsWithSpace && !previousVoid && text.startsWith(" ")) {
+          text = text.substring(1);
+        }
+        if (text.isEmpty()) {
+          node = remove(node);
+          continue;
+        }
+        node.setText(text);
+        previousText = node;
+      } else if (node.isElement()) {
+        if (isBlock(node) || node.is("br")) {
+          if (previousText != null) {
+            // Jsoup's pretty printer might insert a whitespace text before the block, which is
+            // trimmed instead. That only makes a difference for these special characters.
+            if (hasSpecialWhitespace(previousText.getText())) {
+              throw new UnsupportedHtmlException("Special whitespace before block");
+            }
+            previousText.setText(stripTrailingSpace(previousText.getText()));
+          }
+          previousText = null;
+          previousVoid = false;
+        } else if (VOIDS.contains(node.getName())) {
+          previousText = null;
+          previousVoid = true;
+        }
+      } else {
+        node = remove(node);
+        continue;
+      }
+
+      HtmlNode nextNode = next(previous, node);
+      previous = node;
+      node = nextNode;
+    }
+
+    if (previousText != null) {
+      previousText.setText(stripTrailingSpace(previousText.getText()));
+    }
+  }
+
+  private static boolean hasSpecialWhitespace(String text) {
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '\u00A0' || c == '\u200B' || c == '\u00AD' || c == '\f') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String stripTrailingSpace(String text) {
+    String normalized = normalizeWhitespace(text);
+    if (normalized.endsWith(" ")) {
+      return normalized.substring(0, normalized.length() - 1);
+    }
+    return normalized;
+  }
+
+  private static HtmlNode next(HtmlNode previous, HtmlNode current) {
+    if ((previous != null && previous.getParent() == current) || current.is("pre")) {
+      HtmlNode sibling = current.getNextSibling();
+      return sibling != null ? sibling : current.getParent();
+    }
+    if (!current.getChildren().isEmpty()) {
+      return current.getChildren().get(0);
+    }
+    HtmlNode sibling = current.getNextSibling();
+    return sibling != null ? sibling : current.getParent();
+  }
+
+  private static HtmlNode remove(HtmlNode node) {
+    HtmlNode sibling = node.getNextSibling();
+    HtmlNode next = sibling != null ? sibling : node.getParent();
+    node.remove();
+    return next;
+  }
+
+  /**
+   * Normalizes whitespace like jsoup's {@code TextNode#text()}.
+   *
+   * @param text the raw text
+   * @return the text with whitespace runs replaced by a single space
+   */
+  private static String normalizeWhitespace(String text) {
+    StringBuilder result = null;
+    boolean lastWasWhite = false;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      boolean white = isHtmlWhitespace(c) || c == '\u00A0';
+      boolean invisible = c == '\u200B' || c == '\u00AD';
+      if (result == null) {
+        boolean unchanged = white ? c == ' ' && !lastWasWhite : !invisible;
+        if (unchanged) {
+          lastWasWhite = white;
+          continue;
+        }
+        result = new StringBuilder(text.length()).append(text, 0, i);
+      }
+      if (white) {
+        if (!lastWasWhite) {
+          result.append(' ');
+          lastWasWhite = true;
+        }
+      } else if (!invisible) {
+        result.append(c);
+        lastWasWhite = false;
+      }
+    }
+    return result == null ? text : result.toString();
+  }
+
+  private static String escape(String text) {
+    if (!needsEscaping(text)) {
+      return text;
+    }
+    for (int i = 0; i < ESCAPES.length; i++) {
+      text = ESCAPES[i].matcher(text).replaceAll(ESCAPE_REPLACEMENTS[i]);
+    }
+    return text;
+  }
+
+  private static boolean needsEscaping(String text) {
+    if (text.isEmpty()) {
+      return false;
+    }
+    char first = text.charAt(0);
+    if (first == '-' || first == '+' || first == '=' || first == '#' || first == '~'
+        || first == '>' || (first >= '0' && first <= '9')) {
+      return true;
+    }
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '\\' || c == '*' || c == '`' || c == '[' || c == ']' || c == '_') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isHtmlWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\f' || c == '\r';
+  }
+
+  private static boolean isRegexWhitespace(char c) {
+    return isHtmlWhitespace(c) || c == '\u000B';
+  }
+}
@@ -0,0 +1,99 @@
+package de.ialistannen.javadocapi.rendering;
+
+import de.ialistannen.javadocapi.model.comment.JavadocComment;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentTag;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link JavadocComment} with its content and all tags rendered by a {@link CommentRenderer}.
+ */
+public class RenderedComment {
+
+  private final String content;
+  private final List<RenderedTag> tags;
+
+  public RenderedComment(String content, List<RenderedTag> tags) {
+    this.content = content;
+    this.tags = List.copyOf(tags);
+  }
+
+  /**
+   * Renders all parts of a comment.
+   *
+   * @param comment the comment to render
+   * @param renderer the renderer to use
+   * @param baseUrl the base url to use (empty if none)
+   * @return the rendered comment
+   */
+  public static RenderedComment render(JavadocComment comment, CommentRenderer renderer,
+      String baseUrl) {
+    List<RenderedTag> tags = comment.getTags()
+        .stream()
+        .map(tag -> new RenderedTag(
+            tag.getTagName(),
+            tag.getArgument().orElse(null),
+            renderer.render(tag.getContent(), baseUrl)
+        ))
+        .collect(Collectors.toList());
+
+    return new RenderedComment(renderer.render(comment.getContent(), baseUrl), tags);
+  }
+
+  /**
+   * @return the rendered main content
+   */
+  public String getContent() {
+    return content;
+  }
+
+  /**
+   * @return the rendered tags, in the order they appear in the comment
+   */
+  public List<RenderedTag> getTags() {
+    return tags;
+  }
+
+  /**
+   * @return the number of characters in all rendered texts
+   */
+  int getLength() {
+    int length = content.length();
+    for (RenderedTag tag : tags) {
+      length += tag.getContent().length();
+    }
+    return length;
+  }
+
+  /**
+   * A rendered {@link JavadocCommentTag}.
+   */
+  public static class RenderedTag {
+
+    private final String tagName;
+    private final String argument;
+    private final String content;
+
+    public RenderedTag(String tagName, String argument, String content) {
+      this.tagName = tagName;
+      this.argument = argument;
+      this.content = content;
+    }
+
+    public String getTagName() {
+      return tagName;
+    }
+
+    public Optional<String> getArgument() {
+      return Optional.ofNullable(argument);
+    }
+
+    /**
+     * @return the rendered content of the tag
+     */
+    public String getContent() {
+      return content;
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package de.ialistannen.javadocapi.rendering;
+
+import com.google.gson.Gson;
+import de.ialistannen.javadocapi.model.JavadocElement;
+import de.ialistannen.javadocapi.model.comment.JavadocComment;
+import de.ialistannen.javadocapi.storage.CommentPreRenderer;
+import de.ialistannen.javadocapi.storage.SqliteStorage;
+import java.util.Optional;
+
+/**
+ * Pre-renders comments to HTML and Markdown while indexing and reads them back when serving,
+ * rendering them live if the index has no up to date pre-rendered version. Safe to use from
+ * multiple threads.
+ */
+public class StoredCommentRenderer implements CommentPreRenderer {
+
+  // Bump whenever the output of the renderers or the serialized form changes
+  private static final int FORMAT_VERSION = 1;
+
+  private final Gson gson;
+  private final LinkResolveStrategy linkResolveStrategy;
+  private final String baseUrl;
+  private final CommentRenderer htmlRenderer;
+  // The markdown renderers keep state while converting, so every thread gets its own
+  private final ThreadLocal<CommentRenderer> markdownRenderer;
+
+  /**
+   * @param linkResolveStrategy the strategy to resolve links with
+   * @param baseUrl the base url to use (empty if none)
+   */
+  public StoredCommentRenderer(LinkResolveStrategy linkResolveStrategy, String baseUrl) {
+    this.gson = new Gson();
+    this.linkResolveStrategy = linkResolveStrategy;
+    this.baseUrl = baseUrl;
+    this.htmlRenderer = new HtmlCommentRender(linkResolveStrategy);
+    this.markdownRenderer = ThreadLocal.withInitial(
+        () -> new DirectMarkdownCommentRenderer(linkResolveStrategy)
+    );
+  }
+
+  @Override
+  public String getFormat() {
+    return FORMAT_VERSION + ";" + linkResolveStrategy.getClass().getName() + ";" + baseUrl;
+  }
+
+  @Override
+  public String render(JavadocElement element, Target target) {
+    return element.getComment()
+        .map(comment -> gson.toJson(RenderedComment.render(comment, getRenderer(target), baseUrl)))
+        .orElse(null);
+  }
+
+  /**
+   * Returns the rendered comment of an element, preferring the version pre-rendered into the
+   * storage.
+   *
+   * @param storage the storage the element was loaded from
+   * @param element the element to render the comment of
+   * @param target the format to render it in
+   * @return the rendered comment or an empty optional if the element has none
+   */
+  public Optional<RenderedComment> render(SqliteStorage storage, JavadocElement element,
+      Target target) {
+    Optional<JavadocComment> comment = element.getComment();
+    if (comment.isEmpty()) {
+      return Optional.empty();
+    }
+
+    Optional<String> stored = storage.findPreRenderedComment(
+        element.getQualifiedName(), target, getFormat()
+    );
+    if (stored.isPresent()) {
+      return Optional.of(gson.fromJson(stored.get(), RenderedComment.class));
+    }
+    return Optional.of(RenderedComment.render(comment.get(), getRenderer(target), baseUrl));
+  }
+
+  private CommentRenderer getRenderer(Target target) {
+    return target == Target.HTML ? htmlRenderer : markdownRenderer.get();
+  }
+}
@@ -0,0 +1,13 @@
+package de.ialistannen.javadocapi.rendering;
+
+/**
+ * Signals that some HTML uses a construct the {@link DirectMarkdownCommentRenderer} can not render
+ * exactly like the {@link MarkdownCommentRenderer} would.
+ */
+class UnsupportedHtmlException extends RuntimeException {
+
+  UnsupportedHtmlException(String message) {
+    // This is control flow for the fallback, so skip the stack trace
+    super(message, null, false, false);
+  }
+}
@@ -30,6 +30,9 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import spoon.reflect.code.BinaryOperatorKind;
 import spoon.reflect.code.CtBinaryOperator;
@@ -64,43 +67,101 @@ public class JavadocElementExtractor extends CtAbstractVisitor {
 
   private final JavadocParser parser;
   private final Collection<JavadocElement> foundElements;
+  private final BiConsumer<CtElement, JavadocElement> sink;
+  private final AtomicInteger foundCount;
   private final Cache<String, Collection<CtExecutableReference<?>>> executableCache;
 
+  /**
+   * Creates an extractor that collects all found elements, which can then be retrieved using
+   * {@link #getFoundElements()}.
+   */
   public JavadocElementExtractor() {
+    this(new ConcurrentLinkedQueue<>());
+  }
+
+  /**
+   * Creates an extractor that passes every found element to the given sink instead of collecting
+   * them. The sink is called from all threads visiting elements.
+   *
+   * @param sink the sink to pass elements to
+   */
+  public JavadocElementExtractor(Consumer<JavadocElement> sink) {
+    this(null, (source, element) -> sink.accept(element));
+  }
+
+  /**
+   * Creates an extractor that passes every found element together with the spoon element it was
+   * created from to the given sink. The sink is called from all threads visiting elements.
+   *
+   * @param sink the sink to pass elements to
+   */
+  public JavadocElementExtractor(BiConsumer<CtElement, JavadocElement> sink) {
+    this(null, sink);
+  }
+
+  private JavadocElementExtractor(Collection<JavadocElement> foundElements) {
+    this(foundElements, (source, element) -> foundElements.add(element));
+  }
+
+  private JavadocElementExtractor(Collection<JavadocElement> foundElements,
+      BiConsumer<CtElement, JavadocElement> sink) {
     this.executableCache = Caffeine.newBuilder()
         .maximumSize(5000)
         .build();
-    this.foundElements = new ConcurrentLinkedQueue<>();
+    this.foundElements = foundElements;
+    this.sink = sink;
+    this.foundCount = new AtomicInteger();
     this.parser = new JavadocParser(executableCache);
   }
 
+  /**
+   * @return all found elements. Always empty if the elements are passed to a sink.
+   */
   public List<JavadocElement> getFoundElements() {
+    if (foundElements == null) {
+      return List.of();
+    }
     return new ArrayList<>(foundElements);
   }
 
+  /**
+   * @return the amount of elements found so far
+   */
+  public int getFoundCount() {
+    return foundCount.get();
+  }
+
+  /**
+   * @return the parser used for javadoc comments
+   */
+  public JavadocParser getParser() {
+    return parser;
+  }
+
   @Override
   public <T> void visitCtInterface(CtInterface<T> ctInterface) {
-    foundElements.add(forCtType(ctInterface, Type.INTERFACE));
-    reportProgress();
+    addElement(ctInterface, forCtType(ctInterface, Type.INTERFACE));
     super.visitCtInterface(ctInterface);
   }
 
-  private void reportProgress() {
-    if (foundElements.size() % 1000 == 0) {
-      System.out.println(" Indexed " + foundElements.size() + " elements so far");
+  private void addElement(CtElement source, JavadocElement element) {
+    sink.accept(source, element);
+
+    int count = foundCount.incrementAndGet();
+    if (count % 1000 == 0) {
+      System.out.println(" Indexed " + count + " elements so far");
     }
   }
 
   @Override
   public <A extends Annotation> void visitCtAnnotationType(CtAnnotationType<A> annotationType) {
-    foundElements.add(forCtType(annotationType, Type.ANNOTATION));
-    reportProgress();
+    addElement(annotationType, forCtType(annotationType, Type.ANNOTATION));
     super.visitCtAnnotationType(annotationType);
   }
 
   @Override
   public <T> void visitCtEnumValue(CtEnumValue<T> enumValue) {
-    foundElements.add(new JavadocField(
+    addElement(enumValue, new JavadocField(
         new QualifiedName(
             enumValue.getDeclaringType().getQualifiedName() + "#" + enumValue.getSimpleName(),
             getModuleName(enumValue)
@@ -109,41 +170,36 @@ public class JavadocElementExtractor extends CtAbstractVisitor {
         getPossiblyGenericType(enumValue.getType()),
         getDirectComment(enumValue)
     ));
-    reportProgress();
     super.visitCtEnumValue(enumValue);
   }
 
   @Override
   public <T extends Enum<?>> void visitCtEnum(CtEnum<T> ctEnum) {
-    foundElements.add(forCtType(ctEnum, Type.ENUM));
-    reportProgress();
+    addElement(ctEnum, forCtType(ctEnum, Type.ENUM));
     super.visitCtEnum(ctEnum);
   }
 
   @Override
   public <T> void visitCtClass(CtClass<T> ctClass) {
-    foundElements.add(forCtType(ctClass, Type.CLASS));
-    reportProgress();
+    addElement(ctClass, forCtType(ctClass, Type.CLASS));
     super.visitCtClass(ctClass);
   }
 
   @Override
   public <T> void visitCtConstructor(CtConstructor<T> c) {
     handleExecutable(c, c, c);
-    reportProgress();
     super.visitCtConstructor(c);
   }
 
   @Override
   public <T> void visitCtMethod(CtMethod<T> m) {
     handleExecutable(m, m, m);
-    reportProgress();
     super.visitCtMethod(m);
   }
 
   @Override
   public <T> void visitCtField(CtField<T> f) {
-    foundElements.add(new JavadocField(
+    addElement(f, new JavadocField(
         new QualifiedName(
             f.getDeclaringType().getQualifiedName() + "#" + f.getSimpleName(),
             getModuleName(f.getDeclaringType())
@@ -152,7 +208,6 @@ public class JavadocElementExtractor extends CtAbstractVisitor {
         getPossiblyGenericType(f.getType()),
         getDirectComment(f)
     ));
-    reportProgress();
     super.visitCtField(f);
   }
 
@@ -172,7 +227,7 @@ public class JavadocElementExtractor extends CtAbstractVisitor {
         .map(it -> new QualifiedName(it.getQualifiedName(), getModuleName(it)))
         .collect(Collectors.toList());
 
-    foundElements.add(new JavadocMethod(
+    addElement(executable, new JavadocMethod(
         executableRefToQualifiedName(formalTypeDeclarer.getDeclaringType(),
             executable.getReference()),
         getPossiblyGenericType(executable.getType()),
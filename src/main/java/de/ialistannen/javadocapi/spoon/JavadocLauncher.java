@@ -1,8 +1,13 @@
 package de.ialistannen.javadocapi.spoon;
 
+import org.eclipse.jdt.internal.compiler.ast.AbstractVariableDeclaration;
 import org.eclipse.jdt.internal.compiler.ast.CompilationUnitDeclaration;
+import org.eclipse.jdt.internal.compiler.ast.ConstructorDeclaration;
+import org.eclipse.jdt.internal.compiler.ast.FieldDeclaration;
+import org.eclipse.jdt.internal.compiler.ast.Initializer;
 import org.eclipse.jdt.internal.compiler.ast.MethodDeclaration;
 import org.eclipse.jdt.internal.compiler.lookup.ClassScope;
+import org.eclipse.jdt.internal.compiler.lookup.MethodScope;
 import spoon.Launcher;
 import spoon.SpoonModelBuilder;
 import spoon.reflect.factory.Factory;
@@ -11,6 +16,12 @@ import spoon.support.compiler.jdt.JDTTreeBuilder;
 
 import java.util.Arrays;
 
+/**
+ * A launcher that only builds the parts of the AST needed for Javadoc: declarations, annotations
+ * and enum constants. Executable bodies, field initializers and initializer blocks are dropped
+ * before spoon converts them, which also drops any lambdas and anonymous classes inside them.
+ * JDT has already resolved everything at that point, so references stay intact.
+ */
 public class JavadocLauncher extends Launcher {
 
   @Override
@@ -31,6 +42,32 @@ public class JavadocLauncher extends Launcher {
           methodDeclaration.statements = null;
           return super.visit(methodDeclaration, scope);
         }
+
+        @Override
+        public boolean visit(ConstructorDeclaration constructorDeclaration, ClassScope scope) {
+          // avoid visiting constructor body, including this(...) and super(...) calls
+          constructorDeclaration.statements = null;
+          constructorDeclaration.constructorCall = null;
+          return super.visit(constructorDeclaration, scope);
+        }
+
+        @Override
+        public boolean visit(FieldDeclaration fieldDeclaration, MethodScope scope) {
+          // enum constants are part of the API and their arguments are short
+          if (fieldDeclaration.getKind() != AbstractVariableDeclaration.ENUM_CONSTANT) {
+            fieldDeclaration.initialization = null;
+          }
+          return super.visit(fieldDeclaration, scope);
+        }
+
+        @Override
+        public boolean visit(Initializer initializer, MethodScope scope) {
+          // keep the (empty) block, spoon expects every initializer to have one
+          if (initializer.block != null) {
+            initializer.block.statements = null;
+          }
+          return super.visit(initializer, scope);
+        }
       };
     }
 
@@ -3,6 +3,8 @@ package de.ialistannen.javadocapi.spoon;
 import static de.ialistannen.javadocapi.spoon.JavadocElementExtractor.getModuleName;
 
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import de.ialistannen.javadocapi.model.QualifiedName;
 import de.ialistannen.javadocapi.model.comment.JavadocComment;
 import de.ialistannen.javadocapi.model.comment.JavadocCommentFragment;
@@ -46,9 +48,36 @@ public class JavadocParser {
   );
 
   private final Cache<String, Collection<CtExecutableReference<?>>> cache;
+  // Links to the same types appear in every comment of a type, and resolving them walks all
+  // referenced types and imports
+  private final Cache<String, Optional<CtType<?>>> typeCache;
+  // Failed lookups are the expensive ones, as they fill in and throw a stack trace
+  private final Cache<String, Optional<Class<?>>> classCache;
 
   public JavadocParser(Cache<String, Collection<CtExecutableReference<?>>> executableCache) {
     this.cache = executableCache;
+    this.typeCache = Caffeine.newBuilder()
+        .maximumSize(100_000)
+        .recordStats()
+        .build();
+    this.classCache = Caffeine.newBuilder()
+        .maximumSize(20_000)
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * @return statistics about the cache for resolved type names
+   */
+  public CacheStats getTypeCacheStats() {
+    return typeCache.stats();
+  }
+
+  /**
+   * @return statistics about the cache for classes loaded via reflection
+   */
+  public CacheStats getClassCacheStats() {
+    return classCache.stats();
   }
 
   public JavadocComment fromCtJavadoc(CtJavaDoc javadoc) {
@@ -324,6 +353,20 @@ public class JavadocParser {
 
   private Optional<CtType<?>> qualifyType(CtJavaDoc element, String name) {
     CtType<?> parentType = element.getParent(CtType.class);
+
+    // The result only depends on the enclosing type (its references and package) and, failing
+    // that, on the compilation unit
+    String scope;
+    if (parentType != null) {
+      scope = getModuleName(parentType) + "/" + parentType.getQualifiedName();
+    } else {
+      scope = String.valueOf(element.getPosition().getCompilationUnit().getFile());
+    }
+
+    return typeCache.get(scope + " " + name, ignored -> computeType(element, parentType, name));
+  }
+
+  private Optional<CtType<?>> computeType(CtJavaDoc element, CtType<?> parentType, String name) {
     if (parentType != null && !name.isBlank()) {
       Optional<CtTypeReference<?>> type = parentType.getReferencedTypes()
           .stream()
@@ -404,10 +447,12 @@ public class JavadocParser {
   }
 
   private Optional<Class<?>> tryLoadClass(String name) {
-    try {
-      return Optional.of(Class.forName(name));
-    } catch (ClassNotFoundException e) {
-      return Optional.empty();
-    }
+    return classCache.get(name, ignored -> {
+      try {
+        return Optional.of(Class.forName(name));
+      } catch (ClassNotFoundException e) {
+        return Optional.empty();
+      }
+    });
   }
 }
@@ -0,0 +1,169 @@
+package de.ialistannen.javadocapi.spoon.filtering;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtPackage;
+import spoon.reflect.declaration.CtType;
+
+/**
+ * A {@link ModelProcessor} that splits the model into one task per package and type and runs them
+ * on a work-stealing {@link ForkJoinPool}. Everything below a type is processed by the task of the
+ * type, as members are too small to be worth their own task.
+ * <p>
+ * Wall clock and CPU time of the worker threads are accumulated over all calls to
+ * {@link #process(CtElement, Consumer)}.
+ */
+public class ForkJoinProcessor implements ModelProcessor {
+
+  private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+
+  private final FluentFilter filter;
+  private final ForkJoinPool pool;
+  private final int parallelism;
+  private final List<Thread> workers;
+
+  private Duration wallTime;
+  private Duration cpuTime;
+
+  public ForkJoinProcessor(FluentFilter filter, int parallelism) {
+    this.filter = filter;
+    this.parallelism = parallelism;
+    this.workers = new CopyOnWriteArrayList<>();
+    this.wallTime = Duration.ZERO;
+    this.cpuTime = Duration.ZERO;
+
+    this.pool = new ForkJoinPool(
+        parallelism,
+        pool -> {
+          ForkJoinWorkerThread thread = new ForkJoinWorkerThread(pool) {
+          };
+          thread.setDaemon(true);
+          workers.add(thread);
+          return thread;
+        },
+        null,
+        false
+    );
+  }
+
+  @Override
+  public void process(CtElement root, Consumer<CtElement> consumer) {
+    Map<Long, Long> cpuTimesBefore = readCpuTimes();
+    long start = System.nanoTime();
+
+    pool.invoke(new ProcessTask(root, consumer));
+
+    wallTime = wallTime.plusNanos(System.nanoTime() - start);
+
+    // Workers started during this run are not in the map and count from zero
+    for (Map.Entry<Long, Long> entry : readCpuTimes().entrySet()) {
+      long before = cpuTimesBefore.getOrDefault(entry.getKey(), 0L);
+      cpuTime = cpuTime.plusNanos(entry.getValue() - before);
+    }
+  }
+
+  private Map<Long, Long> readCpuTimes() {
+    Map<Long, Long> times = new HashMap<>();
+    if (!THREAD_BEAN.isThreadCpuTimeSupported()) {
+      return times;
+    }
+    for (Thread worker : workers) {
+      long time = THREAD_BEAN.getThreadCpuTime(worker.getId());
+      // -1 if the thread is no longer alive
+      if (time >= 0) {
+        times.put(worker.getId(), time);
+      }
+    }
+    return times;
+  }
+
+  /**
+   * @return the wall clock time spent in {@link #process(CtElement, Consumer)}
+   */
+  public Duration getWallTime() {
+    return wallTime;
+  }
+
+  /**
+   * @return the CPU time the worker threads spent in {@link #process(CtElement, Consumer)}. Zero
+   *     if the JVM does not support measuring it.
+   */
+  public Duration getCpuTime() {
+    return cpuTime;
+  }
+
+  /**
+   * @return the fraction of the available worker time spent on the CPU, in percent
+   */
+  public long getCpuUtilisationPercent() {
+    if (wallTime.isZero()) {
+      return 0;
+    }
+    return cpuTime.toNanos() * 100 / (wallTime.toNanos() * parallelism);
+  }
+
+  @Override
+  public void shutdown() {
+    pool.shutdown();
+  }
+
+  private class ProcessTask extends RecursiveAction {
+
+    private final CtElement root;
+    private final Consumer<CtElement> consumer;
+
+    private ProcessTask(CtElement root, Consumer<CtElement> consumer) {
+      this.root = root;
+      this.consumer = consumer;
+    }
+
+    @Override
+    protected void compute() {
+      List<ProcessTask> subtasks = new ArrayList<>();
+      Deque<CtElement> pending = new ArrayDeque<>();
+      pending.push(root);
+
+      while (!pending.isEmpty()) {
+        CtElement item = pending.pop();
+        if (!filter.keep(item)) {
+          continue;
+        }
+        try {
+          consumer.accept(item);
+        } catch (Exception e) {
+          System.err.println("Error in fork join worker");
+          e.printStackTrace();
+        }
+
+        for (CtElement child : item.getDirectChildren()) {
+          if (child instanceof CtPackage || child instanceof CtType) {
+            ProcessTask subtask = new ProcessTask(child, consumer);
+            subtask.fork();
+            subtasks.add(subtask);
+          } else {
+            pending.push(child);
+          }
+        }
+      }
+
+      // Blocks until the whole subtree is done, so the root task terminates last. Joining the most
+      // recently forked tasks first lets this thread run the ones nobody has stolen yet.
+      for (int i = subtasks.size() - 1; i >= 0; i--) {
+        subtasks.get(i).join();
+      }
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package de.ialistannen.javadocapi.spoon.filtering;
+
+import java.util.function.Consumer;
+import spoon.reflect.declaration.CtElement;
+
+/**
+ * Walks a spoon model and passes every element accepted by a {@link FluentFilter} to a consumer.
+ * Rejected elements are not descended into.
+ */
+public interface ModelProcessor {
+
+  /**
+   * Processes the tree below (and including) the given root. Returns once every element has been
+   * passed to the consumer. The consumer might be called from multiple threads at once.
+   *
+   * @param root the root element
+   * @param consumer the consumer to pass all kept elements to
+   */
+  void process(CtElement root, Consumer<CtElement> consumer);
+
+  /**
+   * Releases all resources held by this processor.
+   */
+  void shutdown();
+}
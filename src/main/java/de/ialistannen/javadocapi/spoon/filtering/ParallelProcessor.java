@@ -13,7 +13,7 @@ import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import spoon.reflect.declaration.CtElement;
 
-public class ParallelProcessor {
+public class ParallelProcessor implements ModelProcessor {
 
   private final FluentFilter filter;
   private final ExecutorService pool;
@@ -30,6 +30,7 @@ public class ParallelProcessor {
     });
   }
 
+  @Override
   public void process(CtElement root, Consumer<CtElement> consumer) {
     CyclicBarrier barrier = new CyclicBarrier(parallelism);
     LinkedBlockingDeque<CtElement> workQueue = new LinkedBlockingDeque<>();
@@ -73,6 +74,7 @@ public class ParallelProcessor {
     }
   }
 
+  @Override
   public void shutdown() {
     pool.shutdown();
   }
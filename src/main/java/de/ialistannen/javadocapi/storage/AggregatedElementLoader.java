@@ -3,54 +3,138 @@ package de.ialistannen.javadocapi.storage;
 import de.ialistannen.javadocapi.model.JavadocElement;
 import de.ialistannen.javadocapi.model.QualifiedName;
 import de.ialistannen.javadocapi.model.types.JavadocType;
+import de.ialistannen.javadocapi.model.types.JavadocTypeSummary;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * A {@link ElementLoader} that delegates to one or more other APIs and aggregates the results.
+ * <p>
+ * By default all APIs are queried one after another. If an executor is given, they are queried
+ * concurrently instead and APIs that fail or do not answer before the shared deadline are left out
+ * of the result. In both modes results are returned in the order of the APIs.
  */
 public class AggregatedElementLoader implements ElementLoader {
 
   private final List<ElementLoader> apis;
+  private final Executor executor;
+  private final Duration timeout;
 
   public AggregatedElementLoader(List<ElementLoader> apis) {
     this.apis = apis;
+    this.executor = null;
+    this.timeout = null;
+  }
+
+  /**
+   * Creates a new loader that queries all APIs concurrently.
+   *
+   * @param apis the apis to delegate to
+   * @param executor the executor to run the queries on. Needs at least as many threads as there
+   *     are APIs to query them all at once.
+   * @param timeout the deadline for all APIs together, counted from the start of a query. Results
+   *     of APIs that did not answer in time are left out, but their queries are not interrupted
+   *     and keep their executor thread until they finish.
+   */
+  public AggregatedElementLoader(List<ElementLoader> apis, Executor executor, Duration timeout) {
+    this.apis = apis;
+    this.executor = Objects.requireNonNull(executor, "executor");
+    this.timeout = Objects.requireNonNull(timeout, "timeout");
   }
 
   @Override
   public Collection<LoadResult<JavadocElement>> findAll() {
-    return apis.stream()
-        .map(ElementLoader::findAll)
-        .flatMap(Collection::stream)
-        .collect(Collectors.toList());
+    return fanOut(ElementLoader::findAll);
   }
 
   @Override
   public Collection<LoadResult<JavadocType>> findClassByName(String name) {
-    return apis.stream()
-        .flatMap(it -> it.findClassByName(name).stream())
-        .collect(Collectors.toList());
+    return fanOut(it -> it.findClassByName(name));
+  }
+
+  @Override
+  public Collection<LoadResult<JavadocTypeSummary>> findClassSummariesByName(String name) {
+    return fanOut(it -> it.findClassSummariesByName(name));
+  }
+
+  @Override
+  public Collection<LoadResult<QualifiedName>> findMembersByName(String className,
+      String memberName) {
+    return fanOut(it -> it.findMembersByName(className, memberName));
   }
 
   @Override
   public Collection<LoadResult<JavadocElement>> findElementByName(String name) {
-    return apis.stream()
-        .flatMap(it -> it.findElementByName(name).stream())
-        .collect(Collectors.toList());
+    return fanOut(it -> it.findElementByName(name));
+  }
+
+  @Override
+  public Collection<LoadResult<QualifiedName>> findBestElementNames(String name,
+      NameScorer scorer, int limit) {
+    // Every API returns its best elements, the best of those are the overall best
+    List<LoadResult<QualifiedName>> candidates = fanOut(
+        it -> it.findBestElementNames(name, scorer, limit)
+    );
+
+    TopK<LoadResult<QualifiedName>> best = new TopK<>(limit);
+    for (LoadResult<QualifiedName> candidate : candidates) {
+      best.offer(candidate, scorer.score(candidate.getResult()));
+    }
+    return best.toList();
   }
 
   @Override
   public Collection<LoadResult<JavadocElement>> findByQualifiedName(QualifiedName name) {
-    return apis.stream()
-        .flatMap(loader -> loader.findByQualifiedName(name).stream())
-        .collect(Collectors.toList());
+    return fanOut(loader -> loader.findByQualifiedName(name));
   }
 
   @Override
   public Collection<String> autocomplete(String prompt) {
-    return apis.stream()
-        .flatMap(it -> it.autocomplete(prompt).stream())
+    return fanOut(it -> it.autocomplete(prompt));
+  }
+
+  private <T> List<T> fanOut(Function<ElementLoader, Collection<T>> query) {
+    if (executor == null) {
+      return apis.stream()
+          .flatMap(it -> query.apply(it).stream())
+          .collect(Collectors.toList());
+    }
+
+    List<CompletableFuture<Collection<T>>> futures = apis.stream()
+        .map(api -> CompletableFuture.supplyAsync(() -> query.apply(api), executor))
         .collect(Collectors.toList());
+
+    // All APIs run at the same time, so they share a single deadline
+    long deadline = System.nanoTime() + timeout.toNanos();
+    List<T> results = new ArrayList<>();
+
+    for (int index = 0; index < futures.size(); index++) {
+      CompletableFuture<Collection<T>> future = futures.get(index);
+      try {
+        long remaining = Math.max(0, deadline - System.nanoTime());
+        results.addAll(future.get(remaining, TimeUnit.NANOSECONDS));
+      } catch (TimeoutException e) {
+        // The query keeps running, its result is just ignored
+        System.err.println("Element loader did not answer in time: " + apis.get(index));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new FetchException(e);
+      } catch (ExecutionException e) {
+        // One broken API should not hide the results of the others
+        System.err.println("Element loader " + apis.get(index) + " failed: " + e.getCause());
+      }
+    }
+
+    return results;
   }
 }
@@ -0,0 +1,132 @@
+package de.ialistannen.javadocapi.storage;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import de.ialistannen.javadocapi.model.QualifiedName;
+import de.ialistannen.javadocapi.model.types.AnnotationValue;
+import de.ialistannen.javadocapi.model.types.AnnotationValue.ListAnnotationValue;
+import de.ialistannen.javadocapi.model.types.AnnotationValue.PrimitiveAnnotationValue;
+import de.ialistannen.javadocapi.model.types.AnnotationValue.QualifiedAnnotationValue;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes primitive {@link AnnotationValue}s as strings, qualified ones as {@code {"name": ...}}
+ * and lists as arrays.
+ * <p>
+ * Values directly inside a list are written like their class instead, i.e. primitives as
+ * {@code {"value": ...}} and lists as {@code {"values": [...]}} with normally written elements.
+ * This keeps the format the tree based serializer produced and is understood when reading.
+ */
+class AnnotationValueTypeAdapter extends TypeAdapter<AnnotationValue> {
+
+  private final TypeAdapter<QualifiedName> qualifiedNames;
+
+  /**
+   * @param qualifiedNames the adapter for the names of qualified values
+   */
+  AnnotationValueTypeAdapter(TypeAdapter<QualifiedName> qualifiedNames) {
+    this.qualifiedNames = qualifiedNames;
+  }
+
+  @Override
+  public void write(JsonWriter out, AnnotationValue value) throws IOException {
+    if (value instanceof PrimitiveAnnotationValue) {
+      out.value(((PrimitiveAnnotationValue) value).getValue());
+    } else if (value instanceof QualifiedAnnotationValue) {
+      writeQualified(out, (QualifiedAnnotationValue) value);
+    } else if (value instanceof ListAnnotationValue) {
+      out.beginArray();
+      for (AnnotationValue element : ((ListAnnotationValue) value).getValues()) {
+        writeListElement(out, element);
+      }
+      out.endArray();
+    } else {
+      throw new IllegalArgumentException("Unknown annotation value " + value);
+    }
+  }
+
+  private void writeListElement(JsonWriter out, AnnotationValue value) throws IOException {
+    if (value == null) {
+      out.nullValue();
+    } else if (value instanceof PrimitiveAnnotationValue) {
+      out.beginObject();
+      out.name("value").value(((PrimitiveAnnotationValue) value).getValue());
+      out.endObject();
+    } else if (value instanceof QualifiedAnnotationValue) {
+      writeQualified(out, (QualifiedAnnotationValue) value);
+    } else if (value instanceof ListAnnotationValue) {
+      out.beginObject();
+      out.name("values").beginArray();
+      for (AnnotationValue element : ((ListAnnotationValue) value).getValues()) {
+        write(out, element);
+      }
+      out.endArray();
+      out.endObject();
+    } else {
+      throw new IllegalArgumentException("Unknown annotation value " + value);
+    }
+  }
+
+  private void writeQualified(JsonWriter out, QualifiedAnnotationValue value) throws IOException {
+    out.beginObject();
+    out.name("name");
+    qualifiedNames.write(out, value.getName());
+    out.endObject();
+  }
+
+  @Override
+  public AnnotationValue read(JsonReader in) throws IOException {
+    JsonToken token = in.peek();
+    if (token == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    if (token == JsonToken.BEGIN_ARRAY) {
+      return readList(in);
+    }
+    if (token == JsonToken.BEGIN_OBJECT) {
+      return readObject(in);
+    }
+    if (token == JsonToken.BOOLEAN) {
+      return new PrimitiveAnnotationValue(String.valueOf(in.nextBoolean()));
+    }
+    return new PrimitiveAnnotationValue(in.nextString());
+  }
+
+  private AnnotationValue readList(JsonReader in) throws IOException {
+    List<AnnotationValue> values = new ArrayList<>();
+
+    in.beginArray();
+    while (in.hasNext()) {
+      values.add(read(in));
+    }
+    in.endArray();
+
+    return new ListAnnotationValue(values);
+  }
+
+  private AnnotationValue readObject(JsonReader in) throws IOException {
+    AnnotationValue result = null;
+    QualifiedName name = null;
+
+    in.beginObject();
+    while (in.hasNext()) {
+      switch (in.nextName()) {
+        case "name" -> name = qualifiedNames.read(in);
+        case "value" -> result = read(in);
+        case "values" -> result = read(in);
+        default -> in.skipValue();
+      }
+    }
+    in.endObject();
+
+    if (result != null) {
+      return result;
+    }
+    return new QualifiedAnnotationValue(name);
+  }
+}
@@ -0,0 +1,573 @@
+package de.ialistannen.javadocapi.storage;
+
+import de.ialistannen.javadocapi.model.JavadocElement;
+import de.ialistannen.javadocapi.model.JavadocElement.DeclarationStyle;
+import de.ialistannen.javadocapi.model.QualifiedName;
+import de.ialistannen.javadocapi.model.comment.JavadocComment;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentFragment;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentInlineTag;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentLink;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentTag;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentText;
+import de.ialistannen.javadocapi.model.types.AnnotationValue;
+import de.ialistannen.javadocapi.model.types.AnnotationValue.ListAnnotationValue;
+import de.ialistannen.javadocapi.model.types.AnnotationValue.PrimitiveAnnotationValue;
+import de.ialistannen.javadocapi.model.types.AnnotationValue.QualifiedAnnotationValue;
+import de.ialistannen.javadocapi.model.types.JavadocAnnotation;
+import de.ialistannen.javadocapi.model.types.JavadocField;
+import de.ialistannen.javadocapi.model.types.JavadocMethod;
+import de.ialistannen.javadocapi.model.types.JavadocMethod.Parameter;
+import de.ialistannen.javadocapi.model.types.JavadocType;
+import de.ialistannen.javadocapi.model.types.JavadocTypeParameter;
+import de.ialistannen.javadocapi.model.types.JavadocTypeSummary;
+import de.ialistannen.javadocapi.model.types.PossiblyGenericType;
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * A compact binary encoding for {@link JavadocElement}s.
+ * <p>
+ * An encoded element starts with the {@link #FORMAT_VERSION format version} byte, followed by a
+ * string table and the element itself. Qualified names, module names, modifiers and type
+ * parameters are stored once in the string table and referenced by their index afterwards, as they
+ * repeat a lot within a single element. All numbers are unsigned LEB128 varints.
+ * <p>
+ * The name, kind and members of a type are written first, so they can be read without decoding
+ * the rest of the element.
+ * <p>
+ * <em>Any change to the layout (including reordering enum constants) requires a new format
+ * version.</em> Data of other versions is rejected. Version bytes are always below {@code '{'}, so
+ * binary elements can not be mistaken for JSON ones.
+ */
+public class BinaryElementCodec {
+
+  /**
+   * The current version of the format. Also the first byte of every encoded element.
+   */
+  public static final byte FORMAT_VERSION = 1;
+
+  private static final int KIND_TYPE = 0;
+  private static final int KIND_METHOD = 1;
+  private static final int KIND_FIELD = 2;
+
+  private static final int FRAGMENT_TEXT = 0;
+  private static final int FRAGMENT_INLINE_TAG = 1;
+  private static final int FRAGMENT_LINK = 2;
+
+  private static final int ANNOTATION_VALUE_PRIMITIVE = 0;
+  private static final int ANNOTATION_VALUE_QUALIFIED = 1;
+  private static final int ANNOTATION_VALUE_LIST = 2;
+
+  /**
+   * Encodes the given element.
+   *
+   * @param element the element to encode
+   * @return the encoded element
+   * @throws IllegalArgumentException if the element type is not known
+   */
+  public byte[] encode(JavadocElement element) {
+    Writer body = new Writer();
+
+    if (element instanceof JavadocType) {
+      body.writeVarInt(KIND_TYPE);
+      writeType(body, (JavadocType) element);
+    } else if (element instanceof JavadocMethod) {
+      body.writeVarInt(KIND_METHOD);
+      writeMethod(body, (JavadocMethod) element);
+    } else if (element instanceof JavadocField) {
+      body.writeVarInt(KIND_FIELD);
+      writeField(body, (JavadocField) element);
+    } else {
+      throw new IllegalArgumentException("Unknown element type " + element);
+    }
+
+    Writer result = new Writer();
+    result.output.write(FORMAT_VERSION);
+    result.writeVarInt(body.stringTable.size());
+    for (String string : body.stringTable.keySet()) {
+      result.writeString(string);
+    }
+    result.output.writeBytes(body.output.toByteArray());
+
+    return result.output.toByteArray();
+  }
+
+  /**
+   * Decodes an element previously encoded by {@link #encode(JavadocElement)}.
+   *
+   * @param data the encoded data
+   * @return the decoded element
+   * @throws IllegalArgumentException if the data has an unknown format version or is corrupt
+   */
+  public JavadocElement decode(byte[] data) {
+    try {
+      Reader reader = new Reader(data);
+
+      return switch (reader.readVarInt()) {
+        case KIND_TYPE -> readType(reader);
+        case KIND_METHOD -> readMethod(reader);
+        case KIND_FIELD -> readField(reader);
+        default -> throw new IllegalArgumentException("Unknown element kind");
+      };
+    } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+      throw new IllegalArgumentException("Corrupt binary element", e);
+    }
+  }
+
+  /**
+   * Decodes only the summary of a type previously encoded by {@link #encode(JavadocElement)}. The
+   * rest of the type is not read.
+   *
+   * @param data the encoded data
+   * @return the decoded summary
+   * @throws IllegalArgumentException if the data is corrupt or not a type
+   */
+  public JavadocTypeSummary decodeTypeSummary(byte[] data) {
+    try {
+      Reader reader = new Reader(data);
+
+      if (reader.readVarInt() != KIND_TYPE) {
+        throw new IllegalArgumentException("Element is no type");
+      }
+      QualifiedName name = reader.readName();
+      JavadocType.Type type = JavadocType.Type.values()[reader.readVarInt()];
+
+      return new JavadocTypeSummary(name, type, readMembers(reader));
+    } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+      throw new IllegalArgumentException("Corrupt binary element", e);
+    }
+  }
+
+  /**
+   * Checks whether the given data was written by this codec, in any version. JSON elements always
+   * start with {@code '{'}, which is never a version byte.
+   *
+   * @param data the data to check
+   * @return true if the data is a binary element
+   */
+  public static boolean isBinaryElement(byte[] data) {
+    return data.length > 0 && data[0] != '{';
+  }
+
+  private void writeType(Writer writer, JavadocType type) {
+    writer.writeName(type.getQualifiedName());
+    writer.writeVarInt(type.getType().ordinal());
+    writer.writeVarInt(type.getMembers().size());
+    for (QualifiedName member : type.getMembers()) {
+      writer.writeName(member);
+    }
+    writeTableStrings(writer, type.getModifiers());
+    writeComment(writer, type.getComment().orElse(null));
+    writeAnnotations(writer, type.getAnnotations());
+    writeTypeParameters(writer, type.getTypeParameters());
+    writer.writeVarInt(type.getSuperInterfaces().size());
+    for (PossiblyGenericType superInterface : type.getSuperInterfaces()) {
+      writeGenericType(writer, superInterface);
+    }
+    writer.writeBoolean(type.getSuperClass() != null);
+    if (type.getSuperClass() != null) {
+      writeGenericType(writer, type.getSuperClass());
+    }
+  }
+
+  private JavadocType readType(Reader reader) {
+    QualifiedName name = reader.readName();
+    JavadocType.Type type = JavadocType.Type.values()[reader.readVarInt()];
+    List<QualifiedName> members = readMembers(reader);
+    List<String> modifiers = readTableStrings(reader);
+    JavadocComment comment = readComment(reader);
+    List<JavadocAnnotation> annotations = readAnnotations(reader);
+    List<JavadocTypeParameter> typeParameters = readTypeParameters(reader);
+    int superInterfaceCount = reader.readVarInt();
+    List<PossiblyGenericType> superInterfaces = new ArrayList<>(superInterfaceCount);
+    for (int i = 0; i < superInterfaceCount; i++) {
+      superInterfaces.add(readGenericType(reader));
+    }
+    PossiblyGenericType superClass = reader.readBoolean() ? readGenericType(reader) : null;
+
+    return new JavadocType(
+        name, modifiers, members, comment, annotations, typeParameters, type, superInterfaces,
+        superClass
+    );
+  }
+
+  private List<QualifiedName> readMembers(Reader reader) {
+    int memberCount = reader.readVarInt();
+    List<QualifiedName> members = new ArrayList<>(memberCount);
+    for (int i = 0; i < memberCount; i++) {
+      members.add(reader.readName());
+    }
+    return members;
+  }
+
+  private void writeMethod(Writer writer, JavadocMethod method) {
+    writer.writeName(method.getQualifiedName());
+    writeGenericType(writer, method.getReturnType());
+    writeTableStrings(writer, method.getModifiers());
+    writer.writeVarInt(method.getParameters().size());
+    for (Parameter parameter : method.getParameters()) {
+      writeGenericType(writer, parameter.getType());
+      writer.writeString(parameter.getName());
+    }
+    writer.writeVarInt(method.getThrownTypes().size());
+    for (QualifiedName thrownType : method.getThrownTypes()) {
+      writer.writeName(thrownType);
+    }
+    writeAnnotations(writer, method.getAnnotations());
+    writeTypeParameters(writer, method.getTypeParameters());
+    writeComment(writer, method.getComment().orElse(null));
+  }
+
+  private JavadocMethod readMethod(Reader reader) {
+    QualifiedName name = reader.readName();
+    PossiblyGenericType returnType = readGenericType(reader);
+    List<String> modifiers = readTableStrings(reader);
+    int parameterCount = reader.readVarInt();
+    List<Parameter> parameters = new ArrayList<>(parameterCount);
+    for (int i = 0; i < parameterCount; i++) {
+      parameters.add(new Parameter(readGenericType(reader), reader.readString()));
+    }
+    int thrownTypeCount = reader.readVarInt();
+    List<QualifiedName> thrownTypes = new ArrayList<>(thrownTypeCount);
+    for (int i = 0; i < thrownTypeCount; i++) {
+      thrownTypes.add(reader.readName());
+    }
+    List<JavadocAnnotation> annotations = readAnnotations(reader);
+    List<JavadocTypeParameter> typeParameters = readTypeParameters(reader);
+    JavadocComment comment = readComment(reader);
+
+    return new JavadocMethod(
+        name, returnType, modifiers, parameters, thrownTypes, annotations, typeParameters, comment
+    );
+  }
+
+  private void writeField(Writer writer, JavadocField field) {
+    writer.writeName(field.getQualifiedName());
+    writeTableStrings(writer, field.getModifiers());
+    writeGenericType(writer, field.getType());
+    writeComment(writer, field.getComment().orElse(null));
+  }
+
+  private JavadocField readField(Reader reader) {
+    QualifiedName name = reader.readName();
+    List<String> modifiers = readTableStrings(reader);
+    PossiblyGenericType type = readGenericType(reader);
+    JavadocComment comment = readComment(reader);
+
+    return new JavadocField(name, modifiers, type, comment);
+  }
+
+  private void writeComment(Writer writer, JavadocComment comment) {
+    writer.writeBoolean(comment != null);
+    if (comment == null) {
+      return;
+    }
+    writer.writeVarInt(comment.getTags().size());
+    for (JavadocCommentTag tag : comment.getTags()) {
+      writer.writeTableString(tag.getTagName());
+      writer.writeNullableString(tag.getArgument().orElse(null));
+      writeFragments(writer, tag.getContent());
+    }
+    writeFragments(writer, comment.getContent());
+  }
+
+  private JavadocComment readComment(Reader reader) {
+    if (!reader.readBoolean()) {
+      return null;
+    }
+    int tagCount = reader.readVarInt();
+    List<JavadocCommentTag> tags = new ArrayList<>(tagCount);
+    for (int i = 0; i < tagCount; i++) {
+      tags.add(new JavadocCommentTag(
+          reader.readTableString(),
+          reader.readNullableString(),
+          readFragments(reader)
+      ));
+    }
+
+    return new JavadocComment(tags, readFragments(reader));
+  }
+
+  private void writeFragments(Writer writer, List<JavadocCommentFragment> fragments) {
+    writer.writeVarInt(fragments.size());
+    for (JavadocCommentFragment fragment : fragments) {
+      if (fragment instanceof JavadocCommentLink) {
+        JavadocCommentLink link = (JavadocCommentLink) fragment;
+        writer.writeVarInt(FRAGMENT_LINK);
+        writer.writeName(link.getTarget());
+        writer.writeNullableString(link.getLabel().orElse(null));
+        writer.writeBoolean(link.isPlain());
+      } else if (fragment instanceof JavadocCommentInlineTag) {
+        JavadocCommentInlineTag tag = (JavadocCommentInlineTag) fragment;
+        writer.writeVarInt(FRAGMENT_INLINE_TAG);
+        writer.writeVarInt(tag.getType() == null ? 0 : tag.getType().ordinal() + 1);
+        writer.writeNullableString(tag.getArgument().orElse(null));
+      } else if (fragment instanceof JavadocCommentText) {
+        writer.writeVarInt(FRAGMENT_TEXT);
+        writer.writeString(((JavadocCommentText) fragment).getText());
+      } else {
+        throw new IllegalArgumentException("Unknown fragment type " + fragment);
+      }
+    }
+  }
+
+  private List<JavadocCommentFragment> readFragments(Reader reader) {
+    int count = reader.readVarInt();
+    List<JavadocCommentFragment> fragments = new ArrayList<>(count);
+
+    for (int i = 0; i < count; i++) {
+      switch (reader.readVarInt()) {
+        case FRAGMENT_LINK -> fragments.add(new JavadocCommentLink(
+            reader.readName(),
+            reader.readNullableString(),
+            reader.readBoolean()
+        ));
+        case FRAGMENT_INLINE_TAG -> {
+          int typeIndex = reader.readVarInt();
+          fragments.add(new JavadocCommentInlineTag(
+              typeIndex == 0 ? null : JavadocCommentInlineTag.Type.values()[typeIndex - 1],
+              reader.readNullableString()
+          ));
+        }
+        case FRAGMENT_TEXT -> fragments.add(new JavadocCommentText(reader.readString()));
+        default -> throw new IllegalArgumentException("Unknown fragment type");
+      }
+    }
+
+    return fragments;
+  }
+
+  private void writeAnnotations(Writer writer, List<JavadocAnnotation> annotations) {
+    writer.writeVarInt(annotations.size());
+    for (JavadocAnnotation annotation : annotations) {
+      writer.writeName(annotation.getType());
+      writer.writeVarInt(annotation.getValues().size());
+      for (Entry<String, AnnotationValue> entry : annotation.getValues().entrySet()) {
+        writer.writeTableString(entry.getKey());
+        writeAnnotationValue(writer, entry.getValue());
+      }
+    }
+  }
+
+  private List<JavadocAnnotation> readAnnotations(Reader reader) {
+    int count = reader.readVarInt();
+    List<JavadocAnnotation> annotations = new ArrayList<>(count);
+
+    for (int i = 0; i < count; i++) {
+      QualifiedName type = reader.readName();
+      int valueCount = reader.readVarInt();
+      Map<String, AnnotationValue> values = new LinkedHashMap<>();
+      for (int j = 0; j < valueCount; j++) {
+        values.put(reader.readTableString(), readAnnotationValue(reader));
+      }
+      annotations.add(new JavadocAnnotation(type, values));
+    }
+
+    return annotations;
+  }
+
+  private void writeAnnotationValue(Writer writer, AnnotationValue value) {
+    if (value instanceof PrimitiveAnnotationValue) {
+      writer.writeVarInt(ANNOTATION_VALUE_PRIMITIVE);
+      writer.writeString(((PrimitiveAnnotationValue) value).getValue());
+    } else if (value instanceof QualifiedAnnotationValue) {
+      writer.writeVarInt(ANNOTATION_VALUE_QUALIFIED);
+      writer.writeName(((QualifiedAnnotationValue) value).getName());
+    } else if (value instanceof ListAnnotationValue) {
+      List<AnnotationValue> values = ((ListAnnotationValue) value).getValues();
+      writer.writeVarInt(ANNOTATION_VALUE_LIST);
+      writer.writeVarInt(values.size());
+      for (AnnotationValue annotationValue : values) {
+        writeAnnotationValue(writer, annotationValue);
+      }
+    } else {
+      throw new IllegalArgumentException("Unknown annotation value " + value);
+    }
+  }
+
+  private AnnotationValue readAnnotationValue(Reader reader) {
+    return switch (reader.readVarInt()) {
+      case ANNOTATION_VALUE_PRIMITIVE -> new PrimitiveAnnotationValue(reader.readString());
+      case ANNOTATION_VALUE_QUALIFIED -> new QualifiedAnnotationValue(reader.readName());
+      case ANNOTATION_VALUE_LIST -> {
+        int count = reader.readVarInt();
+        List<AnnotationValue> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+          values.add(readAnnotationValue(reader));
+        }
+        yield new ListAnnotationValue(values);
+      }
+      default -> throw new IllegalArgumentException("Unknown annotation value type");
+    };
+  }
+
+  private void writeGenericType(Writer writer, PossiblyGenericType type) {
+    writer.writeName(type.getType());
+    writeTypeParameters(writer, type.getParameters());
+  }
+
+  private PossiblyGenericType readGenericType(Reader reader) {
+    return new PossiblyGenericType(reader.readName(), readTypeParameters(reader));
+  }
+
+  private void writeTypeParameters(Writer writer, List<JavadocTypeParameter> parameters) {
+    writer.writeVarInt(parameters.size());
+    for (JavadocTypeParameter parameter : parameters) {
+      writer.writeTableString(parameter.getDeclaration(DeclarationStyle.QUALIFIED));
+    }
+  }
+
+  private List<JavadocTypeParameter> readTypeParameters(Reader reader) {
+    int count = reader.readVarInt();
+    List<JavadocTypeParameter> parameters = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      parameters.add(new JavadocTypeParameter(reader.readTableString()));
+    }
+    return parameters;
+  }
+
+  private void writeTableStrings(Writer writer, List<String> strings) {
+    writer.writeVarInt(strings.size());
+    for (String string : strings) {
+      writer.writeTableString(string);
+    }
+  }
+
+  private List<String> readTableStrings(Reader reader) {
+    int count = reader.readVarInt();
+    List<String> strings = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      strings.add(reader.readTableString());
+    }
+    return strings;
+  }
+
+  private static class Writer {
+
+    private final ByteArrayOutputStream output;
+    private final Map<String, Integer> stringTable;
+
+    private Writer() {
+      this.output = new ByteArrayOutputStream();
+      // Insertion order is the index order
+      this.stringTable = new LinkedHashMap<>();
+    }
+
+    void writeVarInt(int value) {
+      while ((value & ~0x7F) != 0) {
+        output.write((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      output.write(value);
+    }
+
+    void writeBoolean(boolean value) {
+      output.write(value ? 1 : 0);
+    }
+
+    void writeString(String value) {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(bytes.length);
+      output.writeBytes(bytes);
+    }
+
+    void writeNullableString(String value) {
+      if (value == null) {
+        writeVarInt(0);
+        return;
+      }
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(bytes.length + 1);
+      output.writeBytes(bytes);
+    }
+
+    void writeTableString(String value) {
+      writeVarInt(tableIndex(value));
+    }
+
+    void writeName(QualifiedName name) {
+      writeTableString(name.asString());
+      // 0 is reserved for "no module"
+      writeVarInt(name.getModuleName().map(this::tableIndex).map(it -> it + 1).orElse(0));
+    }
+
+    private int tableIndex(String value) {
+      return stringTable.computeIfAbsent(value, ignored -> stringTable.size());
+    }
+  }
+
+  private static class Reader {
+
+    private final ByteBuffer buffer;
+    private final String[] stringTable;
+
+    private Reader(byte[] data) {
+      this.buffer = ByteBuffer.wrap(data);
+
+      if (!buffer.hasRemaining()) {
+        throw new IllegalArgumentException("Empty binary element");
+      }
+      byte version = buffer.get();
+      if (version != FORMAT_VERSION) {
+        throw new IllegalArgumentException("Unsupported element format version " + version);
+      }
+      this.stringTable = new String[readVarInt()];
+      for (int i = 0; i < stringTable.length; i++) {
+        stringTable[i] = readString();
+      }
+    }
+
+    int readVarInt() {
+      int result = 0;
+      int shift = 0;
+      byte current;
+      do {
+        current = buffer.get();
+        result |= (current & 0x7F) << shift;
+        shift += 7;
+      } while ((current & 0x80) != 0);
+      return result;
+    }
+
+    boolean readBoolean() {
+      return buffer.get() != 0;
+    }
+
+    String readString() {
+      return readUtf8(readVarInt());
+    }
+
+    String readNullableString() {
+      int length = readVarInt();
+      if (length == 0) {
+        return null;
+      }
+      return readUtf8(length - 1);
+    }
+
+    private String readUtf8(int length) {
+      String result = new String(
+          buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8
+      );
+      buffer.position(buffer.position() + length);
+      return result;
+    }
+
+    String readTableString() {
+      return stringTable[readVarInt()];
+    }
+
+    QualifiedName readName() {
+      String text = readTableString();
+      int moduleIndex = readVarInt();
+      return QualifiedName.of(text, moduleIndex == 0 ? null : stringTable[moduleIndex - 1]);
+    }
+  }
+}
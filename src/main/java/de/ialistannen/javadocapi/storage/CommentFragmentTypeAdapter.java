@@ -0,0 +1,159 @@
+package de.ialistannen.javadocapi.storage;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import de.ialistannen.javadocapi.model.QualifiedName;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentFragment;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentInlineTag;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentLink;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentText;
+import java.io.IOException;
+
+/**
+ * Writes {@link JavadocCommentFragment}s as {@code {"type": "TEXT", "value": {...}}}, where the
+ * value contains the fields of the fragment class.
+ * <p>
+ * This is the format a reflective {@link com.google.gson.Gson} produced for the value, including
+ * link targets being objects instead of {@code "module/name"} strings.
+ */
+class CommentFragmentTypeAdapter extends TypeAdapter<JavadocCommentFragment> {
+
+  @Override
+  public void write(JsonWriter out, JavadocCommentFragment fragment) throws IOException {
+    out.beginObject();
+    out.name("type");
+
+    if (fragment instanceof JavadocCommentLink) {
+      JavadocCommentLink link = (JavadocCommentLink) fragment;
+      out.value("LINK");
+      out.name("value").beginObject();
+      out.name("label").value(link.getLabel().orElse(null));
+      out.name("target");
+      writeTarget(out, link.getTarget());
+      out.name("plain").value(link.isPlain());
+      writeInlineTagFields(out, link);
+      out.endObject();
+    } else if (fragment instanceof JavadocCommentInlineTag) {
+      out.value("INLINE_TAG");
+      out.name("value").beginObject();
+      writeInlineTagFields(out, (JavadocCommentInlineTag) fragment);
+      out.endObject();
+    } else if (fragment instanceof JavadocCommentText) {
+      out.value("TEXT");
+      out.name("value").beginObject();
+      out.name("text").value(((JavadocCommentText) fragment).getText());
+      out.endObject();
+    } else {
+      throw new IllegalArgumentException("Unknown fragment type " + fragment);
+    }
+
+    out.endObject();
+  }
+
+  private void writeInlineTagFields(JsonWriter out, JavadocCommentInlineTag tag)
+      throws IOException {
+    out.name("type").value(tag.getType() == null ? null : tag.getType().name());
+    out.name("argument").value(tag.getArgument().orElse(null));
+  }
+
+  private void writeTarget(JsonWriter out, QualifiedName target) throws IOException {
+    if (target == null) {
+      out.nullValue();
+      return;
+    }
+    out.beginObject();
+    out.name("asText").value(target.asString());
+    out.name("moduleName").value(target.getModuleName().orElse(null));
+    out.endObject();
+  }
+
+  @Override
+  public JavadocCommentFragment read(JsonReader in) throws IOException {
+    String type = null;
+    FragmentFields fields = null;
+
+    in.beginObject();
+    while (in.hasNext()) {
+      switch (in.nextName()) {
+        case "type" -> type = in.nextString();
+        case "value" -> fields = readFields(in);
+        default -> in.skipValue();
+      }
+    }
+    in.endObject();
+
+    if (type == null || fields == null) {
+      throw new JsonParseException("Incomplete fragment at " + in.getPath());
+    }
+
+    return switch (type) {
+      case "LINK" -> new JavadocCommentLink(fields.target, fields.label, fields.plain);
+      case "INLINE_TAG" -> new JavadocCommentInlineTag(fields.tagType, fields.argument);
+      case "TEXT" -> new JavadocCommentText(fields.text);
+      default -> throw new JsonParseException("Unknown fragment type " + type);
+    };
+  }
+
+  private FragmentFields readFields(JsonReader in) throws IOException {
+    FragmentFields fields = new FragmentFields();
+
+    in.beginObject();
+    while (in.hasNext()) {
+      String name = in.nextName();
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        continue;
+      }
+      switch (name) {
+        case "text" -> fields.text = in.nextString();
+        case "type" -> fields.tagType = JavadocCommentInlineTag.Type.valueOf(in.nextString());
+        case "argument" -> fields.argument = in.nextString();
+        case "label" -> fields.label = in.nextString();
+        case "plain" -> fields.plain = in.nextBoolean();
+        case "target" -> fields.target = readTarget(in);
+        default -> in.skipValue();
+      }
+    }
+    in.endObject();
+
+    return fields;
+  }
+
+  private QualifiedName readTarget(JsonReader in) throws IOException {
+    String asText = null;
+    String moduleName = null;
+
+    in.beginObject();
+    while (in.hasNext()) {
+      String name = in.nextName();
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+      } else if (name.equals("asText")) {
+        asText = in.nextString();
+      } else if (name.equals("moduleName")) {
+        moduleName = in.nextString();
+      } else {
+        in.skipValue();
+      }
+    }
+    in.endObject();
+
+    return QualifiedName.of(asText, moduleName);
+  }
+
+  /**
+   * The union of all fields a fragment value can have, as the value might be read before its type.
+   */
+  private static class FragmentFields {
+
+    private String text;
+    private JavadocCommentInlineTag.Type tagType;
+    private String argument;
+    private String label;
+    private boolean plain;
+    private QualifiedName target;
+  }
+}
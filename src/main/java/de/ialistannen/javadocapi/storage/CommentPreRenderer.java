@@ -0,0 +1,43 @@
+package de.ialistannen.javadocapi.storage;
+
+import de.ialistannen.javadocapi.model.JavadocElement;
+
+/**
+ * Renders the comments of elements while they are written to a {@link SqlStorage}, so they do not
+ * need to be rendered again when they are served.
+ */
+public interface CommentPreRenderer {
+
+  /**
+   * @return an identifier for the rendered output, e.g. a version and the base url used for links.
+   *     Comments pre-rendered with a different format are stale and never returned.
+   */
+  String getFormat();
+
+  /**
+   * Renders the comment of an element.
+   *
+   * @param element the element to render the comment of
+   * @param target the format to render it in
+   * @return the serialized rendered comment or null if the element has no comment
+   */
+  String render(JavadocElement element, Target target);
+
+  /**
+   * The formats comments are pre-rendered in, each stored in its own column.
+   */
+  enum Target {
+    HTML("rendered_html"),
+    MARKDOWN("rendered_markdown");
+
+    private final String column;
+
+    Target(String column) {
+      this.column = column;
+    }
+
+    String getColumn() {
+      return column;
+    }
+  }
+}
@@ -0,0 +1,314 @@
+package de.ialistannen.javadocapi.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses element payloads with deflate and a preset dictionary shared by all elements of an
+ * index. Single elements are too small to compress well on their own, but they share a lot of
+ * structure (JSON keys, modifiers, common names, boilerplate comment text) which the dictionary
+ * provides up front.
+ * <p>
+ * A compressed payload consists of the {@link #MAGIC} byte, the uncompressed length as a four byte
+ * big endian integer and the raw deflate stream.
+ */
+class DictionaryCompression {
+
+  /**
+   * The first byte of every compressed payload. Must never be a valid first byte of another
+   * payload format.
+   */
+  static final byte MAGIC = (byte) 0xDC;
+
+  /**
+   * Deflate can not look back further than 32 KiB, so a larger dictionary would be pointless.
+   */
+  private static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+  private static final int SEGMENT_LENGTH = 24;
+  private static final int MAX_SAMPLE_BYTES = 2 * 1024 * 1024;
+  /**
+   * No element comes close to this. A larger length in the header means the payload is corrupt.
+   */
+  private static final int MAX_DECOMPRESSED_SIZE = 64 * 1024 * 1024;
+
+  private static final long HASH_BASE = 0x100000001B3L;
+  private static final long HASH_BASE_POWER = power(HASH_BASE, SEGMENT_LENGTH);
+
+  private final byte[] dictionary;
+
+  DictionaryCompression(byte[] dictionary) {
+    this.dictionary = dictionary;
+  }
+
+  /**
+   * @return the dictionary used by this compression
+   */
+  byte[] getDictionary() {
+    return dictionary;
+  }
+
+  /**
+   * Trains a dictionary on the given sample payloads. The dictionary is built from the most
+   * frequent fixed-size segments of the samples, ordered so the most frequent ones end up at the
+   * end of the dictionary, where deflate can reference them most cheaply.
+   *
+   * @param samples the sample payloads
+   * @return a compression using the trained dictionary
+   */
+  static DictionaryCompression train(List<byte[]> samples) {
+    // Segments are only referenced by a hash of their bytes and their first occurrence, as
+    // creating an object per segment would mean millions of them
+    SegmentCounts counts = new SegmentCounts();
+    int sampledBytes = 0;
+
+    for (int sampleIndex = 0; sampleIndex < samples.size(); sampleIndex++) {
+      byte[] sample = samples.get(sampleIndex);
+      if (sampledBytes > MAX_SAMPLE_BYTES) {
+        break;
+      }
+      sampledBytes += sample.length;
+      if (sample.length < SEGMENT_LENGTH) {
+        continue;
+      }
+
+      long hash = hash(sample, 0);
+      counts.add(hash, sampleIndex, 0);
+      for (int start = 1; start + SEGMENT_LENGTH <= sample.length; start++) {
+        hash = hash * HASH_BASE
+            + (sample[start + SEGMENT_LENGTH - 1] & 0xFF)
+            - (sample[start - 1] & 0xFF) * HASH_BASE_POWER;
+        counts.add(hash, sampleIndex, start);
+      }
+    }
+
+    byte[] chosenText = new byte[MAX_DICTIONARY_SIZE];
+    int chosenLength = 0;
+    Set<Long> chosenSegments = new HashSet<>();
+    for (int slot : counts.repeatedByFrequency()) {
+      if (chosenLength + SEGMENT_LENGTH > MAX_DICTIONARY_SIZE) {
+        break;
+      }
+      // Overlapping segments of the same text are frequent, only keep new information
+      if (chosenSegments.contains(counts.hashes[slot])) {
+        continue;
+      }
+      byte[] sample = samples.get(counts.samples[slot]);
+      System.arraycopy(sample, counts.offsets[slot], chosenText, chosenLength, SEGMENT_LENGTH);
+      chosenLength += SEGMENT_LENGTH;
+
+      // Also remember the segments spanning the border to the previously chosen one
+      for (int start = Math.max(0, chosenLength - 2 * SEGMENT_LENGTH + 1);
+          start + SEGMENT_LENGTH <= chosenLength; start++) {
+        chosenSegments.add(hash(chosenText, start));
+      }
+    }
+
+    // The most frequent segments go last
+    byte[] dictionary = new byte[chosenLength];
+    for (int i = 0; i < chosenLength; i += SEGMENT_LENGTH) {
+      System.arraycopy(chosenText, i, dictionary, chosenLength - i - SEGMENT_LENGTH,
+          SEGMENT_LENGTH);
+    }
+
+    return new DictionaryCompression(dictionary);
+  }
+
+  private static long hash(byte[] data, int start) {
+    long hash = 0;
+    for (int i = start; i < start + SEGMENT_LENGTH; i++) {
+      hash = hash * HASH_BASE + (data[i] & 0xFF);
+    }
+    return hash;
+  }
+
+  private static long power(long base, int exponent) {
+    long result = 1;
+    for (int i = 0; i < exponent; i++) {
+      result *= base;
+    }
+    return result;
+  }
+
+  /**
+   * @param data the payload to check
+   * @return true if the payload was compressed by this class
+   */
+  static boolean isCompressed(byte[] data) {
+    return data.length > 0 && data[0] == MAGIC;
+  }
+
+  /**
+   * Compresses a single payload.
+   *
+   * @param data the data to compress
+   * @return the compressed payload
+   */
+  byte[] compress(byte[] data) {
+    Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+    try {
+      deflater.setDictionary(dictionary);
+      deflater.setInput(data);
+      deflater.finish();
+
+      ByteArrayOutputStream output = new ByteArrayOutputStream(data.length / 2 + 16);
+      output.write(MAGIC);
+      output.write(data.length >>> 24);
+      output.write(data.length >>> 16);
+      output.write(data.length >>> 8);
+      output.write(data.length);
+
+      byte[] buffer = new byte[4096];
+      while (!deflater.finished()) {
+        int written = deflater.deflate(buffer);
+        output.write(buffer, 0, written);
+      }
+
+      return output.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  /**
+   * Decompresses a payload created by {@link #compress(byte[])}.
+   *
+   * @param data the compressed payload
+   * @return the decompressed data
+   * @throws IllegalArgumentException if the data is corrupt
+   */
+  byte[] decompress(byte[] data) {
+    if (!isCompressed(data) || data.length < 5) {
+      throw new IllegalArgumentException("Not a compressed payload");
+    }
+    int length = (data[1] & 0xFF) << 24
+        | (data[2] & 0xFF) << 16
+        | (data[3] & 0xFF) << 8
+        | (data[4] & 0xFF);
+    if (length < 0 || length > MAX_DECOMPRESSED_SIZE) {
+      throw new IllegalArgumentException("Compressed payload claims an invalid length " + length);
+    }
+
+    Inflater inflater = new Inflater(true);
+    try {
+      // Raw deflate streams do not request the dictionary, so it has to be set up front
+      inflater.setDictionary(dictionary);
+      inflater.setInput(data, 5, data.length - 5);
+
+      byte[] result = new byte[length];
+      int read = 0;
+      while (read < length) {
+        int inflated = inflater.inflate(result, read, length - read);
+        if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+          break;
+        }
+        read += inflated;
+      }
+      if (read != length) {
+        throw new IllegalArgumentException("Compressed payload is truncated");
+      }
+
+      return result;
+    } catch (DataFormatException e) {
+      throw new IllegalArgumentException("Corrupt compressed payload", e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  /**
+   * An open addressing hash table counting segments by their hash. Each entry also remembers
+   * where the segment first occurred, so its bytes can be copied from there.
+   */
+  private static class SegmentCounts {
+
+    private long[] hashes;
+    private int[] counts;
+    private int[] samples;
+    private int[] offsets;
+    private int size;
+
+    private SegmentCounts() {
+      allocate(1 << 16);
+    }
+
+    private void allocate(int capacity) {
+      hashes = new long[capacity];
+      counts = new int[capacity];
+      samples = new int[capacity];
+      offsets = new int[capacity];
+    }
+
+    void add(long hash, int sample, int offset) {
+      int slot = find(hash);
+      if (counts[slot] != 0) {
+        counts[slot]++;
+        return;
+      }
+
+      hashes[slot] = hash;
+      counts[slot] = 1;
+      samples[slot] = sample;
+      offsets[slot] = offset;
+      size++;
+      if (size * 2 > hashes.length) {
+        grow();
+      }
+    }
+
+    private int find(long hash) {
+      int mask = hashes.length - 1;
+      // The low bits of the polynomial hash depend on few input bytes, so mix them first
+      int slot = (int) ((hash * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+      while (counts[slot] != 0 && hashes[slot] != hash) {
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+
+    private void grow() {
+      long[] oldHashes = hashes;
+      int[] oldCounts = counts;
+      int[] oldSamples = samples;
+      int[] oldOffsets = offsets;
+      allocate(oldHashes.length * 2);
+
+      for (int i = 0; i < oldHashes.length; i++) {
+        if (oldCounts[i] == 0) {
+          continue;
+        }
+        int slot = find(oldHashes[i]);
+        hashes[slot] = oldHashes[i];
+        counts[slot] = oldCounts[i];
+        samples[slot] = oldSamples[i];
+        offsets[slot] = oldOffsets[i];
+      }
+    }
+
+    /**
+     * @return the slots of all segments occurring more than once, most frequent first
+     */
+    int[] repeatedByFrequency() {
+      // Pack count and slot into one long, so a primitive sort orders them
+      long[] packed = new long[size];
+      int repeated = 0;
+      for (int slot = 0; slot < counts.length; slot++) {
+        if (counts[slot] >= 2) {
+          packed[repeated++] = (long) counts[slot] << 32 | slot;
+        }
+      }
+      Arrays.sort(packed, 0, repeated);
+
+      int[] result = new int[repeated];
+      for (int i = 0; i < repeated; i++) {
+        result[i] = (int) packed[repeated - 1 - i];
+      }
+      return result;
+    }
+  }
+}
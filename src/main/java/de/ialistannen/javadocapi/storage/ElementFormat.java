@@ -0,0 +1,16 @@
+package de.ialistannen.javadocapi.storage;
+
+/**
+ * The format elements are written in by {@link SqlStorage}. Reading always supports every format,
+ * so indices written with different formats can be mixed freely.
+ */
+public enum ElementFormat {
+  /**
+   * Human-readable JSON, stored as text.
+   */
+  JSON,
+  /**
+   * A compact binary encoding, see {@link BinaryElementCodec}.
+   */
+  BINARY
+}
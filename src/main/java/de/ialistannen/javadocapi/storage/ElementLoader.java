@@ -3,8 +3,11 @@ package de.ialistannen.javadocapi.storage;
 import de.ialistannen.javadocapi.model.JavadocElement;
 import de.ialistannen.javadocapi.model.QualifiedName;
 import de.ialistannen.javadocapi.model.types.JavadocType;
+import de.ialistannen.javadocapi.model.types.JavadocTypeSummary;
 import java.util.Collection;
+import java.util.Locale;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public interface ElementLoader {
 
@@ -25,6 +28,47 @@ public interface ElementLoader {
    */
   Collection<LoadResult<JavadocType>> findClassByName(String name);
 
+  /**
+   * Searchs for a class by its name, just like {@link #findClassByName(String)}, but only returns
+   * a summary of each class. Loaders should override this if they can produce summaries without
+   * loading the whole class.
+   *
+   * @param name the name of the class you are searching for
+   * @return summaries of all classes matching the class filter
+   * @throws FetchException if an error occurs
+   * @see #findClassByName(String)
+   */
+  default Collection<LoadResult<JavadocTypeSummary>> findClassSummariesByName(String name) {
+    return findClassByName(name)
+        .stream()
+        .map(it -> it.map(JavadocTypeSummary::of))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Finds the members of all classes matching the given class name (see
+   * {@link #findClassByName(String)}), whose simple name ends with the given member name, ignoring
+   * case. Loaders should override this if they can find members without loading the classes.
+   *
+   * @param className the name of the class
+   * @param memberName the suffix of the member's simple name
+   * @return the qualified names of all matching members
+   * @throws FetchException if an error occurs
+   */
+  default Collection<LoadResult<QualifiedName>> findMembersByName(String className,
+      String memberName) {
+    String memberNameUpper = memberName.toUpperCase(Locale.ROOT);
+
+    return findClassSummariesByName(className)
+        .stream()
+        .flatMap(type -> type.getResult().getMembers()
+            .stream()
+            .filter(it -> it.getSimpleName().toUpperCase(Locale.ROOT).endsWith(memberNameUpper))
+            .map(it -> new LoadResult<>(it, type.getLoader()))
+        )
+        .collect(Collectors.toList());
+  }
+
   /**
    * Searchs for an element by its name. The name can be an arbitrary substring of the name anchored
    * at the end:
@@ -42,6 +86,31 @@ public interface ElementLoader {
    */
   Collection<LoadResult<JavadocElement>> findElementByName(String name);
 
+  /**
+   * Finds the names of the best elements matching the name, as defined in
+   * {@link #findElementByName(String)}. Loaders should override this if they can find names
+   * without loading the elements or stop early once enough elements with the highest score were
+   * found.
+   *
+   * @param name the name of the element you are searching for
+   * @param scorer the scorer to rank the elements with
+   * @param limit the maximum amount of names to return
+   * @return the names of the best elements, best first. Elements with the same score keep the
+   *     order of {@link #findElementByName(String)}.
+   * @throws FetchException if an error occurs
+   */
+  default Collection<LoadResult<QualifiedName>> findBestElementNames(String name,
+      NameScorer scorer, int limit) {
+    TopK<LoadResult<QualifiedName>> best = new TopK<>(limit);
+
+    for (LoadResult<JavadocElement> element : findElementByName(name)) {
+      LoadResult<QualifiedName> elementName = element.map(JavadocElement::getQualifiedName);
+      best.offer(elementName, scorer.score(elementName.getResult()));
+    }
+
+    return best.toList();
+  }
+
   /**
    * Finds an element by its qualified name. This might not be unique if multiple loaders have the
    * same element, so a List is returned.
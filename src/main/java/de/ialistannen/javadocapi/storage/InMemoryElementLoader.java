@@ -0,0 +1,206 @@
+package de.ialistannen.javadocapi.storage;
+
+import static org.apache.commons.lang3.StringUtils.reverse;
+
+import de.ialistannen.javadocapi.model.JavadocElement;
+import de.ialistannen.javadocapi.model.QualifiedName;
+import de.ialistannen.javadocapi.model.types.JavadocType;
+import de.ialistannen.javadocapi.model.types.JavadocTypeSummary;
+import de.ialistannen.javadocapi.storage.SqlStorage.StoredElement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * An {@link ElementLoader} that reads a {@link SqliteStorage} once and answers all name lookups
+ * from memory. Elements are kept in their stored form and only decoded when they are returned, so
+ * indices written in the {@link ElementFormat#BINARY binary format} are the best fit.
+ * <p>
+ * Suffix lookups mirror the {@code reversed_qualified_name LIKE ?} queries of {@link SqlStorage}:
+ * they are ASCII case-insensitive and treat {@code %} and {@code _} as wildcards. Autocompletion is
+ * delegated to the underlying storage, which therefore must stay open.
+ */
+public class InMemoryElementLoader implements ElementLoader {
+
+  private final SqliteStorage storage;
+  private final StoredElement[] byReversedName;
+  private final String[] foldedReversedNames;
+  private final Map<String, StoredElement> byQualifiedName;
+
+  /**
+   * Creates a new loader, reading all elements from the given storage.
+   *
+   * @param storage the storage to load
+   * @throws FetchException if an error occurs while reading the storage
+   */
+  public InMemoryElementLoader(SqliteStorage storage) {
+    this.storage = storage;
+
+    List<StoredElement> elements = storage.findAllStored();
+
+    this.byReversedName = elements.stream()
+        .sorted(Comparator.comparing(it -> foldCase(it.getReversedName())))
+        .toArray(StoredElement[]::new);
+    this.foldedReversedNames = Arrays.stream(byReversedName)
+        .map(it -> foldCase(it.getReversedName()))
+        .toArray(String[]::new);
+
+    this.byQualifiedName = new HashMap<>(elements.size() * 4 / 3 + 1);
+    for (StoredElement element : elements) {
+      byQualifiedName.put(element.getQualifiedName(), element);
+    }
+  }
+
+  @Override
+  public Collection<LoadResult<JavadocElement>> findAll() {
+    return Arrays.stream(byReversedName)
+        .map(it -> new LoadResult<>(it.decode(), this))
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public Collection<LoadResult<JavadocType>> findClassByName(String name) {
+    return findBySuffix(name, StoredElement::isType)
+        .stream()
+        .map(it -> new LoadResult<>((JavadocType) it.decode(), this))
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public Collection<LoadResult<JavadocTypeSummary>> findClassSummariesByName(String name) {
+    return findBySuffix(name, StoredElement::isType)
+        .stream()
+        .map(it -> new LoadResult<>(it.decodeTypeSummary(), this))
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public Collection<LoadResult<JavadocElement>> findElementByName(String name) {
+    return findBySuffix(name, it -> true)
+        .stream()
+        .map(it -> new LoadResult<>(it.decode(), this))
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public Collection<LoadResult<QualifiedName>> findBestElementNames(String name,
+      NameScorer scorer, int limit) {
+    TopK<LoadResult<QualifiedName>> best = new TopK<>(limit);
+
+    for (StoredElement element : findBySuffix(name, it -> true)) {
+      if (best.isSaturated(scorer.getMaxScore())) {
+        break;
+      }
+      QualifiedName elementName = QualifiedName.ofStringWithModule(element.getQualifiedName());
+      best.offer(new LoadResult<>(elementName, this), scorer.score(elementName));
+    }
+
+    return best.toList();
+  }
+
+  @Override
+  public Collection<LoadResult<JavadocElement>> findByQualifiedName(QualifiedName name) {
+    StoredElement element = byQualifiedName.get(name.asStringWithModule());
+    if (element == null) {
+      return List.of();
+    }
+    return List.of(new LoadResult<>(element.decode(), this));
+  }
+
+  @Override
+  public Collection<String> autocomplete(String prompt) {
+    return storage.autocomplete(prompt);
+  }
+
+  private List<StoredElement> findBySuffix(String name, Predicate<StoredElement> filter) {
+    String pattern = foldCase(reverse(name));
+
+    // Everything before the first wildcard is a literal prefix we can binary search for
+    int wildcardIndex = indexOfWildcard(pattern);
+    String prefix = wildcardIndex < 0 ? pattern : pattern.substring(0, wildcardIndex);
+
+    int start = Arrays.binarySearch(foldedReversedNames, prefix);
+    if (start < 0) {
+      start = -start - 1;
+    }
+
+    List<StoredElement> result = new ArrayList<>();
+    for (int i = start; i < foldedReversedNames.length; i++) {
+      String candidate = foldedReversedNames[i];
+      if (!candidate.startsWith(prefix)) {
+        break;
+      }
+      if (wildcardIndex >= 0 && !likePrefixMatches(pattern, 0, candidate, 0)) {
+        continue;
+      }
+      if (filter.test(byReversedName[i])) {
+        result.add(byReversedName[i]);
+      }
+    }
+
+    return result;
+  }
+
+  private static int indexOfWildcard(String pattern) {
+    for (int i = 0; i < pattern.length(); i++) {
+      if (pattern.charAt(i) == '%' || pattern.charAt(i) == '_') {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Checks whether {@code pattern + "%"} matches the candidate in SQL LIKE semantics.
+   */
+  private static boolean likePrefixMatches(String pattern, int patternIndex, String candidate,
+      int candidateIndex) {
+    while (patternIndex < pattern.length()) {
+      char current = pattern.charAt(patternIndex);
+
+      if (current == '%') {
+        for (int i = candidateIndex; i <= candidate.length(); i++) {
+          if (likePrefixMatches(pattern, patternIndex + 1, candidate, i)) {
+            return true;
+          }
+        }
+        return false;
+      }
+      if (candidateIndex >= candidate.length()) {
+        return false;
+      }
+      if (current != '_' && current != candidate.charAt(candidateIndex)) {
+        return false;
+      }
+
+      patternIndex++;
+      candidateIndex++;
+    }
+
+    return true;
+  }
+
+  /**
+   * Lower cases only ASCII characters, just like SQLite's {@code LIKE} and {@code NOCASE}.
+   */
+  private static String foldCase(String input) {
+    char[] chars = input.toCharArray();
+    for (int i = 0; i < chars.length; i++) {
+      if (chars[i] >= 'A' && chars[i] <= 'Z') {
+        chars[i] = (char) (chars[i] + ('a' - 'A'));
+      }
+    }
+    return new String(chars);
+  }
+
+  @Override
+  public String toString() {
+    return "memory:" + storage;
+  }
+}
@@ -0,0 +1,24 @@
+package de.ialistannen.javadocapi.storage;
+
+import de.ialistannen.javadocapi.model.QualifiedName;
+
+/**
+ * Scores element names for {@link ElementLoader#findBestElementNames(String, NameScorer, int)}.
+ * Higher scores are better.
+ */
+public interface NameScorer {
+
+  /**
+   * @param name the name of the element
+   * @return the score of the element or a negative value, if it should not be part of the results
+   */
+  int score(QualifiedName name);
+
+  /**
+   * Returns the highest score {@link #score(QualifiedName)} can return. Once enough elements with
+   * this score are found, the search can stop.
+   *
+   * @return the highest possible score
+   */
+  int getMaxScore();
+}
@@ -0,0 +1,35 @@
+package de.ialistannen.javadocapi.storage;
+
+import de.ialistannen.javadocapi.model.JavadocElement;
+import de.ialistannen.javadocapi.storage.CommentPreRenderer.Target;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * An element ready to be written to a {@link SqlStorage}, together with its pre-rendered comments.
+ * Created by {@link SqlStorage#preRender(JavadocElement)}, so the comments can be rendered on the
+ * threads producing the elements instead of the one writing them.
+ */
+public class PreRenderedElement {
+
+  private final JavadocElement element;
+  private final Map<Target, String> rendered;
+
+  PreRenderedElement(JavadocElement element, Map<Target, String> rendered) {
+    this.element = element;
+    this.rendered = rendered.isEmpty() ? Map.of() : new EnumMap<>(rendered);
+  }
+
+  public JavadocElement getElement() {
+    return element;
+  }
+
+  /**
+   * @param target the format of the rendered comment
+   * @return the serialized rendered comment or null if the element has none or was not
+   *     pre-rendered
+   */
+  public String getRendered(Target target) {
+    return rendered.get(target);
+  }
+}
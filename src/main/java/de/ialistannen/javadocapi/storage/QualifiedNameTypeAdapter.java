@@ -0,0 +1,23 @@
+package de.ialistannen.javadocapi.storage;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import de.ialistannen.javadocapi.model.QualifiedName;
+import java.io.IOException;
+
+/**
+ * Writes {@link QualifiedName}s as a single {@code "module/name"} string.
+ */
+class QualifiedNameTypeAdapter extends TypeAdapter<QualifiedName> {
+
+  @Override
+  public void write(JsonWriter out, QualifiedName name) throws IOException {
+    out.value(name.asStringWithModule());
+  }
+
+  @Override
+  public QualifiedName read(JsonReader in) throws IOException {
+    return QualifiedName.ofStringWithModule(in.nextString());
+  }
+}
@@ -3,61 +3,153 @@ package de.ialistannen.javadocapi.storage;
 import static org.apache.commons.lang3.StringUtils.reverse;
 
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
 import de.ialistannen.javadocapi.model.JavadocElement;
 import de.ialistannen.javadocapi.model.QualifiedName;
 import de.ialistannen.javadocapi.model.types.JavadocField;
 import de.ialistannen.javadocapi.model.types.JavadocMethod;
 import de.ialistannen.javadocapi.model.types.JavadocType;
+import de.ialistannen.javadocapi.model.types.JavadocTypeSummary;
+import de.ialistannen.javadocapi.storage.CommentPreRenderer.Target;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class SqlStorage {
 
+  private static final String COMPRESSION_DICTIONARY_KEY = "compression_dictionary";
+  private static final String RENDER_FORMAT_KEY = "comment_render_format";
+  private static final int SAMPLE_COUNT = 2000;
+
   private final Gson gson;
+  private final ElementFormat format;
+  private final boolean compress;
+  private final BinaryElementCodec binaryCodec;
+  private final CommentPreRenderer preRenderer;
+  private volatile DictionaryCompression compression;
+  private volatile Boolean hasMembersTable;
+  // The format of the pre-rendered comments in the database, empty if there are none
+  private volatile String storedRenderFormat;
+  private boolean preRenderingPrepared;
 
   public SqlStorage(Gson gson) {
+    this(gson, SqliteWriteOptions.defaults());
+  }
+
+  /**
+   * Creates a new storage.
+   *
+   * @param gson the gson instance to use for JSON (de-)serialization
+   * @param writeOptions the options to write new elements with
+   */
+  public SqlStorage(Gson gson, SqliteWriteOptions writeOptions) {
     this.gson = gson;
+    this.format = writeOptions.getFormat();
+    this.compress = writeOptions.isCompress();
+    this.preRenderer = writeOptions.getPreRenderer().orElse(null);
+    this.binaryCodec = new BinaryElementCodec();
+  }
+
+  /**
+   * Renders the comments of an element with the {@link CommentPreRenderer} of this storage, if
+   * any. Safe to call from multiple threads.
+   *
+   * @param element the element to render
+   * @return the element together with its pre-rendered comments
+   */
+  public PreRenderedElement preRender(JavadocElement element) {
+    Map<Target, String> rendered = new EnumMap<>(Target.class);
+    if (preRenderer != null) {
+      for (Target target : Target.values()) {
+        rendered.put(target, preRenderer.render(element, target));
+      }
+    }
+    return new PreRenderedElement(element, rendered);
   }
 
   /**
    * Stores the given list of elements in a "JavadocElements table in the given Connection.
+   * <p>
+   * Can be called multiple times to add elements in batches. If compression is enabled, the
+   * dictionary is trained on the first batch and reused for all following ones. If a
+   * {@link CommentPreRenderer} is set, the {@link #preRender(JavadocElement) pre-rendered}
+   * comments are stored alongside.
    *
-   * @param elements the elements to save
+   * @param preRenderedElements the elements to save
    * @param connection the connection to use
    * @throws SQLException if an error occurred
    */
-  protected void addAll(List<JavadocElement> elements, Connection connection) throws SQLException {
+  protected void addAll(List<PreRenderedElement> preRenderedElements, Connection connection)
+      throws SQLException {
+    List<JavadocElement> elements = preRenderedElements.stream()
+        .map(PreRenderedElement::getElement)
+        .collect(Collectors.toList());
     String createTable = "CREATE TABLE IF NOT EXISTS JavadocElements\n"
         + "(\n"
         + "    reversed_qualified_name VARCHAR(40),\n"
         + "    qualified_name          VARCHAR(40) PRIMARY KEY,\n"
         + "    type                    VARCHAR(10) NOT NULL,\n"
-        + "    data                    VARCHAR(100) NOT NULL\n"
+        + "    data                    VARCHAR(100) NOT NULL,\n"
+        + "    rendered_html           TEXT,\n"
+        + "    rendered_markdown       TEXT\n"
         + ");";
 
     try (PreparedStatement preparedStatement = connection.prepareStatement(createTable)) {
       preparedStatement.execute();
     }
 
-    String createIndex = "CREATE INDEX `reverse_name` ON JavadocElements (\n"
+    String createIndex = "CREATE INDEX IF NOT EXISTS `reverse_name` ON JavadocElements (\n"
         + "  reversed_qualified_name COLLATE NOCASE\n"
         + ");";
     try (PreparedStatement preparedStatement = connection.prepareStatement(createIndex)) {
       preparedStatement.execute();
     }
 
-    String insert = "INSERT INTO JavadocElements VALUES (?, ?, ?, ?);";
+    if (compress && compression == null) {
+      // Elements already in the database must stay readable, so an existing dictionary wins
+      Optional<byte[]> existing = readMetadata(connection, COMPRESSION_DICTIONARY_KEY);
+      if (existing.isPresent()) {
+        compression = new DictionaryCompression(existing.get());
+      } else {
+        compression = trainCompression(elements);
+        writeMetadata(connection, COMPRESSION_DICTIONARY_KEY, compression.getDictionary());
+      }
+    }
+
+    if (preRenderer != null && !preRenderingPrepared) {
+      preparePreRendering(connection);
+    }
+
+    String insert = preRenderer == null
+        ? "INSERT INTO JavadocElements (reversed_qualified_name, qualified_name, type, data)\n"
+            + "VALUES (?, ?, ?, ?);"
+        : "INSERT INTO JavadocElements (reversed_qualified_name, qualified_name, type, data,\n"
+            + "                             rendered_html, rendered_markdown)\n"
+            + "VALUES (?, ?, ?, ?, ?, ?);";
     try (PreparedStatement statement = connection.prepareStatement(insert)) {
-      connection.setAutoCommit(false);
+      boolean ownTransaction = beginTransaction(connection);
 
       for (int i = 0; i < elements.size(); i++) {
-        JavadocElement element = elements.get(i);
+        PreRenderedElement preRendered = preRenderedElements.get(i);
+        JavadocElement element = preRendered.getElement();
         String fullName = element.getQualifiedName().asStringWithModule();
         String fullWithoutParams =
             fullName.contains("(")
@@ -66,80 +158,790 @@ public class SqlStorage {
         statement.setString(1, reverse(fullWithoutParams));
         statement.setString(2, fullName);
         statement.setString(3, ElementType.fromElement(element).name());
-        statement.setString(4, gson.toJson(element));
+        setData(statement, 4, element);
+        if (preRenderer != null) {
+          statement.setString(5, preRendered.getRendered(Target.HTML));
+          statement.setString(6, preRendered.getRendered(Target.MARKDOWN));
+        }
         statement.addBatch();
         if (i % 1000 == 0) {
           statement.executeBatch();
-          connection.commit();
+          commitBatch(connection, ownTransaction);
         }
       }
 
       statement.executeBatch();
-      connection.commit();
-      connection.setAutoCommit(true);
+      endTransaction(connection, ownTransaction);
     }
+
+    addMembers(elements, connection);
   }
 
-  protected List<JavadocElement> findAll(Connection connection) throws SQLException {
+  private void preparePreRendering(Connection connection) throws SQLException {
+    // Indices written before comments were pre-rendered lack the columns
+    Set<String> columns = findColumns(connection, "JavadocElements");
+    for (Target target : Target.values()) {
+      if (columns.contains(target.getColumn())) {
+        continue;
+      }
+      String alter = "ALTER TABLE JavadocElements ADD COLUMN " + target.getColumn() + " TEXT;";
+      try (PreparedStatement statement = connection.prepareStatement(alter)) {
+        statement.execute();
+      }
+    }
+
+    byte[] renderFormat = preRenderer.getFormat().getBytes(StandardCharsets.UTF_8);
+    Optional<byte[]> existing = readMetadata(connection, RENDER_FORMAT_KEY);
+    if (existing.isEmpty() || !Arrays.equals(existing.get(), renderFormat)) {
+      // Comments rendered in another format must not be served as if they were in the new one
+      String clear = "UPDATE JavadocElements SET rendered_html = NULL, rendered_markdown = NULL;";
+      try (PreparedStatement statement = connection.prepareStatement(clear)) {
+        statement.execute();
+      }
+      writeMetadata(connection, RENDER_FORMAT_KEY, renderFormat);
+    }
+    storedRenderFormat = null;
+    preRenderingPrepared = true;
+  }
+
+  private void addMembers(List<JavadocElement> elements, Connection connection)
+      throws SQLException {
+    createMembersTable(connection);
+
+    String insert = "INSERT INTO Members VALUES (?, ?, ?, ?);";
+    try (PreparedStatement statement = connection.prepareStatement(insert)) {
+      boolean ownTransaction = beginTransaction(connection);
+
+      int count = 0;
+      for (JavadocElement element : elements) {
+        if (!(element instanceof JavadocType)) {
+          continue;
+        }
+        String owner = element.getQualifiedName().asStringWithModule();
+        for (QualifiedName member : ((JavadocType) element).getMembers()) {
+          statement.setString(1, owner);
+          statement.setString(2, reversedUpperName(member.getSimpleName()));
+          statement.setString(3, member.asStringWithModule());
+          statement.setString(4, member.isMethod() ? "METHOD" : "FIELD");
+          statement.addBatch();
+          if (++count % 1000 == 0) {
+            statement.executeBatch();
+            commitBatch(connection, ownTransaction);
+          }
+        }
+      }
+
+      statement.executeBatch();
+      endTransaction(connection, ownTransaction);
+    }
+    hasMembersTable = true;
+  }
+
+  private static void createMembersTable(Connection connection) throws SQLException {
+    // Simple names are stored reversed, so a suffix of them is an indexable prefix range
+    String createTable = "CREATE TABLE IF NOT EXISTS Members\n"
+        + "(\n"
+        + "    owner                VARCHAR(40) NOT NULL,\n"
+        + "    simple_name_reversed VARCHAR(40) NOT NULL,\n"
+        + "    qualified_name       VARCHAR(40) NOT NULL,\n"
+        + "    kind                 VARCHAR(10) NOT NULL\n"
+        + ");";
+    try (PreparedStatement preparedStatement = connection.prepareStatement(createTable)) {
+      preparedStatement.execute();
+    }
+
+    // Including the qualified name makes this a covering index for member lookups
+    String createIndex = "CREATE INDEX IF NOT EXISTS `member_owner_suffix` "
+        + "ON Members (owner, simple_name_reversed, qualified_name);";
+    try (PreparedStatement preparedStatement = connection.prepareStatement(createIndex)) {
+      preparedStatement.execute();
+    }
+  }
+
+  private static String reversedUpperName(String simpleName) {
+    // StringBuilder#reverse keeps surrogate pairs intact
+    return new StringBuilder(simpleName.toUpperCase(Locale.ROOT)).reverse().toString();
+  }
+
+  private static Set<String> findColumns(Connection connection, String table)
+      throws SQLException {
+    Set<String> columns = new HashSet<>();
+    try (PreparedStatement statement = connection.prepareStatement(
+        "PRAGMA table_info(" + table + ");"
+    );
+        ResultSet resultSet = statement.executeQuery()) {
+      while (resultSet.next()) {
+        columns.add(resultSet.getString("name"));
+      }
+    }
+    return columns;
+  }
+
+  protected List<JavadocElement> findAll(StatementCachingConnection connection)
+      throws SQLException {
     String query = "SELECT * FROM JavadocElements;";
+    PreparedStatement statement = connection.prepare(query);
+    try (ResultSet resultSet = statement.executeQuery()) {
+      return parseResults(connection, resultSet);
+    }
+  }
+
+  private DictionaryCompression trainCompression(List<JavadocElement> elements) {
+    // Every element contributes to the dictionary, so a spread out sample is good enough
+    int stride = Math.max(1, elements.size() / SAMPLE_COUNT);
+    List<byte[]> samples = new ArrayList<>();
+    for (int i = 0; i < elements.size(); i += stride) {
+      samples.add(encode(elements.get(i)));
+    }
+    return DictionaryCompression.train(samples);
+  }
+
+  /**
+   * Writes a value to the "Metadata" table, replacing any previous value for the key.
+   *
+   * @param connection the connection to use
+   * @param key the key to write
+   * @param value the value
+   * @throws SQLException if an error occurred
+   */
+  protected void writeMetadata(Connection connection, String key, byte[] value)
+      throws SQLException {
+    createMetadataTable(connection);
+
+    String insert = "INSERT OR REPLACE INTO Metadata VALUES (?, ?);";
+    try (PreparedStatement statement = connection.prepareStatement(insert)) {
+      statement.setString(1, key);
+      statement.setBytes(2, value);
+      statement.execute();
+    }
+  }
+
+  /**
+   * Reads a value from the "Metadata" table.
+   *
+   * @param connection the connection to use
+   * @param key the key to read
+   * @return the value, if any
+   * @throws SQLException if an error occurred
+   */
+  protected Optional<byte[]> readMetadata(Connection connection, String key) throws SQLException {
+    createMetadataTable(connection);
+
+    String query = "SELECT value FROM Metadata WHERE key = ?;";
+    try (PreparedStatement statement = connection.prepareStatement(query)) {
+      statement.setString(1, key);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        if (!resultSet.next()) {
+          return Optional.empty();
+        }
+        return Optional.of(resultSet.getBytes("value"));
+      }
+    }
+  }
+
+  private void createMetadataTable(Connection connection) throws SQLException {
+    String createTable = "CREATE TABLE IF NOT EXISTS Metadata\n"
+        + "(\n"
+        + "    key   VARCHAR(40) PRIMARY KEY,\n"
+        + "    value BLOB NOT NULL\n"
+        + ");";
+    try (PreparedStatement statement = connection.prepareStatement(createTable)) {
+      statement.execute();
+    }
+  }
+
+  private void createSourceUnitTables(Connection connection) throws SQLException {
+    String createUnits = "CREATE TABLE IF NOT EXISTS SourceUnits\n"
+        + "(\n"
+        + "    path VARCHAR(40) PRIMARY KEY,\n"
+        + "    hash VARCHAR(64) NOT NULL\n"
+        + ");";
+    try (PreparedStatement statement = connection.prepareStatement(createUnits)) {
+      statement.execute();
+    }
+
+    String createUnitElements = "CREATE TABLE IF NOT EXISTS UnitElements\n"
+        + "(\n"
+        + "    path           VARCHAR(40) NOT NULL,\n"
+        + "    qualified_name VARCHAR(40) NOT NULL\n"
+        + ");";
+    try (PreparedStatement statement = connection.prepareStatement(createUnitElements)) {
+      statement.execute();
+    }
+
+    String createIndex = "CREATE INDEX IF NOT EXISTS `unit_elements_path` "
+        + "ON UnitElements (path, qualified_name);";
+    try (PreparedStatement statement = connection.prepareStatement(createIndex)) {
+      statement.execute();
+    }
+  }
+
+  /**
+   * Reads the content hashes of all source units recorded by
+   * {@link #addSourceUnits(Map, Map, Connection)}.
+   *
+   * @param connection the connection to use
+   * @return all recorded units and their content hashes
+   * @throws SQLException if an error occurred
+   */
+  protected Map<String, String> findSourceUnits(Connection connection) throws SQLException {
+    createSourceUnitTables(connection);
+
+    Map<String, String> units = new HashMap<>();
+    String query = "SELECT path, hash FROM SourceUnits;";
     try (PreparedStatement statement = connection.prepareStatement(query);
         ResultSet resultSet = statement.executeQuery()) {
+      while (resultSet.next()) {
+        units.put(resultSet.getString("path"), resultSet.getString("hash"));
+      }
+    }
+    return units;
+  }
+
+  /**
+   * Deletes the given source units and all elements that were extracted from them.
+   *
+   * @param paths the paths of the units to remove
+   * @param connection the connection to use
+   * @throws SQLException if an error occurred
+   */
+  protected void removeSourceUnits(Collection<String> paths, Connection connection)
+      throws SQLException {
+    if (paths.isEmpty()) {
+      return;
+    }
+    createSourceUnitTables(connection);
+    boolean ownTransaction = beginTransaction(connection);
+
+    String createTemp = "CREATE TEMP TABLE IF NOT EXISTS RemovedNames\n"
+        + "(\n"
+        + "    qualified_name VARCHAR(40) PRIMARY KEY\n"
+        + ");";
+    try (PreparedStatement statement = connection.prepareStatement(createTemp)) {
+      statement.execute();
+    }
+
+    String collect = "INSERT OR IGNORE INTO RemovedNames\n"
+        + "SELECT qualified_name FROM UnitElements WHERE path = ?;";
+    String deleteUnitElements = "DELETE FROM UnitElements WHERE path = ?;";
+    String deleteUnit = "DELETE FROM SourceUnits WHERE path = ?;";
+    try (PreparedStatement collectStatement = connection.prepareStatement(collect);
+        PreparedStatement unitElementsStatement = connection.prepareStatement(deleteUnitElements);
+        PreparedStatement unitStatement = connection.prepareStatement(deleteUnit)) {
+      for (String path : paths) {
+        collectStatement.setString(1, path);
+        collectStatement.execute();
+        unitElementsStatement.setString(1, path);
+        unitElementsStatement.execute();
+        unitStatement.setString(1, path);
+        unitStatement.execute();
+      }
+    }
+
+    deleteRemovedNames(connection);
+
+    try (PreparedStatement statement = connection.prepareStatement("DELETE FROM RemovedNames;")) {
+      statement.execute();
+    }
+
+    endTransaction(connection, ownTransaction);
+  }
+
+  /**
+   * Deletes all elements whose name is in the temporary "RemovedNames" table.
+   *
+   * @param connection the connection to use
+   * @throws SQLException if an error occurred
+   */
+  protected void deleteRemovedNames(Connection connection) throws SQLException {
+    List<String> deletes = List.of(
+        "DELETE FROM JavadocElements WHERE qualified_name IN (SELECT * FROM RemovedNames);",
+        "DELETE FROM Members WHERE owner IN (SELECT * FROM RemovedNames);"
+    );
+    for (String delete : deletes) {
+      try (PreparedStatement statement = connection.prepareStatement(delete)) {
+        statement.execute();
+      }
+    }
+  }
+
+  /**
+   * Records source units, their content hashes and the qualified names of the elements extracted
+   * from them. This allows {@link #removeSourceUnits(Collection, Connection)} to delete them again
+   * once the unit changes.
+   *
+   * @param hashes the content hashes of the units to record
+   * @param elementNames the qualified names, including the module, of the elements per unit
+   * @param connection the connection to use
+   * @throws SQLException if an error occurred
+   */
+  protected void addSourceUnits(Map<String, String> hashes,
+      Map<String, ? extends Collection<String>> elementNames, Connection connection)
+      throws SQLException {
+    createSourceUnitTables(connection);
+    boolean ownTransaction = beginTransaction(connection);
+
+    String insertUnit = "INSERT OR REPLACE INTO SourceUnits VALUES (?, ?);";
+    String insertElement = "INSERT INTO UnitElements VALUES (?, ?);";
+    try (PreparedStatement unitStatement = connection.prepareStatement(insertUnit);
+        PreparedStatement elementStatement = connection.prepareStatement(insertElement)) {
+      for (Entry<String, String> unit : hashes.entrySet()) {
+        unitStatement.setString(1, unit.getKey());
+        unitStatement.setString(2, unit.getValue());
+        unitStatement.addBatch();
+
+        Collection<String> names = elementNames.get(unit.getKey());
+        for (String name : names == null ? List.<String>of() : names) {
+          elementStatement.setString(1, unit.getKey());
+          elementStatement.setString(2, name);
+          elementStatement.addBatch();
+        }
+      }
+      unitStatement.executeBatch();
+      elementStatement.executeBatch();
+    }
+
+    endTransaction(connection, ownTransaction);
+  }
 
-      return parseResults(resultSet);
+  /**
+   * Starts a transaction, unless the caller already started one that should span this write.
+   *
+   * @param connection the connection to use
+   * @return true if a transaction was started, which must then be ended using
+   *     {@link #endTransaction(Connection, boolean)}
+   * @throws SQLException if an error occurred
+   */
+  protected static boolean beginTransaction(Connection connection) throws SQLException {
+    if (!connection.getAutoCommit()) {
+      return false;
     }
+    connection.setAutoCommit(false);
+    return true;
   }
 
-  private List<JavadocElement> parseResults(ResultSet resultSet) throws SQLException {
+  /**
+   * Commits the rows written so far, if the transaction is not owned by a caller.
+   *
+   * @param connection the connection to use
+   * @param ownTransaction whether the transaction was started by the writing method
+   * @throws SQLException if an error occurred
+   */
+  protected static void commitBatch(Connection connection, boolean ownTransaction)
+      throws SQLException {
+    if (ownTransaction) {
+      connection.commit();
+    }
+  }
+
+  /**
+   * Commits a transaction started by {@link #beginTransaction(Connection)}.
+   *
+   * @param connection the connection to use
+   * @param ownTransaction whether the transaction was started by the writing method
+   * @throws SQLException if an error occurred
+   */
+  protected static void endTransaction(Connection connection, boolean ownTransaction)
+      throws SQLException {
+    if (ownTransaction) {
+      connection.commit();
+      connection.setAutoCommit(true);
+    }
+  }
+
+  private byte[] encode(JavadocElement element) {
+    return switch (format) {
+      case JSON -> gson.toJson(element).getBytes(StandardCharsets.UTF_8);
+      case BINARY -> binaryCodec.encode(element);
+    };
+  }
+
+  private void setData(PreparedStatement statement, int index, JavadocElement element)
+      throws SQLException {
+    if (compress) {
+      statement.setBytes(index, compression.compress(encode(element)));
+      return;
+    }
+    switch (format) {
+      case JSON -> statement.setString(index, gson.toJson(element));
+      case BINARY -> statement.setBytes(index, binaryCodec.encode(element));
+    }
+  }
+
+  private List<JavadocElement> parseResults(StatementCachingConnection connection,
+      ResultSet resultSet) throws SQLException {
     List<JavadocElement> elements = new ArrayList<>();
 
     while (resultSet.next()) {
       ElementType type = ElementType.valueOf(resultSet.getString("type"));
-      String dataString = resultSet.getString("data");
-      elements.add(gson.fromJson(dataString, type.getElementClass()));
+      elements.add(parseData(connection, type, resultSet.getObject("data")));
     }
     return elements;
   }
 
-  protected List<JavadocElement> findElementByName(Connection connection, String name)
+  private JavadocElement parseData(StatementCachingConnection connection, ElementType type,
+      Object data) throws SQLException {
+    ensureCompressionLoaded(connection, data);
+    return decode(type, data);
+  }
+
+  private void ensureCompressionLoaded(StatementCachingConnection connection, Object data)
+      throws SQLException {
+    if (data instanceof byte[] && DictionaryCompression.isCompressed((byte[]) data)) {
+      getCompression(connection);
+    }
+  }
+
+  private JavadocElement decode(ElementType type, Object data) {
+    // SQLite keeps the type of each value, so binary and compressed elements come back as BLOBs
+    if (!(data instanceof byte[])) {
+      return gson.fromJson((String) data, type.getElementClass());
+    }
+    byte[] bytes = (byte[]) data;
+
+    if (DictionaryCompression.isCompressed(bytes)) {
+      bytes = compression.decompress(bytes);
+    }
+    if (BinaryElementCodec.isBinaryElement(bytes)) {
+      return binaryCodec.decode(bytes);
+    }
+    return gson.fromJson(new String(bytes, StandardCharsets.UTF_8), type.getElementClass());
+  }
+
+  private JavadocTypeSummary decodeTypeSummary(Object data) {
+    if (!(data instanceof byte[])) {
+      return readJsonTypeSummary((String) data);
+    }
+    byte[] bytes = (byte[]) data;
+
+    if (DictionaryCompression.isCompressed(bytes)) {
+      bytes = compression.decompress(bytes);
+    }
+    if (BinaryElementCodec.isBinaryElement(bytes)) {
+      return binaryCodec.decodeTypeSummary(bytes);
+    }
+    return readJsonTypeSummary(new String(bytes, StandardCharsets.UTF_8));
+  }
+
+  private JavadocTypeSummary readJsonTypeSummary(String json) {
+    // Stream over the type, skipping everything we do not need (most notably the comment)
+    QualifiedName name = null;
+    JavadocType.Type type = null;
+    List<QualifiedName> members = Collections.emptyList();
+
+    try (JsonReader reader = new JsonReader(new StringReader(json))) {
+      reader.beginObject();
+      while (reader.hasNext()) {
+        switch (reader.nextName()) {
+          case "name" -> name = QualifiedName.ofStringWithModule(reader.nextString());
+          case "type" -> type = JavadocType.Type.valueOf(reader.nextString());
+          case "members" -> {
+            members = new ArrayList<>();
+            reader.beginArray();
+            while (reader.hasNext()) {
+              members.add(QualifiedName.ofStringWithModule(reader.nextString()));
+            }
+            reader.endArray();
+          }
+          default -> reader.skipValue();
+        }
+      }
+      reader.endObject();
+    } catch (IOException | IllegalStateException e) {
+      throw new IllegalArgumentException("Corrupt JSON type", e);
+    }
+
+    return new JavadocTypeSummary(name, type, members);
+  }
+
+  private DictionaryCompression getCompression(StatementCachingConnection connection)
       throws SQLException {
+    // Racing threads at worst load the same dictionary twice
+    if (compression == null) {
+      String query = "SELECT value FROM Metadata WHERE key = ?";
+      PreparedStatement statement = connection.prepare(query);
+      statement.setString(1, COMPRESSION_DICTIONARY_KEY);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        if (!resultSet.next()) {
+          throw new SQLException("Found compressed element but no compression dictionary");
+        }
+        compression = new DictionaryCompression(resultSet.getBytes("value"));
+      }
+    }
+    return compression;
+  }
+
+  /**
+   * Reads all elements without decoding them, so they can be decoded on demand later.
+   *
+   * @param connection the connection to use
+   * @return all stored elements
+   * @throws SQLException if an error occurred
+   */
+  List<StoredElement> findAllStored(StatementCachingConnection connection) throws SQLException {
+    String query = "SELECT reversed_qualified_name, qualified_name, type, data\n"
+        + "FROM JavadocElements;";
+    PreparedStatement statement = connection.prepare(query);
+    try (ResultSet resultSet = statement.executeQuery()) {
+      List<StoredElement> elements = new ArrayList<>();
+      while (resultSet.next()) {
+        Object data = resultSet.getObject("data");
+        ensureCompressionLoaded(connection, data);
+        elements.add(new StoredElement(
+            resultSet.getString("reversed_qualified_name"),
+            resultSet.getString("qualified_name"),
+            ElementType.valueOf(resultSet.getString("type")),
+            data
+        ));
+      }
+      return elements;
+    }
+  }
+
+  protected List<JavadocElement> findElementByName(StatementCachingConnection connection,
+      String name) throws SQLException {
     String query = "SELECT * "
         + "FROM JavadocElements\n"
         + "WHERE reversed_qualified_name LIKE ?";
-    try (PreparedStatement statement = connection.prepareStatement(query)) {
-      statement.setString(1, reverse(name) + "%");
-      try (ResultSet resultSet = statement.executeQuery()) {
-        return parseResults(resultSet);
-      }
+    PreparedStatement statement = connection.prepare(query);
+    statement.setString(1, reverse(name) + "%");
+    try (ResultSet resultSet = statement.executeQuery()) {
+      return parseResults(connection, resultSet);
     }
   }
 
-  protected List<JavadocType> findClassByName(Connection connection, String name)
-      throws SQLException {
+  protected List<JavadocType> findClassByName(StatementCachingConnection connection,
+      String name) throws SQLException {
     String query = "SELECT * "
         + "FROM JavadocElements\n"
         + "WHERE reversed_qualified_name LIKE ? AND type = 'TYPE'";
-    try (PreparedStatement statement = connection.prepareStatement(query)) {
-      statement.setString(1, reverse(name) + "%");
-      try (ResultSet resultSet = statement.executeQuery()) {
-        return parseResults(resultSet)
-            .stream()
-            .filter(it -> it instanceof JavadocType)
-            .map(it -> (JavadocType) it)
-            .collect(Collectors.toList());
+    PreparedStatement statement = connection.prepare(query);
+    statement.setString(1, reverse(name) + "%");
+    try (ResultSet resultSet = statement.executeQuery()) {
+      return parseResults(connection, resultSet)
+          .stream()
+          .filter(it -> it instanceof JavadocType)
+          .map(it -> (JavadocType) it)
+          .collect(Collectors.toList());
+    }
+  }
+
+  protected List<JavadocTypeSummary> findClassSummariesByName(
+      StatementCachingConnection connection, String name) throws SQLException {
+    String query = "SELECT data "
+        + "FROM JavadocElements\n"
+        + "WHERE reversed_qualified_name LIKE ? AND type = 'TYPE'";
+    PreparedStatement statement = connection.prepare(query);
+    statement.setString(1, reverse(name) + "%");
+    try (ResultSet resultSet = statement.executeQuery()) {
+      List<JavadocTypeSummary> summaries = new ArrayList<>();
+      while (resultSet.next()) {
+        Object data = resultSet.getObject("data");
+        ensureCompressionLoaded(connection, data);
+        summaries.add(decodeTypeSummary(data));
       }
+      return summaries;
     }
   }
 
-  protected List<JavadocElement> findByQualifiedName(Connection connection, QualifiedName name)
-      throws SQLException {
+  /**
+   * Finds all members of the classes matching the class name, whose simple name ends with the
+   * given member name, ignoring case.
+   *
+   * @param connection the connection to use
+   * @param className the class name, just like in {@link #findClassByName}
+   * @param memberName the suffix of the member's simple name
+   * @return the matching members and their owners, or an empty optional if this index has no
+   *     member table
+   * @throws SQLException if an error occurred
+   */
+  protected Optional<List<QualifiedName>> findMembers(StatementCachingConnection connection,
+      String className, String memberName) throws SQLException {
+    if (!hasMembersTable(connection)) {
+      return Optional.empty();
+    }
+    String suffix = reversedUpperName(memberName);
+    // Only types own members, so the join already filters out everything else. The reversed
+    // suffix is a prefix, which the (owner, simple_name_reversed) index answers as a range.
+    String query = "SELECT Members.qualified_name\n"
+        + "FROM JavadocElements\n"
+        + "JOIN Members ON Members.owner = JavadocElements.qualified_name\n"
+        + "WHERE JavadocElements.reversed_qualified_name LIKE ?\n"
+        + "  AND Members.simple_name_reversed >= ?\n"
+        + "  AND Members.simple_name_reversed < ?\n"
+        + "ORDER BY Members.qualified_name";
+    PreparedStatement statement = connection.prepare(query);
+    statement.setString(1, reverse(className) + "%");
+    statement.setString(2, suffix);
+    // U+10FFFF sorts after every other code point and can not be part of a Java identifier
+    statement.setString(3, suffix + "\uDBFF\uDFFF");
+    try (ResultSet resultSet = statement.executeQuery()) {
+      List<QualifiedName> members = new ArrayList<>();
+      while (resultSet.next()) {
+        members.add(QualifiedName.ofStringWithModule(resultSet.getString("qualified_name")));
+      }
+      return Optional.of(members);
+    }
+  }
+
+  private boolean hasMembersTable(StatementCachingConnection connection) throws SQLException {
+    // Indices written before the member table existed lack it
+    if (hasMembersTable == null) {
+      String query = "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'Members'";
+      try (ResultSet resultSet = connection.prepare(query).executeQuery()) {
+        hasMembersTable = resultSet.next();
+      }
+    }
+    return hasMembersTable;
+  }
+
+  protected List<QualifiedName> findBestElementNames(StatementCachingConnection connection,
+      String name, NameScorer scorer, int limit) throws SQLException {
+    // Only the names are read, so nothing needs to be decoded
+    String query = "SELECT qualified_name "
+        + "FROM JavadocElements\n"
+        + "WHERE reversed_qualified_name LIKE ?";
+    PreparedStatement statement = connection.prepare(query);
+    statement.setString(1, reverse(name) + "%");
+    try (ResultSet resultSet = statement.executeQuery()) {
+      TopK<QualifiedName> best = new TopK<>(limit);
+
+      while (resultSet.next() && !best.isSaturated(scorer.getMaxScore())) {
+        QualifiedName elementName = QualifiedName.ofStringWithModule(
+            resultSet.getString("qualified_name")
+        );
+        best.offer(elementName, scorer.score(elementName));
+      }
+
+      return best.toList();
+    }
+  }
+
+  protected List<JavadocElement> findByQualifiedName(StatementCachingConnection connection,
+      QualifiedName name) throws SQLException {
     String query = "SELECT * "
         + "FROM JavadocElements\n"
         + "WHERE qualified_name = ?";
-    try (PreparedStatement statement = connection.prepareStatement(query)) {
-      statement.setString(1, name.asStringWithModule());
-      try (ResultSet resultSet = statement.executeQuery()) {
-        return parseResults(resultSet);
+    PreparedStatement statement = connection.prepare(query);
+    statement.setString(1, name.asStringWithModule());
+    try (ResultSet resultSet = statement.executeQuery()) {
+      return parseResults(connection, resultSet);
+    }
+  }
+
+  /**
+   * Reads the pre-rendered comment of an element.
+   *
+   * @param connection the connection to use
+   * @param name the qualified name of the element
+   * @param target the format of the rendered comment
+   * @param renderFormat the {@link CommentPreRenderer#getFormat() format} the caller expects
+   * @return the rendered comment or an empty optional if the element has none or the comments
+   *     were rendered in another format
+   * @throws SQLException if an error occurred
+   */
+  protected Optional<String> findPreRenderedComment(StatementCachingConnection connection,
+      QualifiedName name, Target target, String renderFormat) throws SQLException {
+    if (!renderFormat.equals(getStoredRenderFormat(connection))) {
+      return Optional.empty();
+    }
+    String query = "SELECT " + target.getColumn() + "\n"
+        + "FROM JavadocElements\n"
+        + "WHERE qualified_name = ?";
+    PreparedStatement statement = connection.prepare(query);
+    statement.setString(1, name.asStringWithModule());
+    try (ResultSet resultSet = statement.executeQuery()) {
+      if (!resultSet.next()) {
+        return Optional.empty();
+      }
+      return Optional.ofNullable(resultSet.getString(1));
+    }
+  }
+
+  private String getStoredRenderFormat(StatementCachingConnection connection)
+      throws SQLException {
+    // Racing threads at worst read the format twice. Read connections can not create the
+    // metadata table, so check whether it exists first.
+    if (storedRenderFormat == null) {
+      String renderFormat = "";
+      String tableQuery = "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'Metadata'";
+      try (ResultSet tables = connection.prepare(tableQuery).executeQuery()) {
+        if (tables.next()) {
+          PreparedStatement statement = connection.prepare(
+              "SELECT value FROM Metadata WHERE key = ?"
+          );
+          statement.setString(1, RENDER_FORMAT_KEY);
+          try (ResultSet resultSet = statement.executeQuery()) {
+            if (resultSet.next()) {
+              renderFormat = new String(resultSet.getBytes("value"), StandardCharsets.UTF_8);
+            }
+          }
+        }
+      }
+      storedRenderFormat = renderFormat;
+    }
+    return storedRenderFormat;
+  }
+
+  /**
+   * A row of the elements table whose payload was not decoded yet.
+   */
+  final class StoredElement {
+
+    private final String reversedName;
+    private final String qualifiedName;
+    private final ElementType type;
+    private final Object data;
+
+    private StoredElement(String reversedName, String qualifiedName, ElementType type,
+        Object data) {
+      this.reversedName = reversedName;
+      this.qualifiedName = qualifiedName;
+      this.type = type;
+      this.data = data;
+    }
+
+    /**
+     * @return the reversed qualified name (with module) without any parameters
+     */
+    String getReversedName() {
+      return reversedName;
+    }
+
+    /**
+     * @return the qualified name with module
+     */
+    String getQualifiedName() {
+      return qualifiedName;
+    }
+
+    /**
+     * @return true if the element is a type
+     */
+    boolean isType() {
+      return type == ElementType.TYPE;
+    }
+
+    /**
+     * Decodes the payload. This is not cached, every call decodes anew.
+     *
+     * @return the decoded element
+     */
+    JavadocElement decode() {
+      return SqlStorage.this.decode(type, data);
+    }
+
+    /**
+     * Decodes only a summary of the type.
+     *
+     * @return the decoded summary
+     * @throws IllegalStateException if this element is no type
+     */
+    JavadocTypeSummary decodeTypeSummary() {
+      if (!isType()) {
+        throw new IllegalStateException("Not a type: " + qualifiedName);
       }
+      return SqlStorage.this.decodeTypeSummary(data);
     }
   }
 
@@ -0,0 +1,144 @@
+package de.ialistannen.javadocapi.storage;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * A small bounded pool of long-lived read connections to a single SQLite database. Connections
+ * are opened lazily the first time they are needed and kept open until the pool is closed.
+ * <p>
+ * All state is guarded by the pool's monitor, which threads waiting for a connection wait on.
+ */
+class SqliteConnectionPool implements AutoCloseable {
+
+  private final String url;
+  private final Properties properties;
+  private final int size;
+  private final Deque<StatementCachingConnection> idleConnections;
+
+  private int openConnections;
+  private boolean closed;
+
+  /**
+   * Creates a new pool. No connection is opened until {@link #acquire()} is called.
+   *
+   * @param url the jdbc url to connect to
+   * @param properties the connection properties to pass to the driver
+   * @param size the maximum amount of open connections
+   */
+  SqliteConnectionPool(String url, Properties properties, int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Pool size must be positive, was " + size);
+    }
+    this.url = url;
+    this.properties = properties;
+    this.size = size;
+    this.idleConnections = new ArrayDeque<>(size);
+  }
+
+  /**
+   * Borrows a connection from the pool, opening a new one if the pool is not exhausted yet and
+   * waiting for one to be {@link #release(StatementCachingConnection) released} otherwise.
+   *
+   * @return the connection
+   * @throws SQLException if opening a connection failed, the pool was closed or the thread was
+   *     interrupted while waiting
+   */
+  StatementCachingConnection acquire() throws SQLException {
+    synchronized (this) {
+      while (true) {
+        ensureOpen();
+        StatementCachingConnection connection = idleConnections.pollFirst();
+        if (connection != null) {
+          return connection;
+        }
+        if (openConnections < size) {
+          // Reserve the slot, the connection is opened without holding the lock
+          openConnections++;
+          break;
+        }
+
+        try {
+          wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+      }
+    }
+
+    try {
+      return new StatementCachingConnection(DriverManager.getConnection(url, properties));
+    } catch (SQLException e) {
+      synchronized (this) {
+        openConnections--;
+        notifyAll();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Returns a connection to the pool. If the pool was closed in the meantime, the connection is
+   * closed instead.
+   *
+   * @param connection the connection to return
+   * @throws SQLException if closing the connection failed
+   */
+  void release(StatementCachingConnection connection) throws SQLException {
+    synchronized (this) {
+      if (!closed) {
+        idleConnections.addLast(connection);
+        notify();
+        return;
+      }
+      openConnections--;
+    }
+    connection.close();
+  }
+
+  private void ensureOpen() throws SQLException {
+    if (closed) {
+      throw new SQLException("Connection pool for " + url + " is closed");
+    }
+  }
+
+  /**
+   * Closes all idle connections. Connections currently in use are closed when they are released.
+   *
+   * @throws SQLException if closing a connection failed
+   */
+  @Override
+  public void close() throws SQLException {
+    List<StatementCachingConnection> toClose;
+    synchronized (this) {
+      closed = true;
+      toClose = new ArrayList<>(idleConnections);
+      idleConnections.clear();
+      openConnections -= toClose.size();
+      // Waiting threads fail instead of waiting for connections that never come back
+      notifyAll();
+    }
+
+    SQLException exception = null;
+    for (StatementCachingConnection connection : toClose) {
+      try {
+        connection.close();
+      } catch (SQLException e) {
+        if (exception == null) {
+          exception = e;
+        } else {
+          exception.addSuppressed(e);
+        }
+      }
+    }
+    if (exception != null) {
+      throw exception;
+    }
+  }
+}
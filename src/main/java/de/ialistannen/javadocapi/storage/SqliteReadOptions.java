@@ -0,0 +1,135 @@
+package de.ialistannen.javadocapi.storage;
+
+import java.nio.file.Path;
+import java.util.Properties;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteConfig.Pragma;
+import org.sqlite.SQLiteOpenMode;
+
+/**
+ * Configures how a {@link SqliteStorage} opens its read connections.
+ * <p>
+ * The {@link #defaults() default} mode opens the database read-only with SQLite's default pragmas.
+ * The {@link #serving() serving} mode is tuned for indices that are never modified while they are
+ * being queried: The file is opened as immutable, which skips all file locking and change
+ * detection, it is memory-mapped and connections share a large page cache.
+ */
+public class SqliteReadOptions {
+
+  private final int connections;
+  private final boolean immutable;
+  private final long mmapSize;
+  private final int cacheSizeKib;
+  private final boolean sharedCache;
+
+  /**
+   * Creates new read options.
+   *
+   * @param connections the maximum amount of pooled read connections
+   * @param immutable whether the file can be assumed to never change while it is open. This
+   *     disables all locking, so the file must not be written to by anybody!
+   * @param mmapSize the maximum amount of bytes to memory-map or 0 to use SQLite's default
+   * @param cacheSizeKib the page cache size in KiB or 0 to use SQLite's default
+   * @param sharedCache whether connections should share a single page cache
+   */
+  public SqliteReadOptions(int connections, boolean immutable, long mmapSize, int cacheSizeKib,
+      boolean sharedCache) {
+    this.connections = connections;
+    this.immutable = immutable;
+    this.mmapSize = mmapSize;
+    this.cacheSizeKib = cacheSizeKib;
+    this.sharedCache = sharedCache;
+  }
+
+  /**
+   * @return read-only connections using SQLite's default settings
+   */
+  public static SqliteReadOptions defaults() {
+    return new SqliteReadOptions(SqliteStorage.DEFAULT_READ_CONNECTIONS, false, 0, 0, false);
+  }
+
+  /**
+   * Returns options for serving queries from an index that is not modified anymore. The file is
+   * opened immutable, up to 1 GiB of it is memory-mapped and all connections share a 64 MiB page
+   * cache.
+   *
+   * @return read options tuned for serving an immutable index
+   */
+  public static SqliteReadOptions serving() {
+    return new SqliteReadOptions(
+        SqliteStorage.DEFAULT_READ_CONNECTIONS,
+        true,
+        1024L * 1024 * 1024,
+        64 * 1024,
+        true
+    );
+  }
+
+  /**
+   * @param connections the maximum amount of pooled read connections
+   * @return a copy of these options with the given amount of connections
+   */
+  public SqliteReadOptions withConnections(int connections) {
+    return new SqliteReadOptions(connections, immutable, mmapSize, cacheSizeKib, sharedCache);
+  }
+
+  public int getConnections() {
+    return connections;
+  }
+
+  public boolean isImmutable() {
+    return immutable;
+  }
+
+  public long getMmapSize() {
+    return mmapSize;
+  }
+
+  public int getCacheSizeKib() {
+    return cacheSizeKib;
+  }
+
+  public boolean isSharedCache() {
+    return sharedCache;
+  }
+
+  String buildUrl(Path file) {
+    if (!immutable) {
+      return "jdbc:sqlite:" + file.toAbsolutePath();
+    }
+    // The URI form is needed to pass the "immutable" parameter, which also implies "nolock"
+    return "jdbc:sqlite:" + file.toAbsolutePath().toUri() + "?immutable=1";
+  }
+
+  Properties buildProperties() {
+    SQLiteConfig config = new SQLiteConfig();
+    config.setReadOnly(true);
+
+    if (immutable) {
+      config.setOpenMode(SQLiteOpenMode.OPEN_URI);
+    }
+    if (sharedCache) {
+      config.setSharedCache(true);
+    }
+    if (mmapSize > 0) {
+      config.setPragma(Pragma.MMAP_SIZE, Long.toString(mmapSize));
+    }
+    if (cacheSizeKib > 0) {
+      // Negative values are interpreted as KiB instead of pages
+      config.setCacheSize(-cacheSizeKib);
+    }
+
+    return config.toProperties();
+  }
+
+  @Override
+  public String toString() {
+    return "SqliteReadOptions{" +
+        "connections=" + connections +
+        ", immutable=" + immutable +
+        ", mmapSize=" + mmapSize +
+        ", cacheSizeKib=" + cacheSizeKib +
+        ", sharedCache=" + sharedCache +
+        '}';
+  }
+}
@@ -4,6 +4,7 @@ import com.google.gson.Gson;
 import de.ialistannen.javadocapi.model.JavadocElement;
 import de.ialistannen.javadocapi.model.QualifiedName;
 import de.ialistannen.javadocapi.model.types.JavadocType;
+import de.ialistannen.javadocapi.model.types.JavadocTypeSummary;
 import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.DriverManager;
@@ -12,16 +13,62 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-public class SqliteStorage extends SqlStorage implements ElementLoader {
+/**
+ * An {@link ElementLoader} backed by a SQLite database file.
+ * <p>
+ * Queries are answered using a bounded pool of long-lived read-only connections, which is created
+ * lazily and must be released using {@link #close()} once the storage is no longer needed.
+ */
+public class SqliteStorage extends SqlStorage implements ElementLoader, AutoCloseable {
+
+  /**
+   * The default maximum amount of read connections kept open at the same time.
+   */
+  public static final int DEFAULT_READ_CONNECTIONS = Runtime.getRuntime().availableProcessors();
 
   private final Path file;
+  private final SqliteConnectionPool readPool;
 
   public SqliteStorage(Gson gson, Path file) {
-    super(gson);
+    this(gson, file, SqliteReadOptions.defaults());
+  }
+
+  /**
+   * Creates a new storage for the given file, writing new elements with the
+   * {@link SqliteWriteOptions#defaults() default} write options.
+   *
+   * @param gson the gson instance to use for (de-)serializing elements
+   * @param file the database file
+   * @param readOptions the options to use when opening read connections
+   */
+  public SqliteStorage(Gson gson, Path file, SqliteReadOptions readOptions) {
+    this(gson, file, SqliteWriteOptions.defaults(), readOptions);
+  }
+
+  /**
+   * Creates a new storage for the given file.
+   *
+   * @param gson the gson instance to use for (de-)serializing elements
+   * @param file the database file
+   * @param writeOptions the options to write new elements with
+   * @param readOptions the options to use when opening read connections
+   */
+  public SqliteStorage(Gson gson, Path file, SqliteWriteOptions writeOptions,
+      SqliteReadOptions readOptions) {
+    super(gson, writeOptions);
     this.file = file;
+    this.readPool = new SqliteConnectionPool(
+        readOptions.buildUrl(file),
+        readOptions.buildProperties(),
+        readOptions.getConnections()
+    );
   }
 
   /**
@@ -32,84 +79,244 @@ public class SqliteStorage extends SqlStorage implements ElementLoader {
   }
 
   /**
-   * Adds the given elements to this storage, writing it out to disk.
+   * Adds the given elements to this storage, writing it out to disk. Their comments are
+   * {@link #preRender(JavadocElement) pre-rendered} on the calling thread.
    *
    * @param elements the elements to add
    */
   public void addAll(List<JavadocElement> elements) {
-    withConnection(connection -> {
-      super.addAll(elements, connection);
-      String createFtsTable = """
-          CREATE VIRTUAL TABLE Completions USING fts5
-          (
-              qualified_name,
-              priority
-          );""";
-
-      try (PreparedStatement preparedStatement = connection.prepareStatement(createFtsTable)) {
-        preparedStatement.execute();
+    List<PreRenderedElement> batch = elements.stream()
+        .map(this::preRender)
+        .collect(Collectors.toList());
+    addBatches(List.of(batch).iterator());
+  }
+
+  /**
+   * Adds all batches of elements to this storage, writing them out to disk using a single
+   * connection. The iterator may block while waiting for the next batch.
+   * <p>
+   * If compression is enabled, the dictionary is trained on the first batch only, so it should be
+   * reasonably large and representative.
+   *
+   * @param batches the batches of {@link #preRender(JavadocElement) pre-rendered} elements to add
+   * @see StreamingElementWriter
+   */
+  public void addBatches(Iterator<List<PreRenderedElement>> batches) {
+    withWriteConnection(connection -> {
+      while (batches.hasNext()) {
+        addBatch(batches.next(), connection);
       }
+      return null;
+    });
+  }
+
+  private void addBatch(List<PreRenderedElement> elements, Connection connection)
+      throws SQLException {
+    super.addAll(elements, connection);
+    String createFtsTable = """
+        CREATE VIRTUAL TABLE IF NOT EXISTS Completions USING fts5
+        (
+            qualified_name,
+            priority
+        );""";
+
+    try (PreparedStatement preparedStatement = connection.prepareStatement(createFtsTable)) {
+      preparedStatement.execute();
+    }
 
-      String insert = "INSERT INTO Completions VALUES (?, ?);";
-      try (PreparedStatement statement = connection.prepareStatement(insert)) {
-        connection.setAutoCommit(false);
-
-        for (int i = 0; i < elements.size(); i++) {
-          JavadocElement element = elements.get(i);
-          String fullName = element.getQualifiedName().asStringWithModule();
-          statement.setString(1, fullName);
-          statement.setInt(2, element instanceof JavadocType ? 10 : 0);
-          statement.addBatch();
-          if (i % 1000 == 0) {
-            statement.executeBatch();
-            connection.commit();
-          }
+    String insert = "INSERT INTO Completions VALUES (?, ?);";
+    try (PreparedStatement statement = connection.prepareStatement(insert)) {
+      boolean ownTransaction = beginTransaction(connection);
+
+      for (int i = 0; i < elements.size(); i++) {
+        JavadocElement element = elements.get(i).getElement();
+        String fullName = element.getQualifiedName().asStringWithModule();
+        statement.setString(1, fullName);
+        statement.setInt(2, element instanceof JavadocType ? 10 : 0);
+        statement.addBatch();
+        if (i % 1000 == 0) {
+          statement.executeBatch();
+          commitBatch(connection, ownTransaction);
         }
+      }
+
+      statement.executeBatch();
+      endTransaction(connection, ownTransaction);
+    }
+  }
+
+  /**
+   * @return all recorded source units and their content hashes
+   * @throws FetchException if an error occurs while reading
+   * @see #replaceSourceUnits(Collection, Iterator, Map, Supplier)
+   */
+  public Map<String, String> findSourceUnits() {
+    return withWriteConnection(super::findSourceUnits);
+  }
+
+  @Override
+  protected void deleteRemovedNames(Connection connection) throws SQLException {
+    super.deleteRemovedNames(connection);
+
+    String delete = "DELETE FROM Completions WHERE qualified_name IN (SELECT * FROM RemovedNames);";
+    try (PreparedStatement statement = connection.prepareStatement(delete)) {
+      statement.execute();
+    }
+  }
 
-        statement.executeBatch();
+  /**
+   * Replaces the elements of changed source units in a single transaction. The elements of the
+   * removed units are deleted, the new batches are added and the units are recorded with their
+   * hashes and element names. If reading a batch or writing fails, nothing is changed.
+   *
+   * @param removedUnits the paths of the units whose elements are deleted
+   * @param batches the batches of new elements. The iterator may block while waiting for the next
+   *     batch.
+   * @param hashes the content hashes of the units to record
+   * @param elementNames supplies the qualified names, including the module, of the elements per
+   *     unit. Called once all batches were read.
+   * @throws FetchException if an error occurs while writing
+   * @see StreamingElementWriter
+   */
+  public void replaceSourceUnits(Collection<String> removedUnits,
+      Iterator<List<PreRenderedElement>> batches, Map<String, String> hashes,
+      Supplier<? extends Map<String, ? extends Collection<String>>> elementNames) {
+    withWriteConnection(connection -> {
+      connection.setAutoCommit(false);
+      try {
+        super.removeSourceUnits(removedUnits, connection);
+        while (batches.hasNext()) {
+          addBatch(batches.next(), connection);
+        }
+        super.addSourceUnits(hashes, elementNames.get(), connection);
         connection.commit();
-        connection.setAutoCommit(true);
+      } catch (SQLException | RuntimeException e) {
+        connection.rollback();
+        throw e;
       }
+      return null;
+    });
+  }
 
+  /**
+   * Reads a value from the metadata of this storage.
+   *
+   * @param key the key to read
+   * @return the value, if any
+   * @throws FetchException if an error occurs while reading
+   */
+  public Optional<byte[]> readMetadata(String key) {
+    return withWriteConnection(connection -> super.readMetadata(connection, key));
+  }
+
+  /**
+   * Writes a value to the metadata of this storage, replacing any previous value.
+   *
+   * @param key the key to write
+   * @param value the value
+   * @throws FetchException if an error occurs while writing
+   */
+  public void writeMetadata(String key, byte[] value) {
+    withWriteConnection(connection -> {
+      super.writeMetadata(connection, key, value);
       return null;
     });
   }
 
   @Override
   public Collection<LoadResult<JavadocElement>> findAll() {
-    return withConnection(connection -> super.findAll(connection)
+    return withReadConnection(connection -> super.findAll(connection)
         .stream()
         .map(element -> new LoadResult<>(element, this))
         .collect(Collectors.toList()));
   }
 
+  /**
+   * Reads all elements without decoding them.
+   *
+   * @return all stored elements
+   * @throws FetchException if an error occurs
+   */
+  List<StoredElement> findAllStored() {
+    return withReadConnection(super::findAllStored);
+  }
+
   @Override
   public Collection<LoadResult<JavadocType>> findClassByName(String name) {
-    return withConnection(connection -> super.findClassByName(connection, name)
+    return withReadConnection(connection -> super.findClassByName(connection, name)
+        .stream()
+        .map(element -> new LoadResult<>(element, this))
+        .collect(Collectors.toList()));
+  }
+
+  @Override
+  public Collection<LoadResult<JavadocTypeSummary>> findClassSummariesByName(String name) {
+    return withReadConnection(connection -> super.findClassSummariesByName(connection, name)
         .stream()
         .map(element -> new LoadResult<>(element, this))
         .collect(Collectors.toList()));
   }
 
+  @Override
+  public Collection<LoadResult<QualifiedName>> findMembersByName(String className,
+      String memberName) {
+    Optional<List<QualifiedName>> members = withReadConnection(
+        connection -> super.findMembers(connection, className, memberName)
+    );
+    if (members.isEmpty()) {
+      return ElementLoader.super.findMembersByName(className, memberName);
+    }
+    return members.get()
+        .stream()
+        .map(member -> new LoadResult<>(member, this))
+        .collect(Collectors.toList());
+  }
+
   @Override
   public Collection<LoadResult<JavadocElement>> findElementByName(String name) {
-    return withConnection(connection -> super.findElementByName(connection, name)
+    return withReadConnection(connection -> super.findElementByName(connection, name)
         .stream()
         .map(element -> new LoadResult<>(element, this))
         .collect(Collectors.toList()));
   }
 
+  @Override
+  public Collection<LoadResult<QualifiedName>> findBestElementNames(String name,
+      NameScorer scorer, int limit) {
+    return withReadConnection(
+        connection -> super.findBestElementNames(connection, name, scorer, limit)
+    )
+        .stream()
+        .map(element -> new LoadResult<>(element, this))
+        .collect(Collectors.toList());
+  }
+
   @Override
   public Collection<LoadResult<JavadocElement>> findByQualifiedName(QualifiedName name) {
-    return withConnection(connection -> super.findByQualifiedName(connection, name))
+    return withReadConnection(connection -> super.findByQualifiedName(connection, name))
         .stream()
         .map(element -> new LoadResult<>(element, this))
         .collect(Collectors.toList());
   }
 
+  /**
+   * Returns the comment of an element as pre-rendered by the indexer.
+   *
+   * @param name the qualified name of the element
+   * @param target the format of the rendered comment
+   * @param renderFormat the {@link CommentPreRenderer#getFormat() format} the caller expects
+   * @return the rendered comment or an empty optional if there is none or it is stale
+   */
+  public Optional<String> findPreRenderedComment(QualifiedName name,
+      CommentPreRenderer.Target target, String renderFormat) {
+    return withReadConnection(
+        connection -> super.findPreRenderedComment(connection, name, target, renderFormat)
+    );
+  }
+
   @Override
   public Collection<String> autocomplete(String prompt) {
-    return withConnection(connection -> {
+    return withReadConnection(connection -> {
       String sanitizedPrompt = '"' + prompt.replace("\"", "\"\"") + '"';
 
       String query = """
@@ -118,20 +325,19 @@ public class SqliteStorage extends SqlStorage implements ElementLoader {
           WHERE qualified_name MATCH ? AND rank MATCH 'bm25(10.0, 5.0)'
           ORDER BY priority DESC, rank DESC;""";
 
-      try (PreparedStatement statement = connection.prepareStatement(query)) {
-        statement.setString(1, sanitizedPrompt);
-        try (ResultSet resultSet = statement.executeQuery()) {
-          List<String> results = new ArrayList<>();
-          while (resultSet.next()) {
-            results.add(resultSet.getString("qualified_name"));
-          }
-          return results;
+      PreparedStatement statement = connection.prepare(query);
+      statement.setString(1, sanitizedPrompt);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        List<String> results = new ArrayList<>();
+        while (resultSet.next()) {
+          results.add(resultSet.getString("qualified_name"));
         }
+        return results;
       }
     });
   }
 
-  private <T> T withConnection(SqlCallable<T> callable) {
+  private <T> T withWriteConnection(SqlCallable<Connection, T> callable) {
     try (Connection connection = DriverManager.getConnection(buildUrl(file))) {
       return callable.get(connection);
     } catch (SQLException e) {
@@ -139,6 +345,33 @@ public class SqliteStorage extends SqlStorage implements ElementLoader {
     }
   }
 
+  private <T> T withReadConnection(SqlCallable<StatementCachingConnection, T> callable) {
+    try {
+      StatementCachingConnection connection = readPool.acquire();
+      try {
+        return callable.get(connection);
+      } finally {
+        readPool.release(connection);
+      }
+    } catch (SQLException e) {
+      throw new FetchException(e);
+    }
+  }
+
+  /**
+   * Closes all pooled read connections. Reading from this storage after it was closed will fail.
+   *
+   * @throws FetchException if an error occurs while closing a connection
+   */
+  @Override
+  public void close() {
+    try {
+      readPool.close();
+    } catch (SQLException e) {
+      throw new FetchException(e);
+    }
+  }
+
   private String buildUrl(Path file) {
     return "jdbc:sqlite:" + file.toAbsolutePath();
   }
@@ -148,9 +381,9 @@ public class SqliteStorage extends SqlStorage implements ElementLoader {
     return "sqlite:" + file.getFileName();
   }
 
-  private interface SqlCallable<T> {
+  private interface SqlCallable<C, T> {
 
-    T get(Connection connection) throws SQLException;
+    T get(C connection) throws SQLException;
   }
 
 }
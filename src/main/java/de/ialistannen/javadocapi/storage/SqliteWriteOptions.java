@@ -0,0 +1,77 @@
+package de.ialistannen.javadocapi.storage;
+
+import java.util.Optional;
+
+/**
+ * Configures how a {@link SqlStorage} writes new elements. Elements are always readable, no
+ * matter which options they were written with.
+ * <p>
+ * The {@link #defaults() defaults} write uncompressed JSON without pre-rendered comments. Every
+ * other option is set by name through the {@code with} methods.
+ */
+public class SqliteWriteOptions {
+
+  private final ElementFormat format;
+  private final boolean compress;
+  private final CommentPreRenderer preRenderer;
+
+  private SqliteWriteOptions(ElementFormat format, boolean compress,
+      CommentPreRenderer preRenderer) {
+    this.format = format;
+    this.compress = compress;
+    this.preRenderer = preRenderer;
+  }
+
+  /**
+   * @return options writing uncompressed JSON without pre-rendered comments
+   */
+  public static SqliteWriteOptions defaults() {
+    return new SqliteWriteOptions(ElementFormat.JSON, false, null);
+  }
+
+  /**
+   * @param format the format to write new elements in
+   * @return a copy of these options with the given format
+   */
+  public SqliteWriteOptions withFormat(ElementFormat format) {
+    return new SqliteWriteOptions(format, compress, preRenderer);
+  }
+
+  /**
+   * @param compress whether to compress new elements with a dictionary trained on them
+   * @return a copy of these options with the given compression setting
+   */
+  public SqliteWriteOptions withCompression(boolean compress) {
+    return new SqliteWriteOptions(format, compress, preRenderer);
+  }
+
+  /**
+   * @param preRenderer the renderer to pre-render the comments of new elements with or null to
+   *     not pre-render them
+   * @return a copy of these options with the given pre-renderer
+   */
+  public SqliteWriteOptions withPreRenderer(CommentPreRenderer preRenderer) {
+    return new SqliteWriteOptions(format, compress, preRenderer);
+  }
+
+  public ElementFormat getFormat() {
+    return format;
+  }
+
+  public boolean isCompress() {
+    return compress;
+  }
+
+  public Optional<CommentPreRenderer> getPreRenderer() {
+    return Optional.ofNullable(preRenderer);
+  }
+
+  @Override
+  public String toString() {
+    return "SqliteWriteOptions{" +
+        "format=" + format +
+        ", compress=" + compress +
+        ", preRenderer=" + preRenderer +
+        '}';
+  }
+}
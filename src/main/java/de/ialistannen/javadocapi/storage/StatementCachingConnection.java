@@ -0,0 +1,63 @@
+package de.ialistannen.javadocapi.storage;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A JDBC connection that caches its prepared statements by their SQL text, so SQLite does not need
+ * to parse the same query over and over again.
+ * <p>
+ * Statements returned by {@link #prepare(String)} are owned by this connection and must not be
+ * closed by the caller. Just like a normal JDBC connection, instances are not safe for concurrent
+ * use.
+ */
+public class StatementCachingConnection implements AutoCloseable {
+
+  private final Connection connection;
+  private final Map<String, PreparedStatement> statements;
+
+  public StatementCachingConnection(Connection connection) {
+    this.connection = connection;
+    this.statements = new HashMap<>();
+  }
+
+  /**
+   * @return the underlying connection
+   */
+  public Connection getConnection() {
+    return connection;
+  }
+
+  /**
+   * Returns a prepared statement for the given SQL, reusing a previously prepared one if possible.
+   *
+   * @param sql the sql to prepare
+   * @return the prepared statement. Must not be closed by the caller.
+   * @throws SQLException if an error occurs
+   */
+  public PreparedStatement prepare(String sql) throws SQLException {
+    PreparedStatement statement = statements.get(sql);
+
+    if (statement == null || statement.isClosed()) {
+      statement = connection.prepareStatement(sql);
+      statements.put(sql, statement);
+    }
+
+    return statement;
+  }
+
+  @Override
+  public void close() throws SQLException {
+    try {
+      for (PreparedStatement statement : statements.values()) {
+        statement.close();
+      }
+      statements.clear();
+    } finally {
+      connection.close();
+    }
+  }
+}
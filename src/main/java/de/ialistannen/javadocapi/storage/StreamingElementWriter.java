@@ -0,0 +1,239 @@
+package de.ialistannen.javadocapi.storage;
+
+import de.ialistannen.javadocapi.storage.ElementLoader.FetchException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Writes elements to a {@link SqliteStorage} on a dedicated thread while they are still being
+ * produced.
+ * <p>
+ * Elements are handed over through a bounded queue, so producers block once the writer falls
+ * behind by more than the queue capacity. Comments are {@link SqlStorage#preRender pre-rendered}
+ * by the producers, the writer only serializes and inserts the elements in batches. If writing
+ * fails, all further elements are discarded, {@link #accept(PreRenderedElement)} throws so
+ * producers stop and the failure is rethrown by {@link #close()}. If producing fails instead,
+ * {@link #abort()} stops the writer without finishing the stream.
+ */
+public class StreamingElementWriter implements Consumer<PreRenderedElement>, AutoCloseable {
+
+  private final Consumer<Iterator<List<PreRenderedElement>>> target;
+  private final BlockingQueue<QueuedElement> queue;
+  private final int batchSize;
+  private final Thread writerThread;
+
+  private volatile RuntimeException failure;
+  private volatile boolean closed;
+  private volatile boolean aborted;
+  // Only accessed by the writer thread
+  private boolean endTaken;
+  private boolean firstBatch;
+
+  /**
+   * Creates a new writer and starts its writer thread.
+   *
+   * @param storage the storage to write to
+   * @param batchSize the maximum amount of elements inserted in one batch. If compression is
+   *     enabled, the dictionary is trained on the first batch, which is always full unless the
+   *     stream ends before.
+   * @param capacity the maximum amount of elements waiting to be written
+   */
+  public StreamingElementWriter(SqliteStorage storage, int batchSize, int capacity) {
+    this(storage::addBatches, batchSize, capacity);
+  }
+
+  /**
+   * Creates a new writer and starts its writer thread.
+   *
+   * @param target writes all batches of the passed iterator. Called once on the writer thread,
+   *     the iterator throws if the writer is {@link #abort() aborted}.
+   * @param batchSize the maximum amount of elements in one batch
+   * @param capacity the maximum amount of elements waiting to be written
+   * @see SqliteStorage#replaceSourceUnits
+   */
+  public StreamingElementWriter(Consumer<Iterator<List<PreRenderedElement>>> target, int batchSize,
+      int capacity) {
+    this.target = target;
+    this.batchSize = batchSize;
+    this.queue = new ArrayBlockingQueue<>(capacity);
+    this.firstBatch = true;
+
+    this.writerThread = new Thread(this::write, "element-writer");
+    this.writerThread.setDaemon(true);
+    this.writerThread.start();
+  }
+
+  /**
+   * Queues an element for writing, blocking while the queue is full.
+   *
+   * @param element the pre-rendered element to write
+   * @throws IllegalStateException if the writer was already closed
+   * @throws FetchException if writing failed or the thread is interrupted while waiting
+   */
+  @Override
+  public void accept(PreRenderedElement element) {
+    if (closed) {
+      throw new IllegalStateException("Writer is already closed");
+    }
+    if (failure != null) {
+      throw new FetchException(failure);
+    }
+    put(new QueuedElement(element));
+  }
+
+  private void put(QueuedElement element) {
+    try {
+      queue.put(element);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FetchException(e);
+    }
+  }
+
+  private void write() {
+    try {
+      target.accept(new BatchIterator());
+    } catch (RuntimeException e) {
+      failure = e;
+      // Keep draining so producers never block on a dead writer
+      try {
+        while (!endTaken && !queue.take().isEnd()) {
+          // discard
+        }
+      } catch (InterruptedException ignored) {
+      }
+    }
+  }
+
+  /**
+   * Writes all queued elements and waits for the writer thread to finish.
+   *
+   * @throws FetchException if writing failed or the thread is interrupted while waiting
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    put(QueuedElement.END);
+
+    try {
+      writerThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FetchException(e);
+    }
+
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Stops writing without finishing the stream, for example because producing the elements
+   * failed. Queued elements are discarded and the batch iterator throws, so a target writing all
+   * batches in one transaction changes nothing. Does nothing if the writer was already closed.
+   *
+   * @throws FetchException if the thread is interrupted while waiting
+   */
+  public void abort() {
+    if (closed) {
+      return;
+    }
+    aborted = true;
+    closed = true;
+    put(QueuedElement.END);
+
+    try {
+      writerThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FetchException(e);
+    }
+  }
+
+  private class BatchIterator implements Iterator<List<PreRenderedElement>> {
+
+    private List<PreRenderedElement> next;
+
+    @Override
+    public boolean hasNext() {
+      if (next != null) {
+        return true;
+      }
+      if (aborted) {
+        throw new IllegalStateException("Writing was aborted");
+      }
+      if (endTaken) {
+        return false;
+      }
+
+      List<PreRenderedElement> batch = new ArrayList<>(batchSize);
+      try {
+        // Wait for the first element, then take everything that is already there
+        QueuedElement element = queue.take();
+        while (!element.isEnd()) {
+          batch.add(element.element);
+          if (batch.size() >= batchSize) {
+            break;
+          }
+          element = queue.poll();
+          if (element == null) {
+            // Only finish the batch early if it is worth a transaction on its own
+            if (!firstBatch && batch.size() >= batchSize / 4) {
+              break;
+            }
+            element = queue.take();
+          }
+        }
+        endTaken = element != null && element.isEnd();
+        firstBatch = false;
+        if (aborted) {
+          throw new IllegalStateException("Writing was aborted");
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new FetchException(e);
+      }
+
+      if (!batch.isEmpty()) {
+        next = batch;
+      }
+      return next != null;
+    }
+
+    @Override
+    public List<PreRenderedElement> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      List<PreRenderedElement> batch = next;
+      next = null;
+      return batch;
+    }
+  }
+
+  /**
+   * An element waiting to be written or the end of the stream.
+   */
+  private static class QueuedElement {
+
+    private static final QueuedElement END = new QueuedElement(null);
+
+    private final PreRenderedElement element;
+
+    private QueuedElement(PreRenderedElement element) {
+      this.element = element;
+    }
+
+    private boolean isEnd() {
+      return this == END;
+    }
+  }
+}
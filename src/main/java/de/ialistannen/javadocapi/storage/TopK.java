@@ -0,0 +1,94 @@
+package de.ialistannen.javadocapi.storage;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the best {@code limit} values offered to it. Values with the same score are ordered by
+ * the time they were offered, earlier values win.
+ *
+ * @param <T> the type of the values
+ */
+public class TopK<T> {
+
+  // The worst entry is at the head, so it can be replaced cheaply
+  private static final Comparator<Entry<?>> WORST_FIRST = Comparator
+      .<Entry<?>>comparingInt(it -> it.score)
+      .thenComparing(Comparator.<Entry<?>>comparingLong(it -> it.sequence).reversed());
+
+  private final int limit;
+  private final PriorityQueue<Entry<T>> entries;
+  private long sequence;
+
+  /**
+   * @param limit the amount of values to keep
+   */
+  public TopK(int limit) {
+    this.limit = limit;
+    this.entries = new PriorityQueue<>(WORST_FIRST);
+  }
+
+  /**
+   * Offers a value. Values with a negative score are ignored.
+   *
+   * @param value the value
+   * @param score the score of the value
+   * @return true if the value is currently part of the best values
+   */
+  public boolean offer(T value, int score) {
+    if (score < 0 || limit <= 0) {
+      return false;
+    }
+    Entry<T> entry = new Entry<>(value, score, sequence++);
+
+    if (entries.size() < limit) {
+      entries.add(entry);
+      return true;
+    }
+    if (WORST_FIRST.compare(entry, entries.peek()) <= 0) {
+      return false;
+    }
+    entries.poll();
+    entries.add(entry);
+    return true;
+  }
+
+  /**
+   * Checks whether no value offered from now on can make it into the result anymore.
+   *
+   * @param maxScore the highest score any value can have
+   * @return true if all kept values have the highest score
+   */
+  public boolean isSaturated(int maxScore) {
+    return entries.size() >= limit && (limit <= 0 || entries.peek().score >= maxScore);
+  }
+
+  /**
+   * @return the kept values, best first
+   */
+  public List<T> toList() {
+    List<Entry<T>> sorted = new ArrayList<>(entries);
+    sorted.sort(WORST_FIRST.reversed());
+
+    List<T> result = new ArrayList<>(sorted.size());
+    for (Entry<T> entry : sorted) {
+      result.add(entry.value);
+    }
+    return result;
+  }
+
+  private static class Entry<T> {
+
+    private final T value;
+    private final int score;
+    private final long sequence;
+
+    private Entry(T value, int score, long sequence) {
+      this.value = value;
+      this.score = score;
+      this.sequence = sequence;
+    }
+  }
+}
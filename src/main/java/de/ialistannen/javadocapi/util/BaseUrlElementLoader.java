@@ -3,8 +3,10 @@ package de.ialistannen.javadocapi.util;
 import de.ialistannen.javadocapi.model.JavadocElement;
 import de.ialistannen.javadocapi.model.QualifiedName;
 import de.ialistannen.javadocapi.model.types.JavadocType;
+import de.ialistannen.javadocapi.model.types.JavadocTypeSummary;
 import de.ialistannen.javadocapi.rendering.LinkResolveStrategy;
 import de.ialistannen.javadocapi.storage.ElementLoader;
+import de.ialistannen.javadocapi.storage.NameScorer;
 import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -52,6 +54,23 @@ public class BaseUrlElementLoader implements ElementLoader {
         .collect(Collectors.toList());
   }
 
+  @Override
+  public Collection<LoadResult<JavadocTypeSummary>> findClassSummariesByName(String name) {
+    return delegate.findClassSummariesByName(name)
+        .stream()
+        .map(it -> it.withLoader(this))
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public Collection<LoadResult<QualifiedName>> findMembersByName(String className,
+      String memberName) {
+    return delegate.findMembersByName(className, memberName)
+        .stream()
+        .map(it -> it.withLoader(this))
+        .collect(Collectors.toList());
+  }
+
   @Override
   public Collection<LoadResult<JavadocElement>> findElementByName(String name) {
     return delegate.findElementByName(name)
@@ -60,6 +79,15 @@ public class BaseUrlElementLoader implements ElementLoader {
         .collect(Collectors.toList());
   }
 
+  @Override
+  public Collection<LoadResult<QualifiedName>> findBestElementNames(String name,
+      NameScorer scorer, int limit) {
+    return delegate.findBestElementNames(name, scorer, limit)
+        .stream()
+        .map(it -> it.withLoader(this))
+        .collect(Collectors.toList());
+  }
+
   @Override
   public Collection<LoadResult<JavadocElement>> findByQualifiedName(QualifiedName qualifiedName) {
     return delegate.findByQualifiedName(qualifiedName)
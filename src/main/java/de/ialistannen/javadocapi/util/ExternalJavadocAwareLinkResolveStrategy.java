@@ -2,21 +2,48 @@ package de.ialistannen.javadocapi.util;
 
 import de.ialistannen.javadocapi.model.QualifiedName;
 import de.ialistannen.javadocapi.rendering.LinkResolveStrategy;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ExternalJavadocAwareLinkResolveStrategy implements LinkResolveStrategy {
 
+  private static final int MAXIMUM_REMEMBERED_LINKS = 10_000;
+
   private final LinkResolveStrategy underlying;
-  private final List<ExternalJavadocReference> externalJavadocReferences;
+  private final Map<String, String> packageBaseUrls;
+  private final Map<Key, String> resolvedLinks;
 
   public ExternalJavadocAwareLinkResolveStrategy(LinkResolveStrategy underlying,
       List<ExternalJavadocReference> externalJavadocReferences) {
     this.underlying = underlying;
-    this.externalJavadocReferences = List.copyOf(externalJavadocReferences);
+    this.packageBaseUrls = new HashMap<>();
+    this.resolvedLinks = new ConcurrentHashMap<>();
+
+    // The first reference declaring a package wins
+    for (ExternalJavadocReference reference : externalJavadocReferences) {
+      for (String packageName : reference.getPackages()) {
+        packageBaseUrls.putIfAbsent(packageName, reference.getBaseUrl());
+      }
+    }
   }
 
   @Override
   public String resolveLink(QualifiedName name, String baseUrl) {
+    // Starting over when the map grows too large bounds its size without the bookkeeping of an
+    // evicting cache, which would make a miss several times slower than resolving the link
+    if (resolvedLinks.size() > MAXIMUM_REMEMBERED_LINKS) {
+      resolvedLinks.clear();
+    }
+    return resolvedLinks.computeIfAbsent(
+        new Key(name, baseUrl),
+        key -> resolveUncached(name, baseUrl)
+    );
+  }
+
+  private String resolveUncached(QualifiedName name, String baseUrl) {
     String nameAsString = name.asString();
     String packageName;
 
@@ -29,10 +56,9 @@ public class ExternalJavadocAwareLinkResolveStrategy implements LinkResolveStrat
       packageName = name.getLexicalParent().map(QualifiedName::asString).orElse("nope");
     }
 
-    for (ExternalJavadocReference reference : externalJavadocReferences) {
-      if (reference.getPackages().contains(packageName)) {
-        return underlying.resolveLink(name, reference.getBaseUrl());
-      }
+    String externalBaseUrl = packageBaseUrls.get(packageName);
+    if (externalBaseUrl != null) {
+      return underlying.resolveLink(name, externalBaseUrl);
     }
 
     return underlying.resolveLink(name, baseUrl);
@@ -42,4 +68,32 @@ public class ExternalJavadocAwareLinkResolveStrategy implements LinkResolveStrat
   public String formatNamePart(QualifiedName name) {
     return underlying.formatNamePart(name);
   }
+
+  private static class Key {
+
+    private final QualifiedName name;
+    private final String baseUrl;
+
+    private Key(QualifiedName name, String baseUrl) {
+      this.name = name;
+      this.baseUrl = baseUrl;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return name.equals(key.name) && baseUrl.equals(key.baseUrl);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(name, baseUrl);
+    }
+  }
 }
@@ -0,0 +1,47 @@
+package de.ialistannen.javadocapi.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 hashes in their hex representation, e.g. for cache file names or content fingerprints.
+ */
+public final class Hashes {
+
+  private Hashes() {
+    throw new UnsupportedOperationException("No instantiation");
+  }
+
+  /**
+   * @param input the text to hash
+   * @return the hex encoded SHA-256 hash of the UTF-8 bytes of the text
+   */
+  public static String sha256(String input) {
+    return toHex(newSha256().digest(input.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * @return a new SHA-256 digest, e.g. to hash large inputs piece by piece
+   */
+  public static MessageDigest newSha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is required to be supported", e);
+    }
+  }
+
+  /**
+   * @param bytes the bytes to encode, e.g. a digest
+   * @return the lowercase hex representation of the bytes
+   */
+  public static String toHex(byte[] bytes) {
+    StringBuilder result = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      result.append(Character.forDigit((b >> 4) & 0xF, 16));
+      result.append(Character.forDigit(b & 0xF, 16));
+    }
+    return result.toString();
+  }
+}
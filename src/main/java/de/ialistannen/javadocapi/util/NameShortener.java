@@ -7,6 +7,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -22,86 +23,84 @@ public class NameShortener {
    * @return a map from original to shortened name
    */
   public Map<String, String> shortenMatches(Set<QualifiedName> names) {
-    Map<String, String> typeFixpoints = findFixpoint(
+    Map<String, String> shortenedNames = shortenTypes(
         names.stream()
             .map(QualifiedName::asString)
             .collect(Collectors.toSet())
     );
 
-    Set<String> allParameterTypes = typeFixpoints.values().stream()
+    Set<String> allParameterTypes = shortenedNames.values().stream()
         .map(this::getAllParameterTypes)
         .flatMap(Collection::stream)
         .collect(Collectors.toSet());
 
-    Map<String, String> parameterFixpoint = findFixpoint(allParameterTypes);
+    Map<String, String> shortenedParameters = shortenTypes(allParameterTypes);
 
-    return typeFixpoints.entrySet().stream()
+    return shortenedNames.entrySet().stream()
         .map(entry -> {
           String original = entry.getKey();
-          String replaced = mapParameters(entry.getValue(), parameterFixpoint);
+          String replaced = mapParameters(entry.getValue(), shortenedParameters);
           return Map.entry(original, replaced);
         })
         .collect(toMap(Entry::getKey, Entry::getValue));
   }
 
-  private Map<String, String> findFixpoint(Set<String> inputTypes) {
-    Map<String, String> currentTypes = inputTypes.stream().collect(toMap(it -> it, it -> it));
-
-    while (true) {
-      Map<String, String> iteration = typeIteration(currentTypes);
-      if (iteration.equals(currentTypes)) {
-        break;
-      }
-      currentTypes = iteration;
+  /**
+   * Strips the first package or type level of all types at once, round by round. A type stops
+   * once its next stripped form would collide with the one of another distinct type, or with the
+   * form a type already stopped at. Member parts after the type are kept.
+   *
+   * @param names the names to shorten
+   * @return a map from original to shortened name
+   */
+  private Map<String, String> shortenTypes(Set<String> names) {
+    Map<String, List<String>> namesByType = new HashMap<>();
+    for (String name : names) {
+      namesByType.computeIfAbsent(getType(name), ignored -> new ArrayList<>()).add(name);
     }
 
-    return currentTypes;
-  }
+    Map<String, String> shortenedTypes = new HashMap<>();
+    for (String type : namesByType.keySet()) {
+      shortenedTypes.put(type, type);
+    }
+    // The stripped forms of stopped types, which never change again
+    Set<String> takenForms = new HashSet<>();
+    List<String> activeTypes = new ArrayList<>(namesByType.keySet());
+
+    while (!activeTypes.isEmpty()) {
+      Map<String, List<String>> typesByStripped = new HashMap<>();
+      for (String type : activeTypes) {
+        String stripped = stripFirstNesting(shortenedTypes.get(type));
+        typesByStripped.computeIfAbsent(stripped, ignored -> new ArrayList<>()).add(type);
+      }
 
-  private Map<String, String> typeIteration(Map<String, String> names) {
-    Map<String, List<Map.Entry<String, String>>> types = names.entrySet().stream()
-        .collect(
-            toMap(
-                it -> stripFirstNesting(getType(it.getValue())),
-                it -> new ArrayList<>(List.of(
-                    Map.entry(
-                        it.getKey(),
-                        it.getValue()
-                    )
-                )),
-                (a, b) -> {
-                  a.addAll(b);
-                  return a;
-                }
-            )
-        );
-
-    Map<String, String> oldToNew = new HashMap<>();
-
-    for (var entry : types.entrySet()) {
-      // If we have "java.lang.String#foo()" and "java.lang.String#bar()", we still want to shorten
-      // them. This is what this stream here checks - if there is only one distinct type
-      // (two times java.lang.String in the example), count them as one.
-      int uniqueEntriesInGroup = (int) entry.getValue()
-          .stream()
-          .map(Entry::getKey)
-          .map(this::getType)
-          .distinct()
-          .count();
-      if (uniqueEntriesInGroup == 1) {
-        // Each entry has a mapping: Original Type -> Stripped Type with method/field name and type!
-        for (var type : entry.getValue()) {
-          oldToNew.put(type.getKey(), stripFirstNesting(type.getValue()));
-        }
-      } else {
-        // Each entry has a mapping: Original Type -> Stripped Type with method/field name and type!
-        for (var name : entry.getValue()) {
-          oldToNew.put(name.getKey(), name.getValue());
+      activeTypes = new ArrayList<>();
+      for (Entry<String, List<String>> entry : typesByStripped.entrySet()) {
+        String stripped = entry.getKey();
+        List<String> types = entry.getValue();
+        if (types.size() == 1 && !takenForms.contains(stripped)) {
+          String type = types.get(0);
+          if (stripped.equals(shortenedTypes.get(type))) {
+            // Nothing left to strip
+            takenForms.add(stripped);
+          } else {
+            shortenedTypes.put(type, stripped);
+            activeTypes.add(type);
+          }
+        } else {
+          takenForms.add(stripped);
         }
       }
     }
 
-    return oldToNew;
+    Map<String, String> result = new HashMap<>();
+    for (Entry<String, List<String>> entry : namesByType.entrySet()) {
+      String type = entry.getKey();
+      for (String name : entry.getValue()) {
+        result.put(name, shortenedTypes.get(type) + name.substring(type.length()));
+      }
+    }
+    return result;
   }
 
   private String mapParameters(String type, Map<String, String> parameterReplacements) {
@@ -14,10 +14,12 @@ public class Timings {
 
   private final Map<String, Instant> openTimings;
   private final Map<String, Duration> doneTimings;
+  private final Map<String, Long> values;
 
   public Timings() {
     this.openTimings = new HashMap<>();
     this.doneTimings = new HashMap<>();
+    this.values = new HashMap<>();
   }
 
   public <T, E extends Throwable> T measure(String name, FailableSupplier<T, E> supplier) throws E {
@@ -42,6 +44,26 @@ public class Timings {
     doneTimings.put(name, Duration.between(start, end));
   }
 
+  /**
+   * Records a duration that was measured elsewhere.
+   *
+   * @param name the name of the timing
+   * @param duration the measured duration
+   */
+  public void recordTiming(String name, Duration duration) {
+    doneTimings.put(name, duration);
+  }
+
+  /**
+   * Records a value that is not a duration, e.g. a counter or a percentage.
+   *
+   * @param name the name of the value
+   * @param value the value
+   */
+  public void recordValue(String name, long value) {
+    values.put(name, value);
+  }
+
   public String serialize(Gson gson) {
     if (!openTimings.isEmpty()) {
       System.err.println("There are still open timings " + openTimings);
@@ -52,6 +74,7 @@ public class Timings {
     for (Entry<String, Duration> entry : doneTimings.entrySet()) {
       data.put(entry.getKey(), entry.getValue().toMillis());
     }
+    data.putAll(values);
 
     return gson.toJson(data);
   }
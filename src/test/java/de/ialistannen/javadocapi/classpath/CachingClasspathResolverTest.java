@@ -0,0 +1,69 @@
+package de.ialistannen.javadocapi.classpath;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.apache.maven.shared.invoker.MavenInvocationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CachingClasspathResolverTest {
+
+  @TempDir
+  Path tempDir;
+  private Path artifactDirectory;
+  private CachingClasspathResolver resolver;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    Path repository = tempDir.resolve("repository");
+    artifactDirectory = Files.createDirectories(
+        repository.resolve("org").resolve("example").resolve("lib").resolve("1")
+    );
+    Files.writeString(
+        artifactDirectory.resolve("lib-1.pom"),
+        "<project><modelVersion>4.0.0</modelVersion><groupId>org.example</groupId>"
+            + "<artifactId>lib</artifactId><version>1</version></project>"
+    );
+    Files.write(artifactDirectory.resolve("lib-1.jar"), new byte[0]);
+
+    resolver = new CachingClasspathResolver(
+        tempDir.resolve("cache"),
+        new LocalRepositoryResolver(repository),
+        new PomClasspathDiscoverer()
+    );
+  }
+
+  @Test
+  void reusesCachedClasspath() throws Exception {
+    List<Path> classpath = resolver.findClasspath(pom(), Optional.empty());
+    assertEquals(List.of(artifactDirectory.resolve("lib-1.jar")), classpath);
+
+    // Without the POM the local resolution fails, so this must be answered from the cache
+    Files.delete(artifactDirectory.resolve("lib-1.pom"));
+
+    assertEquals(classpath, resolver.findClasspath(pom(), Optional.empty()));
+  }
+
+  @Test
+  void ignoresStaleCacheEntries() throws Exception {
+    resolver.findClasspath(pom(), Optional.empty());
+    Files.delete(artifactDirectory.resolve("lib-1.jar"));
+
+    assertThrows(
+        MavenInvocationException.class,
+        () -> resolver.findClasspath(pom(), Optional.empty())
+    );
+  }
+
+  private static Pom pom() {
+    return new Pom(Set.of(new Dependency("org.example", "lib", "1", false)), Set.of(), Set.of());
+  }
+}
@@ -0,0 +1,125 @@
+package de.ialistannen.javadocapi.classpath;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LocalRepositoryResolverTest {
+
+  @TempDir
+  Path repository;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    writeArtifact("org.example", "parent", "1", false, """
+        <packaging>pom</packaging>
+        <properties><lib.version>2.0</lib.version></properties>
+        <dependencies>
+          <dependency>
+            <groupId>org.example</groupId><artifactId>inherited</artifactId><version>1</version>
+          </dependency>
+        </dependencies>
+        """);
+    writeArtifact("org.example", "bom", "1", false, """
+        <packaging>pom</packaging>
+        <dependencyManagement><dependencies>
+          <dependency>
+            <groupId>org.example</groupId><artifactId>managed</artifactId><version>3</version>
+          </dependency>
+        </dependencies></dependencyManagement>
+        """);
+    writeArtifact("org.example", "app", "1", true, """
+        <parent>
+          <groupId>org.example</groupId><artifactId>parent</artifactId><version>1</version>
+        </parent>
+        <dependencies>
+          <dependency>
+            <groupId>org.example</groupId><artifactId>lib</artifactId>
+            <version>${lib.version}</version>
+            <exclusions><exclusion>
+              <groupId>org.example</groupId><artifactId>excluded</artifactId>
+            </exclusion></exclusions>
+          </dependency>
+          <dependency>
+            <groupId>org.example</groupId><artifactId>managed</artifactId>
+          </dependency>
+          <dependency>
+            <groupId>org.example</groupId><artifactId>tested</artifactId><version>1</version>
+            <scope>test</scope>
+          </dependency>
+        </dependencies>
+        """);
+    writeArtifact("org.example", "lib", "2.0", true, """
+        <dependencies>
+          <dependency>
+            <groupId>org.example</groupId><artifactId>excluded</artifactId><version>1</version>
+          </dependency>
+          <dependency>
+            <groupId>org.example</groupId><artifactId>managed</artifactId><version>1</version>
+          </dependency>
+        </dependencies>
+        """);
+    writeArtifact("org.example", "managed", "3", true, "");
+    writeArtifact("org.example", "inherited", "1", true, "");
+  }
+
+  @Test
+  void resolvesTransitiveDependencies() {
+    Pom pom = new Pom(
+        Set.of(new Dependency("org.example", "app", "1", false)),
+        Set.of(new Dependency("org.example", "bom", "1", true)),
+        Set.of()
+    );
+
+    Optional<List<Path>> classpath = new LocalRepositoryResolver(repository).resolve(pom);
+
+    assertTrue(classpath.isPresent());
+    assertEquals(
+        List.of("app-1.jar", "inherited-1.jar", "lib-2.0.jar", "managed-3.jar"),
+        classpath.get().stream()
+            .map(it -> it.getFileName().toString())
+            .sorted()
+            .collect(Collectors.toList())
+    );
+  }
+
+  @Test
+  void failsForMissingArtifacts() {
+    Pom pom = new Pom(
+        Set.of(new Dependency("org.example", "missing", "1", false)),
+        Set.of(),
+        Set.of()
+    );
+
+    assertTrue(new LocalRepositoryResolver(repository).resolve(pom).isEmpty());
+  }
+
+  private void writeArtifact(String groupId, String artifactId, String version, boolean jar,
+      String body) throws IOException {
+    Path directory = Files.createDirectories(
+        repository.resolve(groupId.replace('.', '/')).resolve(artifactId).resolve(version)
+    );
+    Files.writeString(
+        directory.resolve(artifactId + "-" + version + ".pom"),
+        "<project>\n<modelVersion>4.0.0</modelVersion>\n"
+            + "<groupId>" + groupId + "</groupId>\n"
+            + "<artifactId>" + artifactId + "</artifactId>\n"
+            + "<version>" + version + "</version>\n"
+            + body
+            + "</project>\n"
+    );
+    if (jar) {
+      Files.write(directory.resolve(artifactId + "-" + version + ".jar"), new byte[0]);
+    }
+  }
+}
@@ -0,0 +1,183 @@
+package de.ialistannen.javadocapi.indexing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.ialistannen.javadocapi.model.QualifiedName;
+import de.ialistannen.javadocapi.model.types.JavadocType;
+import de.ialistannen.javadocapi.rendering.Java11PlusLinkResolver;
+import de.ialistannen.javadocapi.rendering.StoredCommentRenderer;
+import de.ialistannen.javadocapi.storage.CommentPreRenderer.Target;
+import de.ialistannen.javadocapi.storage.ConfiguredGson;
+import de.ialistannen.javadocapi.storage.ElementLoader.LoadResult;
+import de.ialistannen.javadocapi.storage.SqliteStorage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IncrementalIndexingTest {
+
+  @TempDir
+  Path tempDir;
+  private Path sources;
+  private Path database;
+  private Path config;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    sources = Files.createDirectories(tempDir.resolve("src").resolve("pkg"));
+    database = tempDir.resolve("index.db");
+    config = tempDir.resolve("config.json");
+
+    Files.writeString(config, ConfiguredGson.create().toJson(Map.of(
+        "allowedPackages", List.of("*"),
+        "resourcePaths", List.of(sources.getParent().toString()),
+        "outputPath", database.toString(),
+        "incremental", true
+    )));
+
+    writeSource("Base", "public class Base {\n  public void first() {}\n}");
+    writeSource("Child", "public class Child extends Base {\n  public void own() {}\n}");
+    writeSource("Other", "public class Other {\n  public int field;\n}");
+  }
+
+  @Test
+  void updatesChangedAndDependentUnits() throws IOException {
+    Indexer.main(new String[]{config.toString()});
+
+    assertEquals(
+        Set.of("Base", "Child", "Other"),
+        storedUnits().keySet().stream()
+            .map(it -> it.substring(it.lastIndexOf('/') + 1).replace(".java", ""))
+            .collect(Collectors.toSet())
+    );
+    assertTrue(names().contains("pkg.Other#field"));
+
+    writeSource(
+        "Base",
+        "public class Base {\n  public void first() {}\n  public void second() {}\n}"
+    );
+    Files.delete(sources.resolve("Other.java"));
+    Map<String, String> unitsBefore = storedUnits();
+
+    Indexer.main(new String[]{config.toString()});
+
+    Set<String> names = names();
+    assertTrue(names.contains("pkg.Base#second()"));
+    assertTrue(names.stream().noneMatch(it -> it.startsWith("pkg.Other")));
+    // Child inherits the new method, so it has to be extracted again
+    assertTrue(childMembers().contains("pkg.Base#second()"));
+    assertEquals(2, storedUnits().size());
+    assertNotEquals(unitsBefore, storedUnits());
+  }
+
+  @Test
+  void replacesElementsOfNestedTypes() throws IOException {
+    writeSource(
+        "Other",
+        "public class Other {\n  public static class Nested {\n    public int old;\n  }\n}"
+    );
+    Indexer.main(new String[]{config.toString()});
+    assertTrue(names().contains("pkg.Other$Nested#old"));
+
+    writeSource(
+        "Other",
+        "public class Other {\n  public static class Nested {\n    public int now;\n  }\n}"
+    );
+    Indexer.main(new String[]{config.toString()});
+
+    Set<String> names = names();
+    assertTrue(names.contains("pkg.Other$Nested#now"));
+    assertTrue(names.stream().noneMatch(it -> it.endsWith("#old")));
+  }
+
+  @Test
+  void leavesUpToDateIndexAlone() throws IOException {
+    Indexer.main(new String[]{config.toString()});
+    long modified = Files.getLastModifiedTime(database).toMillis();
+    int elementCount = names().size();
+
+    Indexer.main(new String[]{config.toString()});
+
+    assertEquals(modified, Files.getLastModifiedTime(database).toMillis());
+    assertEquals(elementCount, names().size());
+  }
+
+  @Test
+  void rebuildsWhenPreRenderingChanges() throws IOException {
+    writeSource("Other", "/** Some docs. */\npublic class Other {\n}");
+    Indexer.main(new String[]{config.toString()});
+
+    Files.writeString(config, ConfiguredGson.create().toJson(Map.of(
+        "allowedPackages", List.of("*"),
+        "resourcePaths", List.of(sources.getParent().toString()),
+        "outputPath", database.toString(),
+        "incremental", true,
+        "preRenderBaseUrl", "https://example.com/"
+    )));
+    Indexer.main(new String[]{config.toString()});
+
+    String format = new StoredCommentRenderer(new Java11PlusLinkResolver(), "https://example.com/")
+        .getFormat();
+    try (SqliteStorage storage = new SqliteStorage(ConfiguredGson.create(), database)) {
+      QualifiedName other = new QualifiedName("pkg.Other");
+      assertTrue(storage.findPreRenderedComment(other, Target.HTML, format).isPresent());
+    }
+  }
+
+  @Test
+  void rebuildsWhenCompressionChanges() throws IOException {
+    Indexer.main(new String[]{config.toString()});
+
+    Files.writeString(config, ConfiguredGson.create().toJson(Map.of(
+        "allowedPackages", List.of("*"),
+        "resourcePaths", List.of(sources.getParent().toString()),
+        "outputPath", database.toString(),
+        "incremental", true,
+        "compressElements", true
+    )));
+    Indexer.main(new String[]{config.toString()});
+
+    try (SqliteStorage storage = new SqliteStorage(ConfiguredGson.create(), database)) {
+      assertTrue(storage.readMetadata("compression_dictionary").isPresent());
+    }
+  }
+
+  private void writeSource(String name, String body) throws IOException {
+    Files.writeString(sources.resolve(name + ".java"), "package pkg;\n\n" + body + "\n");
+  }
+
+  private Map<String, String> storedUnits() {
+    try (SqliteStorage storage = new SqliteStorage(ConfiguredGson.create(), database)) {
+      return storage.findSourceUnits();
+    }
+  }
+
+  private Set<String> names() {
+    try (SqliteStorage storage = new SqliteStorage(ConfiguredGson.create(), database)) {
+      return storage.findAll()
+          .stream()
+          .map(it -> it.getResult().getQualifiedName().asString())
+          .collect(Collectors.toSet());
+    }
+  }
+
+  private Set<String> childMembers() {
+    try (SqliteStorage storage = new SqliteStorage(ConfiguredGson.create(), database)) {
+      List<LoadResult<JavadocType>> types = List.copyOf(storage.findClassByName("pkg.Child"));
+      assertEquals(1, types.size());
+      return types.get(0).getResult().getMembers()
+          .stream()
+          .map(QualifiedName::asString)
+          .collect(Collectors.toSet());
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package de.ialistannen.javadocapi.indexing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import de.ialistannen.javadocapi.util.ExternalJavadocReference;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OnlineJavadocIndexerTest {
+
+  @TempDir
+  Path tempDir;
+
+  private HttpServer server;
+  private Map<String, String> files;
+  private AtomicInteger fullResponses;
+  private String etag;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    files = new ConcurrentHashMap<>();
+    fullResponses = new AtomicInteger();
+    etag = "\"v1\"";
+
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/", this::handle);
+    server.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  void fetchesAllIndexFormats() throws Exception {
+    files.put("/modular/element-list", "module:java.base\njava.lang\njava.util\n");
+    files.put("/old/package-list", "org.old\norg.old.sub\n");
+    files.put(
+        "/older/allpackages-index.html",
+        "<a href=\"x\">Package</a>\n<a href=\"org/older/package-summary.html\">org.older</a>"
+    );
+    OnlineJavadocIndexer indexer = new OnlineJavadocIndexer(HttpClient.newHttpClient());
+
+    List<ExternalJavadocReference> references = indexer.fetchPackages(List.of(
+        url("modular/"), url("old"), url("older"), url("missing")
+    ));
+
+    assertEquals(
+        List.of(
+            Set.of("java.lang", "java.util"),
+            Set.of("org.old", "org.old.sub"),
+            Set.of("org.older"),
+            Set.of()
+        ),
+        references.stream().map(ExternalJavadocReference::getPackages).collect(Collectors.toList())
+    );
+    assertEquals(url("old"), references.get(1).getBaseUrl());
+  }
+
+  @Test
+  void revalidatesCachedPackages() throws Exception {
+    files.put("/docs/element-list", "org.first\n");
+
+    assertEquals(Set.of("org.first"), cachingIndexer().fetchPackages(url("docs")).getPackages());
+    assertEquals(1, fullResponses.get());
+
+    // A new indexer, as after a restart, only revalidates the cached list
+    files.put("/docs/element-list", "org.ignored\n");
+    assertEquals(Set.of("org.first"), cachingIndexer().fetchPackages(url("docs")).getPackages());
+    assertEquals(1, fullResponses.get());
+
+    etag = "\"v2\"";
+    assertEquals(Set.of("org.ignored"), cachingIndexer().fetchPackages(url("docs")).getPackages());
+    assertEquals(2, fullResponses.get());
+  }
+
+  @Test
+  void usesCachedPackagesIfRevalidationFails() throws Exception {
+    files.put("/docs/element-list", "org.first\n");
+    assertEquals(Set.of("org.first"), cachingIndexer().fetchPackages(url("docs")).getPackages());
+
+    String unreachableUrl = url("docs");
+    server.stop(0);
+
+    assertEquals(
+        Set.of("org.first"),
+        cachingIndexer().fetchPackages(unreachableUrl).getPackages()
+    );
+  }
+
+  @Test
+  void returnsPackagesIfCacheIsNotWritable() throws Exception {
+    files.put("/docs/element-list", "org.first\n");
+    // A regular file where the cache directory should be
+    Path blocked = Files.writeString(tempDir.resolve("blocked"), "");
+    OnlineJavadocIndexer indexer = new OnlineJavadocIndexer(HttpClient.newHttpClient(), blocked);
+
+    assertEquals(Set.of("org.first"), indexer.fetchPackages(url("docs")).getPackages());
+    assertEquals(Set.of("org.first"), indexer.fetchPackages(url("docs")).getPackages());
+    assertEquals(2, fullResponses.get());
+  }
+
+  private OnlineJavadocIndexer cachingIndexer() {
+    return new OnlineJavadocIndexer(HttpClient.newHttpClient(), tempDir);
+  }
+
+  private String url(String path) {
+    return "http://127.0.0.1:" + server.getAddress().getPort() + "/" + path;
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    String body = files.get(exchange.getRequestURI().getPath());
+    if (body == null) {
+      exchange.sendResponseHeaders(404, -1);
+      exchange.close();
+      return;
+    }
+    if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+      exchange.sendResponseHeaders(304, -1);
+      exchange.close();
+      return;
+    }
+
+    fullResponses.incrementAndGet();
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("ETag", etag);
+    exchange.sendResponseHeaders(200, bytes.length);
+    try (OutputStream outputStream = exchange.getResponseBody()) {
+      outputStream.write(bytes);
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package de.ialistannen.javadocapi.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.Gson;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class QualifiedNameTest {
+
+  @Test
+  void parsesTypes() {
+    QualifiedName name = new QualifiedName("java.util.Map.Entry", "java.base");
+
+    assertEquals("Entry", name.getSimpleName());
+    assertEquals(Optional.of(new QualifiedName("java.util.Map", "java.base")),
+        name.getLexicalParent());
+    assertFalse(name.isMethod());
+    assertEquals("String", new QualifiedName("String").getSimpleName());
+    assertEquals(Optional.empty(), new QualifiedName("String").getLexicalParent());
+  }
+
+  @Test
+  void parsesMembers() {
+    QualifiedName method = new QualifiedName("a.B#foo(java.lang.String,int...)");
+
+    assertEquals("foo", method.getSimpleName());
+    assertEquals(Optional.of(new QualifiedName("a.B")), method.getLexicalParent());
+    assertTrue(method.isMethod());
+    assertEquals("field", new QualifiedName("a.B#field").getSimpleName());
+    assertEquals("a", new QualifiedName("a.B#a(b)c(d)").getSimpleName());
+    assertEquals("unclosed(", new QualifiedName("a.B#unclosed(").getSimpleName());
+  }
+
+  @Test
+  void parsesVarargs() {
+    QualifiedName name = new QualifiedName("java.lang.String...");
+
+    assertEquals("String...", name.getSimpleName());
+    assertEquals(Optional.of(new QualifiedName("java.lang")), name.getLexicalParent());
+  }
+
+  @Test
+  void internsEqualNames() {
+    QualifiedName first = QualifiedName.of("a.B#c()", new String("module"));
+    QualifiedName second = QualifiedName.of(new String("a.B#c()"), "module");
+
+    assertSame(first, second);
+    assertEquals(new QualifiedName("a.B#c()", "module"), first);
+  }
+
+  @Test
+  void parsesStringsWithModule() {
+    QualifiedName name = QualifiedName.of("a.B#c()", "module");
+
+    assertSame(name, QualifiedName.ofStringWithModule(name.asStringWithModule()));
+    assertSame(QualifiedName.of("a.B", null), QualifiedName.ofStringWithModule("a.B"));
+  }
+
+  @Test
+  void parsesInstancesCreatedByGson() {
+    Gson gson = new Gson();
+    QualifiedName name = gson.fromJson(
+        gson.toJson(new QualifiedName("a.B#c(int)", "m")), QualifiedName.class
+    );
+
+    assertEquals("{\"asText\":\"a.B#c(int)\",\"moduleName\":\"m\"}", gson.toJson(name));
+    assertEquals("c", name.getSimpleName());
+    assertTrue(name.isMethod());
+  }
+}
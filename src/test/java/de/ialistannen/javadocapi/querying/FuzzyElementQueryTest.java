@@ -0,0 +1,94 @@
+package de.ialistannen.javadocapi.querying;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import de.ialistannen.javadocapi.storage.ElementLoader;
+import de.ialistannen.javadocapi.storage.InMemoryElementLoader;
+import de.ialistannen.javadocapi.storage.SqliteStorage;
+import de.ialistannen.javadocapi.storage.SyntheticIndex;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class FuzzyElementQueryTest {
+
+  @TempDir
+  static Path tempDir;
+
+  private static SqliteStorage storage;
+  private static InMemoryElementLoader memoryLoader;
+
+  private final FuzzyElementQuery query = new FuzzyElementQuery();
+
+  @BeforeAll
+  static void setUp() {
+    storage = SyntheticIndex.write(tempDir.resolve("index.db"), 3, 12, 14);
+    memoryLoader = new InMemoryElementLoader(storage);
+  }
+
+  @AfterAll
+  static void tearDown() {
+    storage.close();
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "#get", "#GET", "#of", "#toString(", "#add(String", "Type1", "type1", "Type1#get",
+      "pkg1.Type2#constant_3", "Type2#Type2", "Missing", "#missing"
+  })
+  void limitedQueryReturnsBestOfFullQuery(String queryString) {
+    for (int limit : new int[]{1, 3, 10, 1000}) {
+      List<FuzzyQueryResult> expected = bestOf(query.query(storage, queryString), limit);
+
+      assertEquals(expected, query.query(storage, queryString, limit));
+      assertEquals(
+          expected.stream().map(FuzzyQueryResult::getQualifiedName).collect(Collectors.toList()),
+          query.query(memoryLoader, queryString, limit).stream()
+              .map(FuzzyQueryResult::getQualifiedName)
+              .collect(Collectors.toList())
+      );
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"#get", "#GET", "#of", "Type1", "type1", "Missing"})
+  void defaultLimitedQueryRanksFullQuery(String queryString) {
+    // Only implements the full query, like implementations written before limits existed
+    QueryApi<FuzzyQueryResult> fullQueryOnly = new QueryApi<>() {
+      @Override
+      public List<FuzzyQueryResult> query(ElementLoader loader, String queryString) {
+        return query.query(loader, queryString);
+      }
+
+      @Override
+      public Collection<String> autocomplete(ElementLoader loader, String prompt) {
+        return query.autocomplete(loader, prompt);
+      }
+    };
+
+    for (int limit : new int[]{1, 3, 10, 1000}) {
+      assertEquals(
+          bestOf(query.query(storage, queryString), limit),
+          fullQueryOnly.query(storage, queryString, limit)
+      );
+    }
+  }
+
+  private static List<FuzzyQueryResult> bestOf(List<FuzzyQueryResult> results, int limit) {
+    return results.stream()
+        .sorted(
+            Comparator.comparing(FuzzyQueryResult::isCaseSensitiveExact)
+                .thenComparing(FuzzyQueryResult::isExact)
+                .reversed()
+        )
+        .limit(limit)
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,77 @@
+package de.ialistannen.javadocapi.rendering;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import de.ialistannen.javadocapi.model.JavadocElement;
+import de.ialistannen.javadocapi.model.QualifiedName;
+import de.ialistannen.javadocapi.storage.ElementLoader.LoadResult;
+import de.ialistannen.javadocapi.storage.InMemoryElementLoader;
+import de.ialistannen.javadocapi.storage.SqliteStorage;
+import de.ialistannen.javadocapi.storage.SyntheticIndex;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CachingCommentRendererTest {
+
+  @TempDir
+  Path tempDir;
+
+  private SqliteStorage storage;
+  private AtomicInteger renderCalls;
+  private CachingCommentRenderer renderer;
+
+  @BeforeEach
+  void setUp() {
+    storage = SyntheticIndex.write(tempDir.resolve("index.db"), 1, 2, 3);
+    renderCalls = new AtomicInteger();
+    renderer = new CachingCommentRenderer(
+        (fragments, baseUrl) -> baseUrl + renderCalls.incrementAndGet(),
+        1_000_000
+    );
+  }
+
+  @AfterEach
+  void tearDown() {
+    storage.close();
+  }
+
+  @Test
+  void reusesRenderedComments() {
+    InMemoryElementLoader loader = new InMemoryElementLoader(storage);
+    LoadResult<JavadocElement> element = find(loader);
+
+    RenderedComment first = renderer.render(element, "https://example.com/").orElseThrow();
+    int callsForOneComment = renderCalls.get();
+
+    assertSame(first, renderer.render(find(loader), "https://example.com/").orElseThrow());
+    assertEquals(callsForOneComment, renderCalls.get());
+    assertEquals(1, renderer.getStats().hitCount());
+    assertEquals(1, renderer.getStats().missCount());
+  }
+
+  @Test
+  void rendersPerLoaderAndBaseUrl() {
+    InMemoryElementLoader loader = new InMemoryElementLoader(storage);
+    LoadResult<JavadocElement> element = find(loader);
+
+    renderer.render(element, "https://example.com/");
+    renderer.render(element, "https://other.com/");
+    renderer.render(find(new InMemoryElementLoader(storage)), "https://example.com/");
+    assertEquals(3, renderer.getStats().missCount());
+
+    renderer.invalidate(loader);
+    renderer.render(element, "https://example.com/");
+    assertEquals(4, renderer.getStats().missCount());
+  }
+
+  private LoadResult<JavadocElement> find(InMemoryElementLoader loader) {
+    return loader.findByQualifiedName(new QualifiedName("com.example.pkg0.Type1", "example.module"))
+        .iterator()
+        .next();
+  }
+}
@@ -0,0 +1,115 @@
+package de.ialistannen.javadocapi.rendering;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.gson.Gson;
+import de.ialistannen.javadocapi.model.JavadocElement;
+import de.ialistannen.javadocapi.model.comment.JavadocComment;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentFragment;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentTag;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentText;
+import de.ialistannen.javadocapi.storage.ConfiguredGson;
+import de.ialistannen.javadocapi.storage.SyntheticIndex;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class DirectMarkdownCommentRendererTest {
+
+  private MarkdownCommentRenderer markdownRenderer;
+  private DirectMarkdownCommentRenderer directRenderer;
+
+  @BeforeEach
+  void setUp() {
+    Java11PlusLinkResolver linkResolver = new Java11PlusLinkResolver();
+    markdownRenderer = new MarkdownCommentRenderer(linkResolver);
+    directRenderer = new DirectMarkdownCommentRenderer(linkResolver);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "Hello <b>bold</b> and <i> spaced </i>world.\n<p>\nSecond paragraph",
+      "<p>a<p/>b",
+      "A list:\n<ul>\n  <li>first\n  <li>second <code>with code</code></li>\n</ul>",
+      "<ol start=\"3\"><li>three<ol><li>nested</li></ol></li><li>four</ol>",
+      "Example <pre> foo\n  bar </pre> more text",
+      "<pre>{@code\n    int x = 1;\n}</pre>",
+      "<pre><code class=\"language-kotlin\">val x = 1\n</code></pre>",
+      "<blockquote><pre>quoted code</pre></blockquote>",
+      "<h1>Title</h1><h3>Sub</h3>text<hr>after",
+      "Escapes * _ ` [x] \\ and\n1. not a list\n- nor this",
+      "Version 1.2 &lt;T&gt; &amp; &nbsp;&copy &#64;param",
+      "a<!-- c -->-b and <a href=\"https://example.com\">a link</a>",
+      "Line<br>break and <br/> another",
+      "Returns a List<T> of elements",
+  })
+  void rendersLikeMarkdownRenderer(String html) {
+    List<JavadocCommentFragment> fragments = List.of(new JavadocCommentText(html));
+
+    assertEquals(
+        markdownRenderer.render(fragments, ""),
+        directRenderer.renderDirectly(fragments, "")
+    );
+  }
+
+  @Test
+  void rendersSyntheticCommentsLikeMarkdownRenderer() {
+    for (JavadocElement element : SyntheticIndex.generate(1, 1, 3)) {
+      JavadocComment comment = element.getComment().orElseThrow();
+      assertSameMarkdown(comment.getContent());
+      for (JavadocCommentTag tag : comment.getTags()) {
+        assertSameMarkdown(tag.getContent());
+      }
+    }
+  }
+
+  @Test
+  void rendersJdkCommentsLikeMarkdownRenderer() throws IOException {
+    Gson gson = ConfiguredGson.create();
+    List<String> lines;
+    try (InputStream stream = getClass().getResourceAsStream("/rendering/jdk-comments.jsonl")) {
+      lines = new String(stream.readAllBytes(), StandardCharsets.UTF_8).lines()
+          .collect(Collectors.toList());
+    }
+    assertFalse(lines.isEmpty());
+
+    for (String line : lines) {
+      JavadocComment comment = gson.fromJson(line, JavadocComment.class);
+      assertSameMarkdown(comment.getContent());
+      for (JavadocCommentTag tag : comment.getTags()) {
+        assertSameMarkdown(tag.getContent());
+      }
+    }
+  }
+
+  @Test
+  void fallsBackForUnsupportedHtml() {
+    List<JavadocCommentFragment> fragments = List.of(
+        new JavadocCommentText("<table><tr><td>cell</td></tr></table>")
+    );
+
+    assertThrows(
+        UnsupportedHtmlException.class,
+        () -> directRenderer.renderDirectly(fragments, "")
+    );
+    assertEquals(
+        markdownRenderer.render(fragments, ""),
+        directRenderer.render(fragments, "")
+    );
+  }
+
+  private void assertSameMarkdown(List<JavadocCommentFragment> fragments) {
+    assertEquals(
+        markdownRenderer.render(fragments, "https://example.com/"),
+        directRenderer.render(fragments, "https://example.com/")
+    );
+  }
+}
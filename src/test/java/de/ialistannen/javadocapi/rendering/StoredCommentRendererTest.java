@@ -0,0 +1,114 @@
+package de.ialistannen.javadocapi.rendering;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.ialistannen.javadocapi.model.JavadocElement;
+import de.ialistannen.javadocapi.storage.CommentPreRenderer.Target;
+import de.ialistannen.javadocapi.storage.ConfiguredGson;
+import de.ialistannen.javadocapi.storage.SqliteReadOptions;
+import de.ialistannen.javadocapi.storage.SqliteStorage;
+import de.ialistannen.javadocapi.storage.SqliteWriteOptions;
+import de.ialistannen.javadocapi.storage.SyntheticIndex;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StoredCommentRendererTest {
+
+  private static final String BASE_URL = "https://example.com/";
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void servesPreRenderedComments() {
+    StoredCommentRenderer renderer = new StoredCommentRenderer(
+        new Java11PlusLinkResolver(), BASE_URL
+    );
+    List<JavadocElement> elements = SyntheticIndex.generate(1, 1, 3);
+
+    try (SqliteStorage storage = storage(renderer)) {
+      storage.addAll(elements);
+
+      for (JavadocElement element : elements) {
+        for (Target target : Target.values()) {
+          assertTrue(storage.findPreRenderedComment(
+              element.getQualifiedName(), target, renderer.getFormat()
+          ).isPresent());
+          assertSameComment(element, target, renderer.render(storage, element, target).get());
+        }
+      }
+    }
+  }
+
+  @Test
+  void fallsBackForStaleFormat() {
+    StoredCommentRenderer renderer = new StoredCommentRenderer(
+        new Java11PlusLinkResolver(), BASE_URL
+    );
+    StoredCommentRenderer otherRenderer = new StoredCommentRenderer(
+        new Java8LinkResolver(), BASE_URL
+    );
+    List<JavadocElement> elements = SyntheticIndex.generate(1, 1, 3);
+    JavadocElement element = elements.get(0);
+
+    try (SqliteStorage storage = storage(renderer)) {
+      storage.addAll(elements);
+
+      assertTrue(storage.findPreRenderedComment(
+          element.getQualifiedName(), Target.HTML, otherRenderer.getFormat()
+      ).isEmpty());
+      assertEquals(
+          RenderedComment.render(
+              element.getComment().orElseThrow(),
+              new HtmlCommentRender(new Java8LinkResolver()),
+              BASE_URL
+          ).getContent(),
+          otherRenderer.render(storage, element, Target.HTML).orElseThrow().getContent()
+      );
+    }
+
+    // Indexing with another format must not leave the old pre-renders around
+    try (SqliteStorage storage = storage(otherRenderer)) {
+      storage.addAll(List.of());
+
+      assertTrue(storage.findPreRenderedComment(
+          element.getQualifiedName(), Target.HTML, otherRenderer.getFormat()
+      ).isEmpty());
+      assertTrue(storage.findPreRenderedComment(
+          element.getQualifiedName(), Target.HTML, renderer.getFormat()
+      ).isEmpty());
+    }
+  }
+
+  private SqliteStorage storage(StoredCommentRenderer renderer) {
+    return new SqliteStorage(
+        ConfiguredGson.create(),
+        tempDir.resolve("index.db"),
+        SqliteWriteOptions.defaults().withPreRenderer(renderer),
+        SqliteReadOptions.defaults()
+    );
+  }
+
+  private void assertSameComment(JavadocElement element, Target target, RenderedComment actual) {
+    CommentRenderer renderer = target == Target.HTML
+        ? new HtmlCommentRender(new Java11PlusLinkResolver())
+        : new MarkdownCommentRenderer(new Java11PlusLinkResolver());
+    RenderedComment expected = RenderedComment.render(
+        element.getComment().orElseThrow(), renderer, BASE_URL
+    );
+
+    assertEquals(expected.getContent(), actual.getContent());
+    assertEquals(tagContents(expected), tagContents(actual));
+  }
+
+  private List<String> tagContents(RenderedComment comment) {
+    return comment.getTags()
+        .stream()
+        .map(tag -> tag.getTagName() + " " + tag.getArgument().orElse("") + " " + tag.getContent())
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,101 @@
+package de.ialistannen.javadocapi.spoon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.Gson;
+import de.ialistannen.javadocapi.spoon.filtering.ForkJoinProcessor;
+import de.ialistannen.javadocapi.spoon.filtering.IndexerFilterChain;
+import de.ialistannen.javadocapi.storage.ConfiguredGson;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import spoon.Launcher;
+import spoon.OutputType;
+import spoon.reflect.CtModel;
+import spoon.reflect.code.CtLambda;
+import spoon.reflect.code.CtNewClass;
+import spoon.reflect.visitor.filter.TypeFilter;
+import spoon.support.compiler.VirtualFile;
+
+class JavadocLauncherTest {
+
+  private static final String SOURCE = ""
+      + "package pkg;\n"
+      + "import java.util.function.Function;\n"
+      + "/** An enum. */\n"
+      + "public enum Sample {\n"
+      + "  /** First. */\n"
+      + "  FIRST(1) { @Override public int get() { return 42; } },\n"
+      + "  /** Second. */\n"
+      + "  SECOND(Sample.BASE + 1);\n"
+      + "  /** A constant. */\n"
+      + "  public static final int BASE = 10;\n"
+      + "  /** A lambda. */\n"
+      + "  public static final Function<String, String> ID = it -> it.trim();\n"
+      + "  /** An anonymous class. */\n"
+      + "  public static final Runnable RUN = new Runnable() {\n"
+      + "    public void run() { System.out.println(\"run\"); }\n"
+      + "  };\n"
+      + "  static { System.out.println(\"static\"); }\n"
+      + "  { System.out.println(\"instance\"); }\n"
+      + "  private final int value;\n"
+      + "  /** Creates it. @param value the value */\n"
+      + "  Sample(int value) { this.value = value; Runnable r = () -> {}; }\n"
+      + "  /** @return the value */\n"
+      + "  @Deprecated(since = \"1\" + \"0\", forRemoval = true)\n"
+      + "  public int get() { return value; }\n"
+      + "}\n";
+
+  @Test
+  void extractsSameElementsAsFullLauncher() {
+    Gson gson = ConfiguredGson.create();
+
+    CtModel fullModel = buildModel(new Launcher());
+    CtModel javadocModel = buildModel(new JavadocLauncher());
+
+    assertEquals(extract(gson, fullModel), extract(gson, javadocModel));
+  }
+
+  @Test
+  void dropsBodiesButKeepsEnumConstants() {
+    CtModel model = buildModel(new JavadocLauncher());
+
+    assertEquals(
+        List.of("pkg.Sample$1"),
+        model.getElements(new TypeFilter<>(CtNewClass.class))
+            .stream()
+            .filter(it -> it.getAnonymousClass() != null)
+            .map(it -> it.getAnonymousClass().getQualifiedName())
+            .collect(Collectors.toList())
+    );
+    assertTrue(model.getElements(new TypeFilter<>(CtLambda.class)).isEmpty());
+  }
+
+  private CtModel buildModel(Launcher launcher) {
+    launcher.getEnvironment().setShouldCompile(false);
+    launcher.getEnvironment().disableConsistencyChecks();
+    launcher.getEnvironment().setOutputType(OutputType.NO_OUTPUT);
+    launcher.getEnvironment().setCommentEnabled(true);
+    launcher.getEnvironment().setComplianceLevel(16);
+    launcher.addInputResource(new VirtualFile(SOURCE, "pkg/Sample.java"));
+    launcher.addInputResource("src/main/java/de/ialistannen/javadocapi/model");
+    return launcher.buildModel();
+  }
+
+  private List<String> extract(Gson gson, CtModel model) {
+    JavadocElementExtractor extractor = new JavadocElementExtractor();
+    ForkJoinProcessor processor = new ForkJoinProcessor(
+        new IndexerFilterChain(Set.of("*")).asFilter(), 2
+    );
+    model.getAllModules().forEach(it -> processor.process(it, element -> element.accept(extractor)));
+    processor.shutdown();
+
+    return extractor.getFoundElements()
+        .stream()
+        .map(gson::toJson)
+        .sorted()
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,106 @@
+package de.ialistannen.javadocapi.spoon.filtering;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import spoon.Launcher;
+import spoon.reflect.CtModel;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtMethod;
+import spoon.support.compiler.VirtualFile;
+
+class ForkJoinProcessorTest {
+
+  private CtModel model;
+  private ForkJoinProcessor processor;
+
+  @BeforeEach
+  void setUp() {
+    Launcher launcher = new Launcher();
+    launcher.getEnvironment().setNoClasspath(true);
+    for (int pkg = 0; pkg < 4; pkg++) {
+      for (int type = 0; type < 5; type++) {
+        launcher.addInputResource(new VirtualFile(
+            "package pkg" + pkg + ";\n"
+            + "public class Type" + type + " {\n"
+            + "  public int field;\n"
+            + "  public void method(int a) { int b = a; }\n"
+            + "  private String hidden() { return \"\"; }\n"
+            + "  public static class Nested { public void inner() {} }\n"
+            + "}\n",
+            "pkg" + pkg + "/Type" + type + ".java"
+        ));
+      }
+    }
+    model = launcher.buildModel();
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (processor != null) {
+      processor.shutdown();
+    }
+  }
+
+  @Test
+  void visitsSameElementsAsSequentialWalk() {
+    FluentFilter filter = element -> !(element instanceof CtMethod)
+        || !((CtMethod<?>) element).isPrivate();
+    processor = new ForkJoinProcessor(filter, 4);
+
+    Set<CtElement> visited = Collections.synchronizedSet(
+        Collections.newSetFromMap(new IdentityHashMap<>())
+    );
+    List<CtElement> duplicates = Collections.synchronizedList(new ArrayList<>());
+    model.getAllModules().forEach(it -> processor.process(it, element -> {
+      if (!visited.add(element)) {
+        duplicates.add(element);
+      }
+    }));
+
+    Set<CtElement> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+    model.getAllModules().forEach(it -> walk(it, filter, expected));
+
+    assertEquals(List.of(), duplicates);
+    assertEquals(expected, visited);
+    assertFalse(processor.getWallTime().isZero());
+  }
+
+  @Test
+  void continuesAfterConsumerFailure() {
+    processor = new ForkJoinProcessor(element -> true, 2);
+
+    Set<CtElement> visited = Collections.synchronizedSet(
+        Collections.newSetFromMap(new IdentityHashMap<>())
+    );
+    model.getAllModules().forEach(it -> processor.process(it, element -> {
+      visited.add(element);
+      if (element instanceof CtMethod && ((CtMethod<?>) element).isPrivate()) {
+        throw new IllegalStateException("Expected failure");
+      }
+    }));
+
+    Set<CtElement> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+    model.getAllModules().forEach(it -> walk(it, element -> true, expected));
+
+    assertEquals(expected, visited);
+  }
+
+  private static void walk(CtElement element, FluentFilter filter, Set<CtElement> result) {
+    if (!filter.keep(element)) {
+      return;
+    }
+    result.add(element);
+    for (CtElement child : element.getDirectChildren()) {
+      walk(child, filter, result);
+    }
+  }
+}
@@ -0,0 +1,129 @@
+package de.ialistannen.javadocapi.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.ialistannen.javadocapi.model.JavadocElement;
+import de.ialistannen.javadocapi.model.QualifiedName;
+import de.ialistannen.javadocapi.model.types.JavadocType;
+import de.ialistannen.javadocapi.storage.ElementLoader.FetchException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AggregatedElementLoaderTest {
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newCachedThreadPool();
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void keepsLoaderOrderWhenQueryingConcurrently() {
+    AggregatedElementLoader loader = new AggregatedElementLoader(
+        List.of(new StubLoader("a", 300), new StubLoader("b", 0), new StubLoader("c", 100)),
+        executor,
+        Duration.ofSeconds(10)
+    );
+
+    assertEquals(List.of("a", "b", "c"), loader.autocomplete(""));
+  }
+
+  @Test
+  void leavesOutSlowLoaders() {
+    AggregatedElementLoader loader = new AggregatedElementLoader(
+        List.of(new StubLoader("a", 0), new StubLoader("slow", 5000), new StubLoader("c", 0)),
+        executor,
+        Duration.ofMillis(200)
+    );
+
+    long start = System.nanoTime();
+    assertEquals(List.of("a", "c"), loader.autocomplete(""));
+    assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2000);
+  }
+
+  @Test
+  void skipsFailingLoaders() {
+    AggregatedElementLoader loader = new AggregatedElementLoader(
+        List.of(new StubLoader(null, 0), new StubLoader("b", 100), new StubLoader("c", 0)),
+        executor,
+        Duration.ofSeconds(10)
+    );
+
+    assertEquals(List.of("b", "c"), loader.autocomplete(""));
+  }
+
+  @Test
+  void propagatesFailuresWhenSequential() {
+    AggregatedElementLoader loader = new AggregatedElementLoader(
+        List.of(new StubLoader("a", 0), new StubLoader(null, 0))
+    );
+
+    assertThrows(FetchException.class, () -> loader.autocomplete(""));
+  }
+
+  @Test
+  void requiresTimeout() {
+    assertThrows(
+        NullPointerException.class,
+        () -> new AggregatedElementLoader(List.of(), executor, null)
+    );
+  }
+
+  private static class StubLoader implements ElementLoader {
+
+    private final String completion;
+    private final long delayMillis;
+
+    private StubLoader(String completion, long delayMillis) {
+      this.completion = completion;
+      this.delayMillis = delayMillis;
+    }
+
+    @Override
+    public Collection<String> autocomplete(String prompt) {
+      try {
+        Thread.sleep(delayMillis);
+      } catch (InterruptedException e) {
+        throw new FetchException(e);
+      }
+      if (completion == null) {
+        throw new FetchException(new IllegalStateException("Broken loader"));
+      }
+      return List.of(completion);
+    }
+
+    @Override
+    public Collection<LoadResult<JavadocElement>> findAll() {
+      return List.of();
+    }
+
+    @Override
+    public Collection<LoadResult<JavadocType>> findClassByName(String name) {
+      return List.of();
+    }
+
+    @Override
+    public Collection<LoadResult<JavadocElement>> findElementByName(String name) {
+      return List.of();
+    }
+
+    @Override
+    public Collection<LoadResult<JavadocElement>> findByQualifiedName(QualifiedName name) {
+      return List.of();
+    }
+  }
+}
@@ -0,0 +1,156 @@
+package de.ialistannen.javadocapi.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.Gson;
+import de.ialistannen.javadocapi.model.JavadocElement;
+import de.ialistannen.javadocapi.model.QualifiedName;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentInlineTag;
+import de.ialistannen.javadocapi.model.types.AnnotationValue;
+import de.ialistannen.javadocapi.model.types.AnnotationValue.ListAnnotationValue;
+import de.ialistannen.javadocapi.model.types.AnnotationValue.PrimitiveAnnotationValue;
+import de.ialistannen.javadocapi.model.types.AnnotationValue.QualifiedAnnotationValue;
+import de.ialistannen.javadocapi.model.types.JavadocAnnotation;
+import de.ialistannen.javadocapi.model.types.JavadocMethod;
+import de.ialistannen.javadocapi.model.types.JavadocType;
+import de.ialistannen.javadocapi.model.types.PossiblyGenericType;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BinaryElementCodecTest {
+
+  private BinaryElementCodec codec;
+  private Gson gson;
+
+  @BeforeEach
+  void setUp() {
+    codec = new BinaryElementCodec();
+    gson = ConfiguredGson.create();
+  }
+
+  @Test
+  void roundTripsSyntheticElements() {
+    for (JavadocElement element : SyntheticIndex.generate(2, 3, 12)) {
+      byte[] encoded = codec.encode(element);
+
+      assertTrue(BinaryElementCodec.isBinaryElement(encoded));
+      assertEquals(gson.toJson(element), gson.toJson(codec.decode(encoded)));
+      assertTrue(encoded.length < gson.toJson(element).length());
+    }
+  }
+
+  @Test
+  void roundTripsAnnotations() {
+    Map<String, AnnotationValue> values = new LinkedHashMap<>();
+    values.put("value", new PrimitiveAnnotationValue("\"hello\""));
+    values.put("policy", new QualifiedAnnotationValue(
+        new QualifiedName("java.lang.annotation.RetentionPolicy#RUNTIME", "java.base")
+    ));
+    values.put("list", new ListAnnotationValue(List.of(
+        new PrimitiveAnnotationValue("1"), new PrimitiveAnnotationValue("2")
+    )));
+    JavadocMethod method = new JavadocMethod(
+        new QualifiedName("Foo#bar(int...)"),
+        new PossiblyGenericType(new QualifiedName("void"), List.of()),
+        List.of(),
+        List.of(),
+        List.of(),
+        List.of(new JavadocAnnotation(new QualifiedName("Baz"), values)),
+        List.of(),
+        null
+    );
+
+    assertEquals(gson.toJson(method), gson.toJson(codec.decode(codec.encode(method))));
+  }
+
+  @Test
+  void rejectsUnknownVersion() {
+    byte[] encoded = codec.encode(SyntheticIndex.generate(1, 1, 1).get(0));
+    encoded[0] = 42;
+
+    assertTrue(BinaryElementCodec.isBinaryElement(encoded));
+    assertEquals(
+        "Unsupported element format version 42",
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(encoded)).getMessage()
+    );
+  }
+
+  @Test
+  void persistedEnumOrderMatchesFormatVersion() {
+    // The codec stores ordinals. Changing these enums needs a new FORMAT_VERSION and this test.
+    assertEquals(1, BinaryElementCodec.FORMAT_VERSION);
+    assertEquals(
+        List.of("ENUM", "CLASS", "INTERFACE", "ANNOTATION"),
+        names(JavadocType.Type.values())
+    );
+    assertEquals(
+        List.of(
+            "CODE", "DOC_ROOT", "INDEX", "INHERIT_DOC", "LINK", "LINKPLAIN", "LITERAL", "VALUE",
+            "UNKNOWN"
+        ),
+        names(JavadocCommentInlineTag.Type.values())
+    );
+  }
+
+  @Test
+  void storageReadsBinaryElements(@TempDir Path tempDir) {
+    List<JavadocElement> elements = SyntheticIndex.generate(1, 2, 4);
+    try (SqliteStorage storage = new SqliteStorage(
+        gson,
+        tempDir.resolve("binary.db"),
+        SqliteWriteOptions.defaults().withFormat(ElementFormat.BINARY),
+        SqliteReadOptions.defaults()
+    )) {
+      storage.addAll(elements);
+
+      assertEquals(
+          gson.toJson(elements.get(elements.size() - 1)),
+          gson.toJson(storage.findClassByName("Type1").iterator().next().getResult())
+      );
+      assertEquals(elements.size(), storage.findAll().size());
+    }
+  }
+
+  @Test
+  void storageRejectsUnknownVersion(@TempDir Path tempDir) throws Exception {
+    Path file = tempDir.resolve("binary.db");
+    try (SqliteStorage storage = new SqliteStorage(
+        gson,
+        file,
+        SqliteWriteOptions.defaults().withFormat(ElementFormat.BINARY),
+        SqliteReadOptions.defaults()
+    )) {
+      storage.addAll(SyntheticIndex.generate(1, 1, 1));
+
+      try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file);
+          PreparedStatement statement = connection.prepareStatement(
+              "UPDATE JavadocElements SET data = ?"
+          )) {
+        statement.setBytes(1, new byte[]{42, 0});
+        statement.executeUpdate();
+      }
+
+      assertEquals(
+          "Unsupported element format version 42",
+          assertThrows(IllegalArgumentException.class, () -> storage.findClassByName("Type0"))
+              .getMessage()
+      );
+    }
+  }
+
+  private static List<String> names(Enum<?>[] constants) {
+    return Arrays.stream(constants).map(Enum::name).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,100 @@
+package de.ialistannen.javadocapi.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.google.gson.Gson;
+import de.ialistannen.javadocapi.model.JavadocElement;
+import de.ialistannen.javadocapi.model.QualifiedName;
+import de.ialistannen.javadocapi.model.comment.JavadocComment;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentInlineTag;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentInlineTag.Type;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentLink;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentTag;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentText;
+import de.ialistannen.javadocapi.model.types.AnnotationValue;
+import de.ialistannen.javadocapi.model.types.AnnotationValue.ListAnnotationValue;
+import de.ialistannen.javadocapi.model.types.AnnotationValue.PrimitiveAnnotationValue;
+import de.ialistannen.javadocapi.model.types.AnnotationValue.QualifiedAnnotationValue;
+import de.ialistannen.javadocapi.model.types.JavadocAnnotation;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ConfiguredGsonTest {
+
+  private Gson gson;
+
+  @BeforeEach
+  void setUp() {
+    gson = ConfiguredGson.create();
+  }
+
+  @Test
+  void writesComments() {
+    JavadocComment comment = new JavadocComment(
+        List.of(new JavadocCommentTag("param", "foo", List.of(new JavadocCommentText("a <b>")))),
+        List.of(
+            new JavadocCommentText("Hello \"world\"\n"),
+            new JavadocCommentInlineTag(Type.CODE, "List<String>"),
+            new JavadocCommentInlineTag(Type.INHERIT_DOC, null),
+            new JavadocCommentLink(new QualifiedName("a.B#c(int)", "mod"), " label ", false),
+            new JavadocCommentLink(new QualifiedName("a.B"), null, true)
+        )
+    );
+
+    String json = gson.toJson(comment);
+
+    assertEquals(
+        "{\"tags\":[{\"tagName\":\"param\",\"argument\":\"foo\",\"content\":[{\"type\":\"TEXT\","
+            + "\"value\":{\"text\":\"a \\u003cb\\u003e\"}}]}],\"content\":[{\"type\":\"TEXT\","
+            + "\"value\":{\"text\":\"Hello \\\"world\\\"\\n\"}},{\"type\":\"INLINE_TAG\","
+            + "\"value\":{\"type\":\"CODE\",\"argument\":\"List\\u003cString\\u003e\"}},"
+            + "{\"type\":\"INLINE_TAG\",\"value\":{\"type\":\"INHERIT_DOC\"}},{\"type\":\"LINK\","
+            + "\"value\":{\"label\":\"label\",\"target\":{\"asText\":\"a.B#c(int)\","
+            + "\"moduleName\":\"mod\"},\"plain\":false,\"type\":\"LINK\","
+            + "\"argument\":\"a.B#c(int) label\"}},{\"type\":\"LINK\",\"value\":{\"target\":"
+            + "{\"asText\":\"a.B\"},\"plain\":true,\"type\":\"LINKPLAIN\",\"argument\":\"a.B\"}}]}",
+        json
+    );
+    assertEquals(json, gson.toJson(gson.fromJson(json, JavadocComment.class)));
+  }
+
+  @Test
+  void writesAnnotations() {
+    Map<String, AnnotationValue> values = new LinkedHashMap<>();
+    values.put("value", new PrimitiveAnnotationValue("\"hello\""));
+    values.put("policy", new QualifiedAnnotationValue(
+        new QualifiedName("java.lang.annotation.RetentionPolicy#RUNTIME", "java.base")
+    ));
+    values.put("list", new ListAnnotationValue(List.of(
+        new PrimitiveAnnotationValue("1"),
+        new QualifiedAnnotationValue(new QualifiedName("a.B#C")),
+        new ListAnnotationValue(List.of(new PrimitiveAnnotationValue("2")))
+    )));
+    JavadocAnnotation annotation = new JavadocAnnotation(
+        new QualifiedName("a.Annotation", "mod"), values
+    );
+
+    String json = gson.toJson(annotation);
+
+    assertEquals(
+        "{\"type\":\"mod/a.Annotation\",\"values\":{\"value\":\"\\\"hello\\\"\",\"policy\":"
+            + "{\"name\":\"java.base/java.lang.annotation.RetentionPolicy#RUNTIME\"},"
+            // Values nested in lists are written like their class, but read back all the same
+            + "\"list\":[{\"value\":\"1\"},{\"name\":\"a.B#C\"},{\"values\":[\"2\"]}]}}",
+        json
+    );
+    assertEquals(json, gson.toJson(gson.fromJson(json, JavadocAnnotation.class)));
+  }
+
+  @Test
+  void roundTripsSyntheticElements() {
+    for (JavadocElement element : SyntheticIndex.generate(2, 3, 12)) {
+      String json = gson.toJson(element);
+
+      assertEquals(json, gson.toJson(gson.fromJson(json, element.getClass())));
+    }
+  }
+}
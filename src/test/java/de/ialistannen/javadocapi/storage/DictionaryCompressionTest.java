@@ -0,0 +1,87 @@
+package de.ialistannen.javadocapi.storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.Gson;
+import de.ialistannen.javadocapi.model.JavadocElement;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class DictionaryCompressionTest {
+
+  private final Gson gson = ConfiguredGson.create();
+
+  @Test
+  void roundTripsAndShrinksPayloads() {
+    List<byte[]> payloads = SyntheticIndex.generate(3, 5, 10).stream()
+        .map(it -> gson.toJson(it).getBytes(StandardCharsets.UTF_8))
+        .collect(Collectors.toList());
+    DictionaryCompression compression = DictionaryCompression.train(payloads);
+
+    long uncompressedSize = 0;
+    long compressedSize = 0;
+    for (byte[] payload : payloads) {
+      byte[] compressed = compression.compress(payload);
+
+      assertTrue(DictionaryCompression.isCompressed(compressed));
+      assertArrayEquals(payload, compression.decompress(compressed));
+      uncompressedSize += payload.length;
+      compressedSize += compressed.length;
+    }
+    assertTrue(compressedSize * 3 < uncompressedSize);
+  }
+
+  @Test
+  void rejectsCorruptPayloads() {
+    DictionaryCompression compression = new DictionaryCompression(new byte[0]);
+    byte[] compressed = compression.compress("Hello world".getBytes(StandardCharsets.UTF_8));
+    byte[] truncated = Arrays.copyOf(compressed, compressed.length - 3);
+
+    assertThrows(IllegalArgumentException.class, () -> compression.decompress(truncated));
+    assertThrows(IllegalArgumentException.class, () -> compression.decompress(new byte[]{1, 2}));
+
+    byte[] hugeLength = compressed.clone();
+    hugeLength[1] = 0x7F;
+    assertThrows(IllegalArgumentException.class, () -> compression.decompress(hugeLength));
+  }
+
+  @ParameterizedTest
+  @EnumSource(ElementFormat.class)
+  void storageReadsCompressedElements(ElementFormat format, @TempDir Path tempDir) {
+    List<JavadocElement> elements = SyntheticIndex.generate(2, 3, 4);
+    Path file = tempDir.resolve("compressed.db");
+    try (SqliteStorage storage = new SqliteStorage(
+        gson,
+        file,
+        SqliteWriteOptions.defaults().withFormat(format).withCompression(true),
+        SqliteReadOptions.defaults()
+    )) {
+      storage.addAll(elements);
+    }
+
+    // A fresh storage has to load the dictionary from the database
+    try (SqliteStorage storage = new SqliteStorage(gson, file, SqliteReadOptions.defaults())) {
+      assertEquals(
+          elements.stream().map(gson::toJson).sorted().collect(Collectors.toList()),
+          storage.findAll().stream()
+              .map(it -> gson.toJson(it.getResult()))
+              .sorted()
+              .collect(Collectors.toList())
+      );
+      assertEquals(
+          gson.toJson(elements.get(elements.size() - 1)),
+          gson.toJson(storage.findClassByName("pkg1.Type2").iterator().next().getResult())
+      );
+    }
+  }
+}
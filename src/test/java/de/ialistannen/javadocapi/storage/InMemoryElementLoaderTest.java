@@ -0,0 +1,76 @@
+package de.ialistannen.javadocapi.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.ialistannen.javadocapi.model.JavadocElement;
+import de.ialistannen.javadocapi.model.QualifiedName;
+import de.ialistannen.javadocapi.storage.ElementLoader.LoadResult;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class InMemoryElementLoaderTest {
+
+  @TempDir
+  Path tempDir;
+
+  private SqliteStorage storage;
+  private InMemoryElementLoader loader;
+
+  @BeforeEach
+  void setUp() {
+    storage = SyntheticIndex.write(tempDir.resolve("index.db"), 3, 12, 14);
+    loader = new InMemoryElementLoader(storage);
+  }
+
+  @AfterEach
+  void tearDown() {
+    storage.close();
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "Type1", "type1", "pkg2.Type11", "get", "GET", "#toString", "Type3#<init>", "CONSTANT_3",
+      "constant%3", "T_pe1", "example.module/com.example.pkg0.Type0", "Missing", "", "e"
+  })
+  void matchesSqliteStorage(String name) {
+    assertEquals(names(storage.findElementByName(name)), names(loader.findElementByName(name)));
+    assertEquals(names(storage.findClassByName(name)), names(loader.findClassByName(name)));
+    assertEquals(
+        names(storage.findClassByName(name)),
+        loader.findClassSummariesByName(name).stream()
+            .map(it -> it.getResult().getQualifiedName().asStringWithModule())
+            .sorted()
+            .collect(Collectors.toList())
+    );
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"com.example.pkg1.Type4", "com.example.pkg1.Type4#get()", "Type4"})
+  void findsByQualifiedName(String name) {
+    QualifiedName qualifiedName = new QualifiedName(name, "example.module");
+
+    assertEquals(
+        names(storage.findByQualifiedName(qualifiedName)),
+        names(loader.findByQualifiedName(qualifiedName))
+    );
+    assertTrue(
+        loader.findByQualifiedName(qualifiedName).stream().allMatch(it -> it.getLoader() == loader)
+    );
+  }
+
+  private static List<String> names(Collection<? extends LoadResult<?>> results) {
+    return results.stream()
+        .map(it -> (JavadocElement) it.getResult())
+        .map(it -> it.getQualifiedName().asStringWithModule())
+        .sorted()
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,220 @@
+package de.ialistannen.javadocapi.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import de.ialistannen.javadocapi.model.JavadocElement;
+import de.ialistannen.javadocapi.model.QualifiedName;
+import de.ialistannen.javadocapi.model.comment.JavadocComment;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentText;
+import de.ialistannen.javadocapi.model.types.JavadocField;
+import de.ialistannen.javadocapi.model.types.JavadocType;
+import de.ialistannen.javadocapi.model.types.JavadocType.Type;
+import de.ialistannen.javadocapi.model.types.JavadocTypeSummary;
+import de.ialistannen.javadocapi.model.types.PossiblyGenericType;
+import de.ialistannen.javadocapi.storage.ElementLoader.FetchException;
+import de.ialistannen.javadocapi.storage.ElementLoader.LoadResult;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class SqliteStorageTest {
+
+  @TempDir
+  Path tempDir;
+
+  private SqliteStorage storage;
+
+  @BeforeEach
+  void setUp() {
+    storage = new SqliteStorage(
+        ConfiguredGson.create(),
+        tempDir.resolve("index.db"),
+        SqliteReadOptions.defaults().withConnections(2)
+    );
+    storage.addAll(List.of(
+        type("java.lang.String", "java.lang.String#CASE_INSENSITIVE_ORDER"),
+        field("java.lang.String#CASE_INSENSITIVE_ORDER"),
+        type("java.lang.StringBuilder")
+    ));
+  }
+
+  @AfterEach
+  void tearDown() {
+    storage.close();
+  }
+
+  @Test
+  void findsElementsBySuffix() {
+    assertEquals(
+        List.of("java.lang.String", "java.lang.StringBuilder"),
+        names(storage.findClassByName("String"), storage.findClassByName("StringBuilder"))
+    );
+    assertEquals(
+        List.of("java.lang.String#CASE_INSENSITIVE_ORDER"),
+        names(storage.findElementByName("case_insensitive_order"))
+    );
+    assertEquals(
+        List.of("java.lang.String#CASE_INSENSITIVE_ORDER"),
+        names(storage.findByQualifiedName(
+            new QualifiedName("java.lang.String#CASE_INSENSITIVE_ORDER")
+        ))
+    );
+  }
+
+  @Test
+  void sharesPoolBetweenThreads() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Integer>> futures = IntStream.range(0, 200)
+          .mapToObj(i -> executor.submit(() -> storage.findClassByName("String").size()))
+          .collect(Collectors.toList());
+
+      for (Future<Integer> future : futures) {
+        assertEquals(1, future.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void failsAfterClose() {
+    storage.close();
+
+    assertThrows(FetchException.class, () -> storage.findClassByName("String"));
+  }
+
+  @Test
+  void servingModeReadsImmutableFile() {
+    try (SqliteStorage serving = new SqliteStorage(
+        ConfiguredGson.create(),
+        storage.getFile(),
+        SqliteReadOptions.serving().withConnections(2)
+    )) {
+      assertEquals(
+          List.of("java.lang.String#CASE_INSENSITIVE_ORDER"),
+          names(serving.findElementByName("String#CASE_INSENSITIVE_ORDER"))
+      );
+      assertEquals(
+          List.of("java.lang.StringBuilder"),
+          List.copyOf(serving.autocomplete("StringBuilder"))
+      );
+    }
+  }
+
+  @ParameterizedTest
+  @CsvSource({"JSON, false", "BINARY, false", "JSON, true", "BINARY, true"})
+  void readsClassSummaries(ElementFormat format, boolean compress) {
+    List<JavadocElement> elements = SyntheticIndex.generate(2, 3, 6);
+    try (SqliteStorage summaryStorage = new SqliteStorage(
+        ConfiguredGson.create(),
+        tempDir.resolve("summaries.db"),
+        SqliteWriteOptions.defaults().withFormat(format).withCompression(compress),
+        SqliteReadOptions.defaults()
+    )) {
+      summaryStorage.addAll(elements);
+
+      for (LoadResult<JavadocType> type : summaryStorage.findClassByName("Type1")) {
+        JavadocTypeSummary summary = summaryStorage
+            .findClassSummariesByName(type.getResult().getQualifiedName().asString())
+            .iterator()
+            .next()
+            .getResult();
+
+        assertEquals(type.getResult().getQualifiedName(), summary.getQualifiedName());
+        assertEquals(type.getResult().getType(), summary.getType());
+        assertEquals(type.getResult().getMembers(), summary.getMembers());
+      }
+    }
+  }
+
+  @Test
+  void findsMembersLikeScanningTypes() throws Exception {
+    Path file = tempDir.resolve("members.db");
+    List<List<String>> queries = List.of(
+        List.of("Type1", "get"),
+        List.of("pkg1.Type2", "constant_3"),
+        List.of("Type1", "<INIT>"),
+        List.of("Type", "e"),
+        List.of("Missing", "get")
+    );
+
+    try (SqliteStorage memberStorage = SyntheticIndex.write(file, 2, 3, 12)) {
+      // The in memory loader scans the member lists of the types
+      InMemoryElementLoader scanning = new InMemoryElementLoader(memberStorage);
+      for (List<String> query : queries) {
+        assertEquals(
+            memberNames(scanning.findMembersByName(query.get(0), query.get(1))),
+            memberNames(memberStorage.findMembersByName(query.get(0), query.get(1)))
+        );
+      }
+      assertEquals(2, memberStorage.findMembersByName("Type1", "get").size());
+
+      List<String> ordered = memberStorage.findMembersByName("Type", "e").stream()
+          .map(it -> it.getResult().asStringWithModule())
+          .collect(Collectors.toList());
+      assertEquals(ordered.stream().sorted().collect(Collectors.toList()), ordered);
+    }
+
+    try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file)) {
+      connection.createStatement().execute("DROP TABLE Members");
+    }
+    try (SqliteStorage legacyStorage = new SqliteStorage(ConfiguredGson.create(), file)) {
+      assertEquals(2, legacyStorage.findMembersByName("Type1", "get").size());
+    }
+  }
+
+  private static List<String> memberNames(Collection<LoadResult<QualifiedName>> results) {
+    return results.stream()
+        .map(it -> it.getResult().asStringWithModule())
+        .sorted()
+        .collect(Collectors.toList());
+  }
+
+  @SafeVarargs
+  private static List<String> names(
+      Collection<? extends LoadResult<? extends JavadocElement>>... results) {
+    return Arrays.stream(results)
+        .flatMap(Collection::stream)
+        .map(it -> it.getResult().getQualifiedName().asString())
+        .collect(Collectors.toList());
+  }
+
+  private static JavadocType type(String name, String... members) {
+    return new JavadocType(
+        new QualifiedName(name),
+        List.of("public"),
+        Arrays.stream(members).map(QualifiedName::new).collect(Collectors.toList()),
+        new JavadocComment(List.of(), List.of(new JavadocCommentText("A type"))),
+        List.of(),
+        List.of(),
+        Type.CLASS,
+        List.of(),
+        null
+    );
+  }
+
+  private static JavadocField field(String name) {
+    return new JavadocField(
+        new QualifiedName(name),
+        List.of("public", "static"),
+        new PossiblyGenericType(new QualifiedName("java.util.Comparator"), List.of()),
+        null
+    );
+  }
+}
@@ -0,0 +1,132 @@
+package de.ialistannen.javadocapi.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.gson.Gson;
+import de.ialistannen.javadocapi.model.JavadocElement;
+import de.ialistannen.javadocapi.storage.ElementLoader.FetchException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class StreamingElementWriterTest {
+
+  private final Gson gson = ConfiguredGson.create();
+
+  @ParameterizedTest
+  @ValueSource(booleans = {false, true})
+  void writesElementsFromAllProducers(boolean compress, @TempDir Path tempDir)
+      throws InterruptedException {
+    List<JavadocElement> elements = SyntheticIndex.generate(4, 10, 12);
+
+    try (SqliteStorage storage = new SqliteStorage(
+        gson,
+        tempDir.resolve("streamed.db"),
+        SqliteWriteOptions.defaults().withFormat(ElementFormat.BINARY).withCompression(compress),
+        SqliteReadOptions.defaults()
+    )) {
+      // A tiny queue forces the producers to wait for the writer
+      try (StreamingElementWriter writer = new StreamingElementWriter(storage, 100, 10)) {
+        List<Thread> producers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+          int offset = i;
+          producers.add(new Thread(() -> {
+            for (int j = offset; j < elements.size(); j += 4) {
+              writer.accept(storage.preRender(elements.get(j)));
+            }
+          }));
+        }
+        producers.forEach(Thread::start);
+        for (Thread producer : producers) {
+          producer.join();
+        }
+      }
+
+      assertEquals(sortedJson(elements), sortedJson(storage.findAll()
+          .stream()
+          .map(it -> it.getResult())
+          .collect(Collectors.toList()))
+      );
+      assertEquals(
+          1,
+          storage.findByQualifiedName(elements.get(0).getQualifiedName()).size()
+      );
+      assertEquals(
+          List.of("com.example.pkg3.Type9"),
+          storage.findClassByName("pkg3.Type9")
+              .stream()
+              .map(it -> it.getResult().getQualifiedName().asString())
+              .collect(Collectors.toList())
+      );
+    }
+  }
+
+  @Test
+  void stopsProducersAfterWriteFailures(@TempDir Path tempDir) {
+    Path missingDirectory = tempDir.resolve("missing").resolve("index.db");
+    try (SqliteStorage storage = new SqliteStorage(gson, missingDirectory)) {
+      StreamingElementWriter writer = new StreamingElementWriter(storage, 10, 2);
+
+      // Far more elements than the writer takes before failing and the queue holds
+      List<JavadocElement> elements = SyntheticIndex.generate(1, 10, 4);
+      assertThrows(
+          FetchException.class,
+          () -> elements.forEach(it -> writer.accept(storage.preRender(it)))
+      );
+
+      assertThrows(FetchException.class, writer::close);
+    }
+  }
+
+  @Test
+  void abortedReplacementChangesNothing(@TempDir Path tempDir) {
+    List<JavadocElement> elements = SyntheticIndex.generate(1, 2, 4);
+    Map<String, List<String>> names = Map.of(
+        "pkg/Unit.java",
+        elements.stream()
+            .map(it -> it.getQualifiedName().asStringWithModule())
+            .collect(Collectors.toList())
+    );
+
+    try (SqliteStorage storage = new SqliteStorage(gson, tempDir.resolve("units.db"))) {
+      try (StreamingElementWriter writer = new StreamingElementWriter(
+          batches -> storage.replaceSourceUnits(
+              Set.of(), batches, Map.of("pkg/Unit.java", "old"), () -> names
+          ),
+          10,
+          10
+      )) {
+        elements.forEach(it -> writer.accept(storage.preRender(it)));
+      }
+
+      StreamingElementWriter writer = new StreamingElementWriter(
+          batches -> storage.replaceSourceUnits(
+              Set.of("pkg/Unit.java"), batches, Map.of("pkg/Unit.java", "new"), Map::of
+          ),
+          10,
+          10
+      );
+      writer.accept(storage.preRender(elements.get(0)));
+      writer.abort();
+
+      assertEquals(elements.size(), storage.findAll().size());
+      assertEquals(Map.of("pkg/Unit.java", "old"), storage.findSourceUnits());
+    }
+  }
+
+  private List<String> sortedJson(List<JavadocElement> elements) {
+    return elements.stream()
+        .sorted(Comparator.comparing(it -> it.getQualifiedName().asStringWithModule()))
+        .map(gson::toJson)
+        .collect(Collectors.toList());
+  }
+}
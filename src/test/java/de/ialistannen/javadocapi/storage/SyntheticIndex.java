@@ -0,0 +1,180 @@
+package de.ialistannen.javadocapi.storage;
+
+import de.ialistannen.javadocapi.model.JavadocElement;
+import de.ialistannen.javadocapi.model.QualifiedName;
+import de.ialistannen.javadocapi.model.comment.JavadocComment;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentFragment;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentInlineTag;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentLink;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentTag;
+import de.ialistannen.javadocapi.model.comment.JavadocCommentText;
+import de.ialistannen.javadocapi.model.types.JavadocField;
+import de.ialistannen.javadocapi.model.types.JavadocMethod;
+import de.ialistannen.javadocapi.model.types.JavadocMethod.Parameter;
+import de.ialistannen.javadocapi.model.types.JavadocType;
+import de.ialistannen.javadocapi.model.types.JavadocType.Type;
+import de.ialistannen.javadocapi.model.types.JavadocTypeParameter;
+import de.ialistannen.javadocapi.model.types.PossiblyGenericType;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates a synthetic index that roughly resembles a real one, for use in tests and benchmarks.
+ * Every type has a mix of methods (including overloads and a constructor) and fields, and every
+ * element carries a comment with text, HTML, links and inline tags.
+ */
+public class SyntheticIndex {
+
+  private static final String[] METHOD_NAMES = {
+      "get", "of", "length", "toString", "valueOf", "compareTo", "isEmpty", "stream", "add",
+      "remove"
+  };
+
+  /**
+   * Generates the elements of a synthetic index.
+   *
+   * @param packages the amount of packages
+   * @param typesPerPackage the amount of types in each package
+   * @param membersPerType the amount of members each type has
+   * @return all generated elements
+   */
+  public static List<JavadocElement> generate(int packages, int typesPerPackage,
+      int membersPerType) {
+    List<JavadocElement> elements = new ArrayList<>();
+
+    for (int pkg = 0; pkg < packages; pkg++) {
+      for (int typeIndex = 0; typeIndex < typesPerPackage; typeIndex++) {
+        String typeName = "com.example.pkg" + pkg + ".Type" + typeIndex;
+        List<QualifiedName> members = new ArrayList<>();
+
+        members.add(new QualifiedName(typeName + "#<init>()"));
+        elements.add(method(typeName, "<init>", List.of()));
+
+        for (int member = 0; member < membersPerType; member++) {
+          String methodName = METHOD_NAMES[member % METHOD_NAMES.length]
+              + (member < METHOD_NAMES.length ? "" : member);
+
+          if (member % 4 == 3) {
+            String fieldName = "CONSTANT_" + member;
+            members.add(new QualifiedName(typeName + "#" + fieldName));
+            elements.add(field(typeName, fieldName));
+            continue;
+          }
+          List<String> parameters = member % 2 == 0
+              ? List.of()
+              : List.of("java.lang.String", "int");
+          JavadocMethod method = method(typeName, methodName, parameters);
+          members.add(method.getQualifiedName());
+          elements.add(method);
+        }
+
+        elements.add(type(typeName, members));
+      }
+    }
+
+    return elements;
+  }
+
+  /**
+   * Generates a synthetic index and writes it to the given file.
+   *
+   * @param file the file to write to
+   * @param packages the amount of packages
+   * @param typesPerPackage the amount of types in each package
+   * @param membersPerType the amount of members each type has
+   * @return the storage for the written file
+   */
+  public static SqliteStorage write(Path file, int packages, int typesPerPackage,
+      int membersPerType) {
+    SqliteStorage storage = new SqliteStorage(ConfiguredGson.create(), file);
+    storage.addAll(generate(packages, typesPerPackage, membersPerType));
+    return storage;
+  }
+
+  private static JavadocType type(String name, List<QualifiedName> members) {
+    return new JavadocType(
+        new QualifiedName(name, "example.module"),
+        List.of("public", "final"),
+        members,
+        comment(name),
+        List.of(),
+        List.of(new JavadocTypeParameter("T extends java.lang.Comparable<T>")),
+        Type.CLASS,
+        List.of(new PossiblyGenericType(
+            new QualifiedName("java.lang.Comparable", "java.base"),
+            List.of(new JavadocTypeParameter(name))
+        )),
+        new PossiblyGenericType(new QualifiedName("java.lang.Object", "java.base"), List.of())
+    );
+  }
+
+  private static JavadocMethod method(String owner, String name, List<String> parameterTypes) {
+    List<Parameter> parameters = new ArrayList<>();
+    for (int i = 0; i < parameterTypes.size(); i++) {
+      parameters.add(new Parameter(
+          new PossiblyGenericType(new QualifiedName(parameterTypes.get(i)), List.of()),
+          "arg" + i
+      ));
+    }
+
+    return new JavadocMethod(
+        new QualifiedName(
+            owner + "#" + name + "(" + String.join(",", parameterTypes) + ")",
+            "example.module"
+        ),
+        new PossiblyGenericType(new QualifiedName("java.lang.String", "java.base"), List.of()),
+        List.of("public"),
+        parameters,
+        List.of(new QualifiedName("java.io.IOException", "java.base")),
+        List.of(),
+        List.of(),
+        comment(owner + "#" + name)
+    );
+  }
+
+  private static JavadocField field(String owner, String name) {
+    return new JavadocField(
+        new QualifiedName(owner + "#" + name, "example.module"),
+        List.of("public", "static", "final"),
+        new PossiblyGenericType(new QualifiedName("int"), List.of()),
+        comment(owner + "#" + name)
+    );
+  }
+
+  private static JavadocComment comment(String subject) {
+    List<JavadocCommentFragment> content = List.of(
+        new JavadocCommentText("Returns the <em>value</em> of " + subject + ".\n<p>\nSee also "),
+        new JavadocCommentLink(
+            new QualifiedName("java.lang.String#valueOf(java.lang.Object)", "java.base"),
+            null,
+            false
+        ),
+        new JavadocCommentText(" and the example below:\n<pre>"),
+        new JavadocCommentInlineTag(
+            JavadocCommentInlineTag.Type.CODE,
+            "\n  var result = " + subject.replace('#', '.') + ";\n  result.get();\n"
+        ),
+        new JavadocCommentText("</pre>\nNote that the result is never {@code null}.")
+    );
+
+    List<JavadocCommentTag> tags = List.of(
+        new JavadocCommentTag(
+            "return",
+            null,
+            List.of(new JavadocCommentText("the value, never "), inlineCode("null"))
+        ),
+        new JavadocCommentTag(
+            "throws",
+            "java.io.IOException",
+            List.of(new JavadocCommentText("if reading the value fails"))
+        )
+    );
+
+    return new JavadocComment(tags, content);
+  }
+
+  private static JavadocCommentInlineTag inlineCode(String text) {
+    return new JavadocCommentInlineTag(JavadocCommentInlineTag.Type.CODE, text);
+  }
+}
@@ -0,0 +1,39 @@
+package de.ialistannen.javadocapi.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TopKTest {
+
+  @Test
+  void keepsBestValuesInStableOrder() {
+    TopK<String> topK = new TopK<>(3);
+    topK.offer("a", 1);
+    topK.offer("b", 2);
+    topK.offer("c", 1);
+    topK.offer("d", 2);
+    topK.offer("e", 1);
+    topK.offer("ignored", -1);
+
+    assertEquals(List.of("b", "d", "a"), topK.toList());
+  }
+
+  @Test
+  void saturatesOnceFullOfMaxScores() {
+    TopK<String> topK = new TopK<>(2);
+    topK.offer("a", 2);
+    assertFalse(topK.isSaturated(2));
+
+    topK.offer("b", 1);
+    assertFalse(topK.isSaturated(2));
+
+    topK.offer("c", 2);
+    assertTrue(topK.isSaturated(2));
+    assertFalse(topK.offer("d", 2));
+    assertEquals(List.of("a", "c"), topK.toList());
+  }
+}
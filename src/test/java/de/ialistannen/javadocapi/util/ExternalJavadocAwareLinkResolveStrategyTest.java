@@ -0,0 +1,47 @@
+package de.ialistannen.javadocapi.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import de.ialistannen.javadocapi.model.QualifiedName;
+import de.ialistannen.javadocapi.rendering.Java11PlusLinkResolver;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class ExternalJavadocAwareLinkResolveStrategyTest {
+
+  private final ExternalJavadocAwareLinkResolveStrategy strategy =
+      new ExternalJavadocAwareLinkResolveStrategy(
+          new Java11PlusLinkResolver(),
+          List.of(
+              new ExternalJavadocReference("https://first.com/", Set.of("org.first", "org.both")),
+              new ExternalJavadocReference("https://second.com/", Set.of("org.both"))
+          )
+      );
+
+  @Test
+  void resolvesExternalPackagesWithTheirBaseUrl() {
+    assertEquals(
+        "https://first.com/org/first/Type.html",
+        strategy.resolveLink(new QualifiedName("org.first.Type"), "https://own.com/")
+    );
+    assertEquals(
+        "https://first.com/org/both/Type.html#foo(int)",
+        strategy.resolveLink(new QualifiedName("org.both.Type#foo(int)"), "https://own.com/")
+    );
+  }
+
+  @Test
+  void resolvesOtherPackagesWithTheGivenBaseUrl() {
+    QualifiedName name = new QualifiedName("org.first.sub.Type");
+
+    assertEquals(
+        "https://own.com/org/first/sub/Type.html",
+        strategy.resolveLink(name, "https://own.com/")
+    );
+    assertEquals(
+        "https://other.com/org/first/sub/Type.html",
+        strategy.resolveLink(name, "https://other.com/")
+    );
+  }
+}
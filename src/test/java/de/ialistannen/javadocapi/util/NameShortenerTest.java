@@ -82,4 +82,23 @@ class NameShortenerTest {
         ))
     );
   }
+
+  @Test
+  void testShortensConflictsOfDifferentDepth() {
+    // All types are stripped in lockstep, so the shallower type reaches the simple name first
+    assertEquals(
+        Map.ofEntries(
+            Map.entry("java.util.Map.Entry", "Map.Entry"),
+            Map.entry("org.foo.Entry", "Entry"),
+            Map.entry("b.C", "C"),
+            Map.entry("a.b.C#foo(java.lang.String...)", "b.C#foo(String...)")
+        ),
+        shortener.shortenMatches(Set.of(
+            new QualifiedName("java.util.Map.Entry"),
+            new QualifiedName("org.foo.Entry"),
+            new QualifiedName("b.C"),
+            new QualifiedName("a.b.C#foo(java.lang.String...)")
+        ))
+    );
+  }
 }